@@ -0,0 +1,224 @@
+package data_structures;
+
+import java.util.NoSuchElementException;
+
+import interfaces.Queue;
+import interfaces.Stack;
+
+/**
+ * Double ended queue stored in a circular array, usable both as a Stack and as a Queue.
+ * Like CircularArrayQueue it keeps the index of the first element and wraps around the end of
+ * the array, but the length of the array is always a power of two so wrapping is a bit mask
+ * instead of a modulo, and elements can be added and removed at both ends.
+ * <p>
+ * As a Stack, push, pop and top work on the front. As a Queue, enqueue adds at the back and
+ * dequeue and front work on the front. So the same deque can be filled with push or enqueue
+ * and emptied in LIFO or FIFO order. No operation allocates unless the array has to grow. The
+ * array doubles when it is full and halves when it is only a quarter full, never going under the
+ * initial capacity, so a deque that was large once does not keep its memory forever.
+ * <p>
+ * Null elements are not allowed, like in LinkedStack and CircularArrayQueue.
+ *
+ * @param <E>
+ */
+@SuppressWarnings("unchecked")
+public class ArrayDeque<E> implements Stack<E>, Queue<E> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private E[] elements;
+	// Position of the first element and amount of elements
+	private int head, size;
+	// The array never shrinks under this length
+	private final int minCapacity;
+
+	public ArrayDeque() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/*Constructs an empty deque that fits initialCapacity elements, rounded up to a power of two, before it grows*/
+	public ArrayDeque(int initialCapacity) {
+		if(initialCapacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+		this.minCapacity = powerOfTwo(Math.max(initialCapacity, 2));
+		this.elements = (E[]) new Object[minCapacity];
+		this.head = 0;
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++) elements[(head + i) & (elements.length - 1)] = null;
+		head = 0;
+		size = 0;
+		if(elements.length > minCapacity) elements = (E[]) new Object[minCapacity];
+	}
+
+	/**
+	 * Adds the element before the first one
+	 * @param obj - (E) element to add
+	 * @throws IllegalArgumentException if obj is null
+	 */
+	public void addFirst(E obj) {
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		if(size == elements.length) resize(elements.length * 2);
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = obj;
+		size++;
+	}
+
+	/**
+	 * Adds the element after the last one
+	 * @param obj - (E) element to add
+	 * @throws IllegalArgumentException if obj is null
+	 */
+	public void addLast(E obj) {
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		if(size == elements.length) resize(elements.length * 2);
+		elements[(head + size) & (elements.length - 1)] = obj;
+		size++;
+	}
+
+	/**
+	 * Removes the first element
+	 * @return (E) the removed element
+	 * @throws NoSuchElementException if the deque is empty
+	 */
+	public E removeFirst() {
+		if(size == 0) throw new NoSuchElementException();
+		E value = elements[head];
+		elements[head] = null;
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		shrinkIfSparse();
+		return value;
+	}
+
+	/**
+	 * Removes the last element
+	 * @return (E) the removed element
+	 * @throws NoSuchElementException if the deque is empty
+	 */
+	public E removeLast() {
+		if(size == 0) throw new NoSuchElementException();
+		int last = (head + size - 1) & (elements.length - 1);
+		E value = elements[last];
+		elements[last] = null;
+		size--;
+		shrinkIfSparse();
+		return value;
+	}
+
+	/**
+	 * @return (E) the first element
+	 * @throws NoSuchElementException if the deque is empty
+	 */
+	public E first() {
+		if(size == 0) throw new NoSuchElementException();
+		return elements[head];
+	}
+
+	/**
+	 * @return (E) the last element
+	 * @throws NoSuchElementException if the deque is empty
+	 */
+	public E last() {
+		if(size == 0) throw new NoSuchElementException();
+		return elements[(head + size - 1) & (elements.length - 1)];
+	}
+
+	/**
+	 * Returns the element at a position, 0 being the first one
+	 * @param index - (int) position of the element
+	 * @return (E) the element at that position
+	 * @throws IndexOutOfBoundsException if index is not between 0 and size - 1
+	 */
+	public E get(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return elements[(head + index) & (elements.length - 1)];
+	}
+
+	/*Stack: the top is the first element*/
+	@Override
+	public void push(E obj) {
+		addFirst(obj);
+	}
+
+	@Override
+	public E pop() {
+		return removeFirst();
+	}
+
+	@Override
+	public E top() {
+		return first();
+	}
+
+	/*Queue: elements arrive at the back and leave from the front*/
+	@Override
+	public void enqueue(E obj) {
+		addLast(obj);
+	}
+
+	@Override
+	public E dequeue() {
+		return removeFirst();
+	}
+
+	@Override
+	public E front() {
+		return first();
+	}
+
+	/**
+	 * @return (int) how many elements fit before the array has to grow
+	 */
+	public int capacity() {
+		return elements.length;
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			if(i > 0) str.append(", ");
+			str.append(elements[(head + i) & (elements.length - 1)]);
+		}
+		return str.append(']').toString();
+	}
+
+	/*Halving at a quarter full instead of at half keeps a deque that goes up and down around the
+	limit from resizing on every operation*/
+	private void shrinkIfSparse() {
+		if(elements.length > minCapacity && size <= elements.length / 4) resize(elements.length / 2);
+	}
+
+	/*Moves the elements to an array of the given length, the first element going to position 0*/
+	private void resize(int capacity) {
+		if(capacity < 0) throw new IllegalStateException("Deque too large");
+		E[] newElements = (E[]) new Object[capacity];
+		/* The elements are at most two pieces of the old array: from head to the end and from 0 on */
+		int firstPart = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, newElements, 0, firstPart);
+		System.arraycopy(elements, 0, newElements, firstPart, size - firstPart);
+		elements = newElements;
+		head = 0;
+	}
+
+	/*Smallest power of two that is at least n*/
+	private static int powerOfTwo(int n) {
+		int power = Integer.highestOneBit(n);
+		if(power < n) power <<= 1;
+		if(power <= 0) throw new IllegalArgumentException("Capacity too large");
+		return power;
+	}
+
+}
@@ -1,13 +1,30 @@
 package data_structures;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import interfaces.List;
 
 /**
  * This is the ArrayList class. It is the implementation of a List using an array to store the data.
+ * <p>
+ * Besides the List methods it can add many elements at once (addAll), remove a range of positions
+ * (removeRange) and control the length of its array (ensureCapacity, trimToSize). All of them,
+ * and the adds and removes in the middle of the list, move the elements with a single
+ * System.arraycopy instead of one element at a time.
+ * <p>
+ * The iterator and the spliterator are fail-fast: if elements are added or removed while they are
+ * in use they throw ConcurrentModificationException instead of returning the wrong elements.
+ * The spliterator splits the positions in halves, so parallelStream() uses every core.
+ * <p>
+ * sort() is a stable merge sort in the style of TimSort: it finds the runs that are already in
+ * order, so a list that is sorted or nearly sorted takes about one comparison per element.
  * @author Gretchen Y. Bonilla
  *
  * @param <E> - Placeholder for whichever the type of object we want to store. 
@@ -23,6 +40,8 @@ public class ArrayList<E> implements List<E>{
 	   NOTE: size != elements.length, size is how many occupied spaces, 
 	   length is how many elements fit in the array */
 	private int size;
+	// Counts the times elements were added or removed, so iterators can tell the list changed
+	private int modCount;
 	
 	/**
 	 * Default constructor. 
@@ -38,9 +57,22 @@ public class ArrayList<E> implements List<E>{
 	 * @param initialCapacity - the initial capacity (length of array) we want the ArrayList to start with.
 	 */
 	public ArrayList(int initialCapacity) {
+		if(initialCapacity < 0)
+			throw new IllegalArgumentException("Capacity cannot be negative");
 		this.elements = (E[]) new Object[initialCapacity];
 		this.size = 0;
 	}
+
+	/**
+	 * Constructs an ArrayList with a copy of the elements of an array, in the same order.
+	 * The capacity is exactly the length of the array.
+	 * @param array - the elements the ArrayList starts with
+	 */
+	public ArrayList(E[] array) {
+		// Always copy into an Object[] so any E can be stored later, even if array is a String[]
+		this.elements = (E[]) Arrays.copyOf(array, array.length, Object[].class);
+		this.size = array.length;
+	}
 	/**
 	 * Returns the current size if the List
 	 */
@@ -71,6 +103,7 @@ public class ArrayList<E> implements List<E>{
 			reallocate();
 		// Add value at end and increase size
 		this.elements[size++] = obj;
+		this.modCount++;
 //		this.size++;
 		
 	}
@@ -90,12 +123,12 @@ public class ArrayList<E> implements List<E>{
 		if(this.size == this.elements.length)
 			reallocate();
 		// Shift values to the right
-		for(int i = size; i > index; i--)
-			this.elements[i] = this.elements[i-1];
+		System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
 		// Place new value
 		this.elements[index] = obj;
 		// Increase size
 		this.size++;
+		this.modCount++;
 	}
 	/**
 	 * Expands the size of elements. 
@@ -103,14 +136,100 @@ public class ArrayList<E> implements List<E>{
 	 * elements in it. This new array then replaces the old elements array.
 	 */
 	private void reallocate() {
-		E[] temp = (E[]) new Object[this.size*2];
-		
-		for(int i=0; i<this.elements.length; i++) {
-			temp[i] = this.elements[i];
-			elements[i] = null;
+		// An empty array would stay empty when doubled
+		grow(this.size + 1);
+	}
+
+	/**
+	 * Replaces elements with an array of at least minCapacity positions, at least twice the old length
+	 * so that adding one element at a time stays O(1) on average.
+	 * @param minCapacity - the amount of elements the new array must fit
+	 */
+	private void grow(int minCapacity) {
+		int newCapacity = Math.max(minCapacity, this.elements.length * 2);
+		// Doubling past the largest int overflows, then just take what we need
+		if(newCapacity < 0)
+			newCapacity = minCapacity;
+		this.elements = Arrays.copyOf(this.elements, newCapacity);
+	}
+
+	/**
+	 * Makes sure the array fits at least minCapacity elements, so that adding that many
+	 * does not reallocate. Useful when the final size is known before adding.
+	 * @param minCapacity - the amount of elements the list must fit
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if(minCapacity > this.elements.length)
+			grow(minCapacity);
+	}
+
+	/**
+	 * Shrinks the array to the current size, freeing the empty spaces at the end.
+	 * Useful for lists that are kept after they are done growing.
+	 */
+	public void trimToSize() {
+		if(this.size < this.elements.length)
+			this.elements = Arrays.copyOf(this.elements, this.size);
+	}
+
+	/**
+	 * Returns how many elements fit in the array before it has to grow.
+	 * @return (int) length of the internal array
+	 */
+	public int capacity() {
+		return this.elements.length;
+	}
+
+	/**
+	 * Adds every element of a List to the end of this one, in order.
+	 * The array grows at most once. When the other list is an ArrayList its elements are copied
+	 * with a single System.arraycopy.
+	 * @param other - the List with the elements we wish to add. It can be this same list.
+	 */
+	public void addAll(List<? extends E> other) {
+		int count = other.size();
+		ensureCapacity(this.size + count);
+		if(other instanceof ArrayList) {
+			// If other is this list the copy reads 0..size-1 and writes after size, they don't overlap
+			System.arraycopy(((ArrayList<?>) other).elements, 0, this.elements, this.size, count);
+			this.size += count;
 		}
-		this.elements = temp;
-		
+		else {
+			for(E e : other)
+				this.elements[this.size++] = e;
+		}
+		this.modCount++;
+	}
+
+	/**
+	 * Adds every element of an array to the end of the List, in order.
+	 * @param array - the elements we wish to add
+	 */
+	public void addAll(E[] array) {
+		ensureCapacity(this.size + array.length);
+		System.arraycopy(array, 0, this.elements, this.size, array.length);
+		this.size += array.length;
+		this.modCount++;
+	}
+
+	/**
+	 * Removes the elements from position fromIndex up to, but not including, toIndex.
+	 * The elements after toIndex are shifted to the left with a single copy.
+	 * @param fromIndex - position of the first element to remove
+	 * @param toIndex - position after the last element to remove
+	 * @throws IndexOutOfBoundsException if the range is not inside the list
+	 */
+	public void removeRange(int fromIndex, int toIndex) {
+		// Check bounds
+		if(fromIndex < 0 || toIndex > this.size || fromIndex > toIndex)
+			throw new IndexOutOfBoundsException();
+		// Shift values to the left
+		System.arraycopy(this.elements, toIndex, this.elements, fromIndex, this.size - toIndex);
+		// Null the positions that are now empty
+		int newSize = this.size - (toIndex - fromIndex);
+		Arrays.fill(this.elements, newSize, this.size, null);
+		this.size = newSize;
+		this.modCount++;
 	}
 
 	/**
@@ -164,12 +283,12 @@ public class ArrayList<E> implements List<E>{
 		if(index < 0 || index >= size)
 			throw new IndexOutOfBoundsException();
 		// Shift values to the left
-		for(int i = index; i < this.size-1; i++)
-			this.elements[i] = this.elements[i+1];
+		System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
 		// Null the last position
 		this.elements[this.size-1]= null;
 		// Decrease size
 		this.size--;
+		this.modCount++;
 		return true;
 	}
 
@@ -215,9 +334,9 @@ public class ArrayList<E> implements List<E>{
 	@Override
 	public void clear() {
 		// Empty array
-		for(int i = 0; i < this.size; i++)
-			this.elements[i] = null;
+		Arrays.fill(this.elements, 0, this.size, null);
 		this.size = 0;
+		this.modCount++;
 		
 	}
 
@@ -228,17 +347,21 @@ public class ArrayList<E> implements List<E>{
 	 */
 	@Override
 	public int removeAll(E obj) {
-		// Counter
-		int count = 0;
+		// Position where the next element we keep goes
+		int kept = 0;
 		
-//		while(remove(obj)) 
-//			count++;
-		boolean found = remove(obj);
-		while(found) {
-			count++;
-			found = remove(obj);
-			
+		// Move every element that is not obj to the left, past the removed ones.
+		// This is a single pass instead of calling remove(obj), and shifting, once per instance.
+		for(int i = 0; i < this.size; i++) {
+			if(!this.elements[i].equals(obj))
+				this.elements[kept++] = this.elements[i];
 		}
+		// Null the positions that are now empty
+		int count = this.size - kept;
+		Arrays.fill(this.elements, kept, this.size, null);
+		this.size = kept;
+		if(count > 0)
+			this.modCount++;
 		return count;
 	}
 
@@ -312,6 +435,37 @@ public class ArrayList<E> implements List<E>{
 		return new ArrayListIterator<E>();
 	}
 	
+	/**
+	 * Sorts the List with the order given by the comparator. Equal elements keep their order.
+	 * <p>
+	 * The array is cut into runs, positions that are already in order (a run in descending
+	 * order is reversed). Runs shorter than a minimum length (between 16 and 32) are extended
+	 * with a binary insertion sort. The runs are kept in a stack and merged while their
+	 * lengths stop decreasing fast enough, which keeps the merges balanced, and each merge
+	 * skips the elements that are already in their place and only copies the shorter run.
+	 * 
+	 * @param c - comparator that decides the order
+	 * @throws IllegalArgumentException if c is null
+	 */
+	@Override
+	public void sort(Comparator<? super E> c) {
+		if(c == null)
+			throw new IllegalArgumentException("Invalid parameter");
+		new MergeSorter<E>(this.elements, this.size, c).sort();
+		this.modCount++;
+	}
+	
+	/**
+	 * Returns a Spliterator over the elements in order. It splits the positions left in halves
+	 * and every part knows exactly how many elements it has.
+	 * 
+	 * @return - Spliterator for this List
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new ArrayListSpliterator(0, this.size, this.modCount);
+	}
+	
 	/**
 	 * Returns a String version of the ArrayList. 
 	 * The format will be: { A, B, C, null, null }, where each element within the brackets { }
@@ -360,10 +514,13 @@ public class ArrayList<E> implements List<E>{
 		
 		// Will keep track of what position in the List we are currently in
 		private int currentPosition;
+		// modCount when the iterator was created, if it changes the list was modified
+		private int expectedModCount;
 		
 		public ArrayListIterator() {
 			// Start of array
 			currentPosition = 0;
+			expectedModCount = modCount;
 		}
 		/**
 		 * Checks if we can still move in the list. This is done with an index.
@@ -379,9 +536,312 @@ public class ArrayList<E> implements List<E>{
 		 */
 		@Override
 		public E next() {
+			// The list changed since the iterator was created
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if(!hasNext())
+				throw new NoSuchElementException();
 			// Returns the value at the current position and increases the index
 			return (E) elements[currentPosition++];
 		}
 		
 	}
+	
+	/**
+	 * State of one sort(): the array, the comparator, the stack of runs waiting to be merged
+	 * and the temporary array the merges copy the shorter run into.
+	 *
+	 * @param <E>
+	 */
+	private static class MergeSorter<E> {
+		
+		// Runs shorter than this are sorted with binary insertion sort alone
+		private static final int MIN_MERGE = 32;
+		
+		private final E[] a;
+		private final int n;
+		private final Comparator<? super E> c;
+		// Start and length of every run in the stack, the last one is on top
+		private final int[] runBase = new int[49];
+		private final int[] runLength = new int[49];
+		private int stackSize;
+		private E[] tmp;
+		
+		public MergeSorter(E[] a, int n, Comparator<? super E> c) {
+			this.a = a;
+			this.n = n;
+			this.c = c;
+		}
+		
+		public void sort() {
+			if(n < 2)
+				return;
+			// Small arrays are a single run extended to the whole array
+			if(n < MIN_MERGE) {
+				int run = countRunAndMakeAscending(0, n);
+				binaryInsertionSort(0, n, run);
+				return;
+			}
+			int minRun = minRunLength(n);
+			int lo = 0;
+			while(lo < n) {
+				int run = countRunAndMakeAscending(lo, n);
+				// A short run is extended to minRun elements, or to the end of the array
+				if(run < minRun) {
+					int forced = Math.min(n - lo, minRun);
+					binaryInsertionSort(lo, lo + forced, lo + run);
+					run = forced;
+				}
+				runBase[stackSize] = lo;
+				runLength[stackSize] = run;
+				stackSize++;
+				mergeCollapse();
+				lo += run;
+			}
+			// Merge whatever is left in the stack, from the top
+			while(stackSize > 1) {
+				int i = stackSize - 2;
+				if(i > 0 && runLength[i - 1] < runLength[i + 1])
+					i--;
+				mergeAt(i);
+			}
+		}
+		
+		/*
+		 * Length of the run that starts at lo. If it is in descending order it is reversed, so the
+		 * run is always ascending. Only strictly descending runs are reversed to keep the sort stable.
+		 */
+		private int countRunAndMakeAscending(int lo, int hi) {
+			int runHi = lo + 1;
+			if(runHi == hi)
+				return 1;
+			if(c.compare(a[runHi++], a[lo]) < 0) {
+				while(runHi < hi && c.compare(a[runHi], a[runHi - 1]) < 0)
+					runHi++;
+				for(int i = lo, j = runHi - 1; i < j; i++, j--) {
+					E swap = a[i];
+					a[i] = a[j];
+					a[j] = swap;
+				}
+			}
+			else {
+				while(runHi < hi && c.compare(a[runHi], a[runHi - 1]) >= 0)
+					runHi++;
+			}
+			return runHi - lo;
+		}
+		
+		/*
+		 * Sorts lo..hi-1 knowing lo..start-1 is already sorted, inserting every other element
+		 * after the last element that is not greater than it (found with a binary search).
+		 */
+		private void binaryInsertionSort(int lo, int hi, int start) {
+			for(; start < hi; start++) {
+				E pivot = a[start];
+				int left = lo, right = start;
+				while(left < right) {
+					int middle = (left + right) >>> 1;
+					if(c.compare(pivot, a[middle]) < 0)
+						right = middle;
+					else
+						left = middle + 1;
+				}
+				System.arraycopy(a, left, a, left + 1, start - left);
+				a[left] = pivot;
+			}
+		}
+		
+		/*
+		 * n if it is small, otherwise a number k between MIN_MERGE/2 and MIN_MERGE such that n/k
+		 * is close to (but not above) a power of two, so the final merges are balanced.
+		 */
+		private static int minRunLength(int n) {
+			int r = 0;
+			while(n >= MIN_MERGE) {
+				r |= n & 1;
+				n >>= 1;
+			}
+			return n + r;
+		}
+		
+		/*
+		 * Merges runs at the top of the stack until, for the top runs X, Y, Z (Z on top),
+		 * X > Y + Z and Y > Z. Then the run lengths grow at least as fast as Fibonacci numbers
+		 * going down the stack, so the stack stays small and the merges stay balanced.
+		 */
+		private void mergeCollapse() {
+			while(stackSize > 1) {
+				int i = stackSize - 2;
+				if((i > 0 && runLength[i - 1] <= runLength[i] + runLength[i + 1])
+						|| (i > 1 && runLength[i - 2] <= runLength[i] + runLength[i - 1])) {
+					if(runLength[i - 1] < runLength[i + 1])
+						i--;
+				}
+				else if(runLength[i] > runLength[i + 1])
+					break;
+				mergeAt(i);
+			}
+		}
+		
+		/*
+		 * Merges the runs i and i + 1 of the stack.
+		 */
+		private void mergeAt(int i) {
+			int base1 = runBase[i], length1 = runLength[i];
+			int base2 = runBase[i + 1], length2 = runLength[i + 1];
+			runLength[i] = length1 + length2;
+			if(i == stackSize - 3) {
+				runBase[i + 1] = runBase[i + 2];
+				runLength[i + 1] = runLength[i + 2];
+			}
+			stackSize--;
+			
+			// The first elements of run 1 that are not greater than the first of run 2 are already in place
+			int skip = upperBound(a[base2], base1, length1);
+			base1 += skip;
+			length1 -= skip;
+			if(length1 == 0)
+				return;
+			// So are the last elements of run 2 that are not smaller than the last of run 1
+			length2 = lowerBound(a[base1 + length1 - 1], base2, length2);
+			if(length2 == 0)
+				return;
+			if(length1 <= length2)
+				mergeLow(base1, length1, base2, length2);
+			else
+				mergeHigh(base1, length1, base2, length2);
+		}
+		
+		// Amount of elements of a[base..base+length-1] that are not greater than key
+		private int upperBound(E key, int base, int length) {
+			int left = 0, right = length;
+			while(left < right) {
+				int middle = (left + right) >>> 1;
+				if(c.compare(key, a[base + middle]) < 0)
+					right = middle;
+				else
+					left = middle + 1;
+			}
+			return left;
+		}
+		
+		// Amount of elements of a[base..base+length-1] that are smaller than key
+		private int lowerBound(E key, int base, int length) {
+			int left = 0, right = length;
+			while(left < right) {
+				int middle = (left + right) >>> 1;
+				if(c.compare(a[base + middle], key) < 0)
+					left = middle + 1;
+				else
+					right = middle;
+			}
+			return left;
+		}
+		
+		/*
+		 * Merges when run 1 is the shorter one: run 1 is copied out and the merge goes from the
+		 * front. On ties the element of run 1 goes first, which keeps the sort stable.
+		 */
+		private void mergeLow(int base1, int length1, int base2, int length2) {
+			E[] t = ensureTmp(length1);
+			System.arraycopy(a, base1, t, 0, length1);
+			int i = 0, j = base2, dest = base1;
+			int end2 = base2 + length2;
+			while(i < length1 && j < end2) {
+				if(c.compare(a[j], t[i]) < 0)
+					a[dest++] = a[j++];
+				else
+					a[dest++] = t[i++];
+			}
+			// What is left of run 2 is already in place
+			System.arraycopy(t, i, a, dest, length1 - i);
+		}
+		
+		/*
+		 * Merges when run 2 is the shorter one: run 2 is copied out and the merge goes from the
+		 * back. On ties the element of run 2 goes last, which keeps the sort stable.
+		 */
+		private void mergeHigh(int base1, int length1, int base2, int length2) {
+			E[] t = ensureTmp(length2);
+			System.arraycopy(a, base2, t, 0, length2);
+			int i = base1 + length1 - 1, j = length2 - 1, dest = base2 + length2 - 1;
+			while(i >= base1 && j >= 0) {
+				if(c.compare(t[j], a[i]) < 0)
+					a[dest--] = a[i--];
+				else
+					a[dest--] = t[j--];
+			}
+			// What is left of run 1 is already in place
+			System.arraycopy(t, 0, a, base1, j + 1);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private E[] ensureTmp(int length) {
+			if(tmp == null || tmp.length < length)
+				tmp = (E[]) new Object[Math.max(length, Math.min(n >>> 1, 256))];
+			return tmp;
+		}
+	}
+	
+	/**
+	 * Spliterator for the ArrayList, it covers the positions from index up to (not including) fence.
+	 * Splitting gives the first half of them to a new Spliterator.
+	 */
+	private class ArrayListSpliterator implements Spliterator<E> {
+		
+		private int index;
+		private final int fence;
+		private final int expectedModCount;
+		
+		public ArrayListSpliterator(int index, int fence, int expectedModCount) {
+			this.index = index;
+			this.fence = fence;
+			this.expectedModCount = expectedModCount;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if(action == null)
+				throw new IllegalArgumentException("Invalid parameter");
+			if(index >= fence)
+				return false;
+			action.accept(elements[index++]);
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			if(action == null)
+				throw new IllegalArgumentException("Invalid parameter");
+			E[] data = elements;
+			for(; index < fence; index++)
+				action.accept(data[index]);
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if(middle <= index)
+				return null;
+			// The new Spliterator takes index..middle and this one keeps middle..fence
+			Spliterator<E> lower = new ArrayListSpliterator(index, middle, expectedModCount);
+			index = middle;
+			return lower;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+		
+	}
 }
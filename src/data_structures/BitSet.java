@@ -0,0 +1,258 @@
+package data_structures;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import interfaces.Set;
+
+/**
+ * Set of non-negative integers, meant for dense ids like the station ids of a StationGraph.
+ * Every possible element is one bit of a long[], so checking, adding or removing an id is a
+ * single word operation and the set takes one bit per id instead of an entry per element.
+ * union, difference, intersection and isSubset work 64 elements at a time when the other set
+ * is a BitSet too.
+ * <p>
+ * The words grow when a larger id is added. The int versions of add, isMember and remove
+ * avoid boxing; the ones from Set take an Integer and do the same.
+ */
+public class BitSet implements Set<Integer> {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private long[] words;
+	private int currentSize;
+
+	/*Constructs an empty set with room for the ids below capacity before it grows*/
+	public BitSet(int capacity) {
+		if(capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+		words = new long[Math.max(wordIndex(capacity - 1) + 1, 1)];
+	}
+
+	public BitSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Adds the id to the set
+	 * @param id - (int) id to add, at least 0
+	 * @return true if it was not in the set
+	 */
+	public boolean add(int id) {
+		if(id < 0) throw new IndexOutOfBoundsException("Negative id: " + id);
+		int index = wordIndex(id);
+		if(index >= words.length) words = Arrays.copyOf(words, Math.max(words.length * 2, index + 1));
+		long before = words[index];
+		words[index] = before | (1L << id);
+		if(before == words[index]) return false;
+		currentSize++;
+		return true;
+	}
+
+	/**
+	 * @param id - (int) id to look for
+	 * @return true if the id is in the set
+	 */
+	public boolean isMember(int id) {
+		if(id < 0) return false;
+		int index = wordIndex(id);
+		return index < words.length && (words[index] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Removes the id from the set
+	 * @param id - (int) id to remove
+	 * @return true if it was in the set
+	 */
+	public boolean remove(int id) {
+		if(id < 0) return false;
+		int index = wordIndex(id);
+		if(index >= words.length) return false;
+		long before = words[index];
+		words[index] = before & ~(1L << id);
+		if(before == words[index]) return false;
+		currentSize--;
+		return true;
+	}
+
+	@Override
+	public boolean add(Integer obj) {
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		return add(obj.intValue());
+	}
+
+	@Override
+	public boolean isMember(Integer obj) {
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		return isMember(obj.intValue());
+	}
+
+	@Override
+	public boolean remove(Integer obj) {
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		return remove(obj.intValue());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return currentSize == 0;
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0);
+		currentSize = 0;
+	}
+
+	/**
+	 * Returns the smallest id in the set that is at least 'from', to walk the set without boxing:
+	 * for(int id = set.nextSetBit(0); id != -1; id = set.nextSetBit(id + 1))
+	 * @param from - (int) id to start looking from
+	 * @return the id found, or -1 if there is none
+	 */
+	public int nextSetBit(int from) {
+		if(from < 0) from = 0;
+		int index = wordIndex(from);
+		if(index >= words.length) return -1;
+		long word = words[index] & (-1L << from);
+		while(word == 0) {
+			if(++index == words.length) return -1;
+			word = words[index];
+		}
+		return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+			private int next = nextSetBit(0);
+
+			@Override
+			public boolean hasNext() {
+				return next != -1;
+			}
+
+			@Override
+			public Integer next() {
+				if(next == -1) throw new NoSuchElementException();
+				int id = next;
+				next = nextSetBit(id + 1);
+				return id;
+			}
+		};
+	}
+
+	/**
+	 * Returns a set with the all the elements from the target set and a given S2 combined
+	 * @param S2 - the second set
+	 * @return S3 - The set with the combined elements from the target set and S2
+	 */
+	@Override
+	public Set<Integer> union(Set<Integer> S2) {
+		BitSet result = copy();
+		if(S2 instanceof BitSet) {
+			long[] other = ((BitSet) S2).words;
+			if(other.length > result.words.length) result.words = Arrays.copyOf(result.words, other.length);
+			for(int i = 0; i < other.length; i++) result.words[i] |= other[i];
+			result.recount();
+		}
+		else {
+			for(Integer id : S2) result.add(id);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a set with the elements of the target set that are not in a given S2
+	 * @param S2 - the second set
+	 * @return S3 - The set with the elements of the target set that are not in S2
+	 */
+	@Override
+	public Set<Integer> difference(Set<Integer> S2) {
+		BitSet result = copy();
+		if(S2 instanceof BitSet) {
+			long[] other = ((BitSet) S2).words;
+			for(int i = 0; i < Math.min(other.length, result.words.length); i++) result.words[i] &= ~other[i];
+			result.recount();
+		}
+		else {
+			for(int id = nextSetBit(0); id != -1; id = nextSetBit(id + 1)) {
+				if(S2.isMember(id)) result.remove(id);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a set with the common elements from the target set and a given S2
+	 * @param S2 - the second set
+	 * @return S3 - The set with the common elements from the target set and S2
+	 */
+	@Override
+	public Set<Integer> intersection(Set<Integer> S2) {
+		BitSet result = copy();
+		if(S2 instanceof BitSet) {
+			long[] other = ((BitSet) S2).words;
+			for(int i = 0; i < result.words.length; i++) result.words[i] &= i < other.length ? other[i] : 0;
+			result.recount();
+		}
+		else {
+			for(int id = nextSetBit(0); id != -1; id = nextSetBit(id + 1)) {
+				if(!S2.isMember(id)) result.remove(id);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if every element of the target set is in S2, like HashSet.isSubset()
+	 * @param S2 - the set to compare with
+	 */
+	@Override
+	public boolean isSubset(Set<Integer> S2) {
+		if(S2 instanceof BitSet) {
+			long[] other = ((BitSet) S2).words;
+			for(int i = 0; i < words.length; i++) {
+				if((words[i] & ~(i < other.length ? other[i] : 0)) != 0) return false;
+			}
+			return true;
+		}
+		for(int id = nextSetBit(0); id != -1; id = nextSetBit(id + 1)) {
+			if(!S2.isMember(id)) return false;
+		}
+		return true;
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder("{");
+		for(int id = nextSetBit(0); id != -1; id = nextSetBit(id + 1)) {
+			if(str.length() > 1) str.append(", ");
+			str.append(id);
+		}
+		return str.append('}').toString();
+	}
+
+	private BitSet copy() {
+		BitSet copy = new BitSet(0);
+		copy.words = words.clone();
+		copy.currentSize = currentSize;
+		return copy;
+	}
+
+	private void recount() {
+		int count = 0;
+		for(long word : words) count += Long.bitCount(word);
+		currentSize = count;
+	}
+
+	// Java only uses the low 6 bits of the shift distance, so 1L << id already picks the bit in the word
+	private static int wordIndex(int id) {
+		return id >> 6;
+	}
+
+}
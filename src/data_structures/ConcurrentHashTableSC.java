@@ -0,0 +1,479 @@
+package data_structures;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import interfaces.Entry;
+import interfaces.HashFunction;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.View;
+
+/**
+ * Separate chaining hash table that many threads can use at once. It follows the same contract
+ * as HashTableSC (no null keys or values, put returns the value it replaced).
+ * <p>
+ * The keys are split over a fixed number of segments by the high bits of their hash, and every
+ * segment is a small chained table with its own lock. A write only locks the segment of its key,
+ * so writes to different segments run in parallel. Reads take no lock: the table of a segment,
+ * the links of the chains and the values are volatile, and a node is fully built before it is
+ * linked, so a reader always sees either the old or the new state of a key.
+ * <p>
+ * Every segment grows on its own while holding its lock. The bigger table gets copies of the
+ * nodes and is published in one volatile write, so the old chains stay intact for readers still
+ * walking them and writes to the other segments never wait for the resize.
+ * <p>
+ * size(), getKeys(), getValues() and the keys(), values() and entries() views walk the segments
+ * one at a time, so they are exact when no other thread is writing and a recent state otherwise.
+ * Unlike the other maps, the views may be iterated while other threads write: every key that was
+ * present the whole time is seen once, keys added or removed meanwhile may or may not be. The
+ * functions given to computeIfAbsent, compute and merge run while the segment is locked and must
+ * not use the map.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ConcurrentHashTableSC<K, V> implements Map<K, V> {
+
+	public static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+	private static final int MAXIMUM_SEGMENTS = 1 << 16;
+	private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 30;
+
+	private static class Node<K, V> implements Entry<K, V> {
+		private final K key;
+		private final int hash;
+		private volatile V value;
+		private volatile Node<K, V> next;
+
+		public Node(K key, int hash, V value, Node<K, V> next) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+
+		@Override
+		public K getKey() {return key;}
+
+		@Override
+		public V getValue() {return value;}
+	}
+
+	/**
+	 * One stripe of the map, locked by the threads writing to it.
+	 */
+	private static class Segment<K, V> extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+
+		private volatile AtomicReferenceArray<Node<K, V>> table;
+		private volatile int count;
+		private int threshold;
+		private final float loadFactor;
+
+		public Segment(int capacity, float loadFactor) {
+			this.loadFactor = loadFactor;
+			allocate(capacity);
+		}
+
+		public Node<K, V> find(K key, int hash) {
+			AtomicReferenceArray<Node<K, V>> tab = table;
+			for(Node<K, V> node = tab.get(hash & (tab.length() - 1)); node != null; node = node.next) {
+				if(node.hash == hash && node.key.equals(key)) return node;
+			}
+			return null;
+		}
+
+		// The methods below are only called while holding the lock
+
+		public void insert(K key, int hash, V value) {
+			if(count + 1 > threshold) resize();
+			AtomicReferenceArray<Node<K, V>> tab = table;
+			int index = hash & (tab.length() - 1);
+			tab.set(index, new Node<>(key, hash, value, tab.get(index)));
+			count++;
+		}
+
+		public void unlink(Node<K, V> target) {
+			AtomicReferenceArray<Node<K, V>> tab = table;
+			int index = target.hash & (tab.length() - 1);
+			Node<K, V> node = tab.get(index);
+			if(node == target) {
+				tab.set(index, target.next);
+			}
+			else {
+				while(node.next != target) node = node.next;
+				node.next = target.next;
+			}
+			count--;
+		}
+
+		/*
+		 * Gives the key its new value after compute or merge: the node found before (null if
+		 * there was none) is updated, a missing key is inserted and a null value removes the key.
+		 */
+		public V update(K key, int hash, Node<K, V> node, V value) {
+			if(value == null) {
+				if(node != null) unlink(node);
+			}
+			else if(node != null) node.value = value;
+			else insert(key, hash, value);
+			return value;
+		}
+
+		public void clear() {
+			allocate(table.length());
+			count = 0;
+		}
+
+		/*
+		 * Doubles the table. The nodes are copied instead of relinked, since readers may be
+		 * walking the old chains.
+		 */
+		private void resize() {
+			AtomicReferenceArray<Node<K, V>> oldTable = table;
+			if(oldTable.length() == MAXIMUM_SEGMENT_CAPACITY) return;
+			AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+			int mask = newTable.length() - 1;
+			for(int i = 0; i < oldTable.length(); i++) {
+				for(Node<K, V> node = oldTable.get(i); node != null; node = node.next) {
+					int index = node.hash & mask;
+					newTable.set(index, new Node<>(node.key, node.hash, node.value, newTable.get(index)));
+				}
+			}
+			threshold = (int) Math.min(newTable.length() * (double) loadFactor, Integer.MAX_VALUE);
+			table = newTable;
+		}
+
+		private void allocate(int capacity) {
+			threshold = (int) Math.min(capacity * (double) loadFactor, Integer.MAX_VALUE);
+			table = new AtomicReferenceArray<>(capacity);
+		}
+	}
+
+	private final Segment<K, V>[] segments;
+	// The segment of a hash is in its top bits, the bucket inside the segment in its low bits
+	private final int segmentShift;
+	private final HashFunction<K> hashFunction;
+
+	public ConcurrentHashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL, hashFunction);
+	}
+
+	/**
+	 * Creates an empty table.
+	 * @param initialCapacity - amount of buckets to start with, split over the segments
+	 * @param loadFactor - average amount of keys per bucket that makes a segment double its buckets
+	 * @param concurrencyLevel - amount of threads expected to write at once, rounded up to a power
+	 * of two to get the amount of segments
+	 * @param hashFunction - function used to hash the keys
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ConcurrentHashTableSC(int initialCapacity, float loadFactor, int concurrencyLevel, HashFunction<K> hashFunction) {
+		if(initialCapacity < 1) throw new IllegalArgumentException("Size must be at least 1");
+		if(!(loadFactor > 0)) throw new IllegalArgumentException("Load factor must be positive");
+		if(concurrencyLevel < 1) throw new IllegalArgumentException("Concurrency level must be at least 1");
+		if(hashFunction == null) throw new IllegalArgumentException("Must provide a hash function");
+
+		int segmentCount = tableSizeFor(Math.min(concurrencyLevel, MAXIMUM_SEGMENTS));
+		int segmentCapacity = tableSizeFor((initialCapacity + segmentCount - 1) / segmentCount);
+		this.segments = new Segment[segmentCount];
+		for(int i = 0; i < segmentCount; i++)
+			this.segments[i] = new Segment<>(segmentCapacity, loadFactor);
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+		this.hashFunction = hashFunction;
+	}
+
+	@Override
+	public int size() {
+		long size = 0;
+		for(Segment<K, V> segment : segments) size += segment.count;
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for(Segment<K, V> segment : segments) {
+			if(segment.count != 0) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public V get(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int hash = hash(key);
+		Node<K, V> node = segmentFor(hash).find(key, hash);
+		return node == null ? null : node.value;
+	}
+
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.find(key, hash);
+			if(node != null) {
+				V oldValue = node.value;
+				node.value = value;
+				return oldValue;
+			}
+			segment.insert(key, hash, value);
+			return null;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.find(key, hash);
+			if(node != null) return node.value;
+			segment.insert(key, hash, value);
+			return null;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V remove(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.find(key, hash);
+			if(node == null) return null;
+			segment.unlink(node);
+			return node.value;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if(key == null || mappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		// Keys that are present are found without locking
+		Node<K, V> node = segment.find(key, hash);
+		if(node != null) return node.value;
+		segment.lock();
+		try {
+			node = segment.find(key, hash);
+			if(node != null) return node.value;
+			V value = mappingFunction.apply(key);
+			if(value != null) segment.insert(key, hash, value);
+			return value;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if(key == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.find(key, hash);
+			V value = remappingFunction.apply(key, node == null ? null : node.value);
+			return segment.update(key, hash, node, value);
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if(key == null || value == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		Segment<K, V> segment = segmentFor(hash);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.find(key, hash);
+			V result = node == null ? value : remappingFunction.apply(node.value, value);
+			return segment.update(key, hash, node, result);
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		for(Segment<K, V> segment : segments) {
+			segment.lock();
+			try {
+				segment.clear();
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	@Override
+	public List<K> getKeys() {
+		List<K> result = new ArrayList<>(Math.max(size(), 1));
+		for(Segment<K, V> segment : segments) {
+			AtomicReferenceArray<Node<K, V>> tab = segment.table;
+			for(int i = 0; i < tab.length(); i++) {
+				for(Node<K, V> node = tab.get(i); node != null; node = node.next) result.add(node.key);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<V> getValues() {
+		List<V> result = new ArrayList<>(Math.max(size(), 1));
+		for(Segment<K, V> segment : segments) {
+			AtomicReferenceArray<Node<K, V>> tab = segment.table;
+			for(int i = 0; i < tab.length(); i++) {
+				for(Node<K, V> node = tab.get(i); node != null; node = node.next) result.add(node.value);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public View<K> keys() {
+		return () -> new SegmentIterator<K>() {
+			K extract(Node<K, V> node) {return node.key;}
+		};
+	}
+
+	@Override
+	public View<V> values() {
+		return () -> new SegmentIterator<V>() {
+			V extract(Node<K, V> node) {return node.value;}
+		};
+	}
+
+	@Override
+	public View<Entry<K, V>> entries() {
+		return () -> new SegmentIterator<Entry<K, V>>() {
+			Entry<K, V> extract(Node<K, V> node) {return node;}
+		};
+	}
+
+	/**
+	 * @return the amount of segments, each with its own lock
+	 */
+	public int segmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * @return the amount of buckets of all the segments together
+	 */
+	public int capacity() {
+		long capacity = 0;
+		for(Segment<K, V> segment : segments) capacity += segment.table.length();
+		return (int) Math.min(capacity, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		for(Segment<K, V> segment : segments) {
+			AtomicReferenceArray<Node<K, V>> tab = segment.table;
+			for(int i = 0; i < tab.length(); i++) {
+				for(Node<K, V> node = tab.get(i); node != null; node = node.next) out.println(node.key + "\t" + node.value);
+			}
+		}
+	}
+
+	public String toString() {
+		String str = "key\tvalues\n";
+		for(Entry<K, V> entry : this.entries()) {
+			str += entry.getKey().toString() + "\t" + entry.getValue().toString() + "\n";
+		}
+		return str;
+	}
+
+	/*
+	 * Mixes every bit of the hash into the rest, since the segment is picked with the high bits
+	 * and the bucket with the low ones.
+	 */
+	private int hash(K key) {
+		return MurmurHashFunction.mix(hashFunction.hashCode(key));
+	}
+
+	/*
+	 * Walks the segments in order without locking. Every segment is read through the table it had
+	 * when the iterator reached it; a resize publishes a new table and leaves that one intact.
+	 */
+	private abstract class SegmentIterator<T> implements Iterator<T> {
+		private int segment;
+		private AtomicReferenceArray<Node<K, V>> table;
+		private int index;
+		private Node<K, V> next;
+
+		SegmentIterator() {
+			advance(null);
+		}
+
+		abstract T extract(Node<K, V> node);
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public T next() {
+			if(next == null) throw new NoSuchElementException();
+			Node<K, V> node = next;
+			advance(node.next);
+			return extract(node);
+		}
+
+		private void advance(Node<K, V> node) {
+			while(node == null) {
+				if(table == null || index == table.length()) {
+					if(segment == segments.length) break;
+					table = segments[segment++].table;
+					index = 0;
+				}
+				else node = table.get(index++);
+			}
+			next = node;
+		}
+	}
+
+	private Segment<K, V> segmentFor(int hash) {
+		// With one segment the shift is 32, which Java treats as 0, so mask the result as well
+		return segments[(hash >>> segmentShift) & (segments.length - 1)];
+	}
+
+	private static int tableSizeFor(int capacity) {
+		if(capacity >= MAXIMUM_SEGMENT_CAPACITY) return MAXIMUM_SEGMENT_CAPACITY;
+		return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+}
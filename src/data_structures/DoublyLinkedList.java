@@ -1,5 +1,7 @@
 package data_structures;
 
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -7,6 +9,16 @@ import interfaces.List;
 
 /**
  * List implementation that uses Double nodes as well as dummy header and trailer.
+ * <p>
+ * Finding a position starts from whichever is closest: the header, the trailer, or the last
+ * node reached by position (the cursor). So get(i) never walks more than half the list, and a
+ * loop that goes through the positions in order, in either direction, takes O(1) per position.
+ * The cursor keeps the node and its position in one object that is replaced, never changed, so
+ * get() can still be called from several threads at once as long as none of them changes the list.
+ * <p>
+ * The iterator is fail-fast: if nodes are added or removed while it is in use it throws
+ * ConcurrentModificationException instead of returning the wrong elements.
+ * sort() relinks the nodes with a natural merge sort, it creates and copies no nodes.
  * @author Gretchen Bonilla
  *
  * @param <E>
@@ -68,10 +80,28 @@ public class DoublyLinkedList<E> implements List<E>{
 	}
 	
 	
+	/**
+	 * Node reached by getNode() together with its position. A cursor is replaced as a whole and
+	 * never changed, so a thread that reads it always gets a node with its own position.
+	 */
+	private class Cursor {
+		private final Node<E> node;
+		private final int index;
+
+		public Cursor(Node<E> node, int index) {
+			this.node = node;
+			this.index = index;
+		}
+	}
+	
 	// Dummy node
 	private Node<E> header;
 	private Node<E> trailer;
 	private int size;
+	// Last node found by getNode() and its position, null when there is none
+	private Cursor cursor;
+	// Counts the times nodes were added or removed, so iterators can tell the list changed
+	private int modCount;
 	
 	public DoublyLinkedList() {
 		// Initialize dummies
@@ -82,6 +112,7 @@ public class DoublyLinkedList<E> implements List<E>{
 		this.trailer.setPrev(header);
 		// Size starts at 0
 		this.size = 0;
+		this.cursor = null;
 	}
 	
 
@@ -94,14 +125,44 @@ public class DoublyLinkedList<E> implements List<E>{
 		// Check the index is valid
 		if(index < 0 || index >size)
 			throw new IndexOutOfBoundsException();
-		// We start at head
-		Node<E> temp = header.getNext();
+		// Position size is the trailer
+		if(index == size)
+			return trailer;
+		// We start at whichever end is closest
+		Node<E> temp;
+		int i;
+		if(index < size - index) {
+			temp = header.getNext();
+			i = 0;
+		}
+		else {
+			temp = trailer.getPrev();
+			i = size - 1;
+		}
+		// Unless the cursor is even closer
+		Cursor last = cursor;
+		if(last != null && Math.abs(last.index - index) < Math.abs(i - index)) {
+			temp = last.node;
+			i = last.index;
+		}
 		// Move through the list until we find the node at position index
-		for(int i = 0; i < index; i++)
+		for(; i < index; i++)
 			temp = temp.getNext();
+		for(; i > index; i--)
+			temp = temp.getPrev();
+		// Remember where we stopped for the next call
+		if(last == null || last.node != temp)
+			cursor = new Cursor(temp, index);
 		// Return the node
 		return temp;
 	}
+
+	/**
+	 * Drops the cursor, used when the positions after it are about to change.
+	 */
+	private void forgetCursor() {
+		cursor = null;
+	}
 	
 	@Override
 	public boolean isEmpty() {
@@ -114,6 +175,7 @@ public class DoublyLinkedList<E> implements List<E>{
 		trailer.getPrev().setNext(newNode);
 		trailer.setPrev(newNode);
 		size++;
+		modCount++;
 	}
 
 	@Override
@@ -125,7 +187,10 @@ public class DoublyLinkedList<E> implements List<E>{
 			Node<E> newNode = new Node<E>(curr, curr.getPrev(), obj);
 			curr.getPrev().setNext(newNode);
 			curr.setPrev(newNode);
+			// The positions from index on moved one place, the cursor is now the new node
+			cursor = new Cursor(newNode, index);
 			size++;
+			modCount++;
 		}
 	}
 
@@ -153,8 +218,14 @@ public class DoublyLinkedList<E> implements List<E>{
 		Node<E> curr = getNode(index);
 		curr.getPrev().setNext(curr.getNext());
 		curr.getNext().setPrev(curr.getPrev());
+		// The positions after index moved one place back, the cursor is now the node that follows
+		if(curr.getNext() == trailer)
+			forgetCursor();
+		else
+			cursor = new Cursor(curr.getNext(), index);
 		curr.clear();
 		size--;
+		modCount++;
 		return true;
 	}
 
@@ -175,7 +246,7 @@ public class DoublyLinkedList<E> implements List<E>{
 	public void clear() {
 		while(!isEmpty())
 			remove(0);
-		
+		forgetCursor();
 	}
 
 	@Override
@@ -220,6 +291,99 @@ public class DoublyLinkedList<E> implements List<E>{
 		return this.trailer.getPrev().getElement();
 	}
 
+	/**
+	 * Sorts the List with the order given by the comparator. Equal elements keep their order.
+	 * 
+	 * No node is created or copied, only the references change (natural merge sort). The list
+	 * is cut into runs, nodes that are already in order, and the runs are merged like the digits
+	 * of a binary counter: merged[i] holds a chain made of 2^i runs, and a new run is merged with
+	 * merged[0], then with merged[1], and so on while those are taken. Runs are merged while
+	 * their nodes were visited recently, and a list with k runs is merged in about log2(k) rounds,
+	 * so a list that is already sorted is a single run and takes one walk.
+	 * 
+	 * @param c - comparator that decides the order
+	 * @throws IllegalArgumentException if c is null
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	@Override
+	public void sort(Comparator<? super E> c) {
+		if(c == null)
+			throw new IllegalArgumentException("Invalid parameter");
+		// Positions are about to change
+		forgetCursor();
+		modCount++;
+		if(size < 2)
+			return;
+		// While sorting the nodes only use next, the list ends with null instead of the trailer
+		trailer.getPrev().setNext(null);
+		// The header is the node the merges link the chains after
+		Node<E> start = header;
+		Node<E>[] merged = (Node<E>[]) new DoublyLinkedList.Node[32];
+		Node<E> rest = header.getNext();
+		while(rest != null) {
+			// Cut the next run out of the rest of the list
+			Node<E> run = rest;
+			Node<E> runLast = runEnd(run, c);
+			rest = runLast.getNext();
+			runLast.setNext(null);
+			// Merge it with the chains that hold the runs before it, like carrying in a sum
+			int i = 0;
+			while(merged[i] != null && i < merged.length - 1) {
+				run = merge(merged[i], run, start, c);
+				merged[i] = null;
+				i++;
+			}
+			merged[i] = merged[i] == null ? run : merge(merged[i], run, start, c);
+		}
+		// The higher chains hold the older runs, so they go first
+		Node<E> sorted = null;
+		for(Node<E> chain : merged) {
+			if(chain != null)
+				sorted = sorted == null ? chain : merge(chain, sorted, start, c);
+		}
+		// Put back the prev references and the trailer
+		header.setNext(sorted);
+		Node<E> previous = header;
+		for(Node<E> node = sorted; node != null; node = node.getNext()) {
+			node.setPrev(previous);
+			previous = node;
+		}
+		previous.setNext(trailer);
+		trailer.setPrev(previous);
+	}
+	
+	/**
+	 * Returns the last node of the run that starts at node, the nodes that are in order from node on.
+	 */
+	private Node<E> runEnd(Node<E> node, Comparator<? super E> c) {
+		while(node.getNext() != null && c.compare(node.getNext().getElement(), node.getElement()) >= 0)
+			node = node.getNext();
+		return node;
+	}
+	
+	/**
+	 * Merges the sorted chains starting at first and second into one, linking it after start.
+	 * On ties the node of first goes first, which keeps the sort stable.
+	 * @return the first node of the merged chain
+	 */
+	private Node<E> merge(Node<E> first, Node<E> second, Node<E> start, Comparator<? super E> c) {
+		Node<E> last = start;
+		while(first != null && second != null) {
+			if(c.compare(second.getElement(), first.getElement()) < 0) {
+				last.setNext(second);
+				second = second.getNext();
+			}
+			else {
+				last.setNext(first);
+				first = first.getNext();
+			}
+			last = last.getNext();
+		}
+		// One chain is used up, the other is already in order
+		last.setNext(first != null ? first : second);
+		return start.getNext();
+	}
+
 	@Override
 	public int lastIndex(E obj) {
 		Node<E> temp = trailer.getPrev();
@@ -259,22 +423,28 @@ public class DoublyLinkedList<E> implements List<E>{
 	}
 	
 	private class LinkedListIterator<E> implements Iterator<E> {
-		// For keeping track of the current node of the list
+		// For keeping track of the current node of the list and its position
 		private Node<E> currentNode;
+		private int currentPosition;
+		// modCount when the iterator was created, if it changes the list was modified
+		private int expectedModCount;
 		
 		@SuppressWarnings("unchecked")
 		public LinkedListIterator() {
 			// We start at the head node
 			currentNode = (Node<E>) header.getNext();
+			currentPosition = 0;
+			expectedModCount = modCount;
 		}
 
 		/**
-		 * Checks if we can still move in the list
+		 * Checks if we can still move in the list. This is done with the position, like in
+		 * ArrayList, so an element added during the last next() is not missed silently.
 		 */
 		@Override
 		public boolean hasNext() {
-			// Check if we reached the final node of the list
-			return currentNode != trailer;
+			// There is a next value if the current position is smaller than the current size
+			return currentPosition < size;
 		}
 
 		/**
@@ -282,10 +452,16 @@ public class DoublyLinkedList<E> implements List<E>{
 		 */
 		@Override
 		public E next() {
+			// The list changed since the iterator was created
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if(!hasNext())
+				throw new NoSuchElementException();
 			// Get the current value
 			E value = currentNode.getElement();
 			// Move to next node
 			currentNode = currentNode.getNext();
+			currentPosition++;
 			return value;
 		}
 		
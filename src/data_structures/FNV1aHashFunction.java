@@ -0,0 +1,33 @@
+package data_structures;
+
+import interfaces.HashFunction;
+
+/**
+ * 32 bit FNV-1a hash over the characters of the key: every character is xored into the hash
+ * and the hash is multiplied by the FNV prime, which spreads small differences such as one
+ * changed letter over all the bits.
+ * <p>
+ * Keys that are already a CharSequence (String, StringBuilder) are read directly; any other key
+ * is hashed through its toString().
+ *
+ * @param <K>
+ */
+public class FNV1aHashFunction<K> implements HashFunction<K> {
+
+	private static final int OFFSET_BASIS = 0x811c9dc5;
+	private static final int PRIME = 0x01000193;
+
+	@Override
+	public int hashCode(K key) {
+		CharSequence chars = key instanceof CharSequence ? (CharSequence) key : key.toString();
+		int result = OFFSET_BASIS;
+		for (int i = 0; i < chars.length(); i++) {
+			char c = chars.charAt(i);
+			// Both bytes of the character, low byte first
+			result = (result ^ (c & 0xff)) * PRIME;
+			result = (result ^ (c >>> 8)) * PRIME;
+		}
+		return result;
+	}
+
+}
@@ -1,28 +1,57 @@
 package data_structures;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-import interfaces.List;
-import interfaces.Map;
+import interfaces.HashFunction;
 import interfaces.Set;
 
+/*
+ * The elements are kept in a table of their own instead of as the keys of a Map, so there is no
+ * value (nor node) per element: a RobinHoodTable without values holds the elements and their
+ * hashes, probed with Robin Hood hashing like RobinHoodHashMap. Elements cannot be null.
+ */
 public class HashSet<E> implements Set<E> {
 	//Private Fields
-	private Map<E, Object> hashtable;
 	private static final int DEFAULT_SET_SIZE = 10;
+	private static final float LOAD_FACTOR = 0.8f;
+	// Elements and their hashes, a slot is empty when its element is null
+	private final RobinHoodTable<E> table;
 	
 	/*Constructs an empty HashSet with a given initial capacity*/
 	public HashSet(int initialCapacity) {
-		hashtable = new HashTableSC<E, Object>(initialCapacity, new SimpleHashFunction<E>());
+		this(initialCapacity, new MurmurHashFunction<E>());
 	}
 	
 	/*Constructs an empty HashSet with a default initial capacity of ten*/
 	public HashSet() {
-		hashtable = new HashTableSC<E, Object>(DEFAULT_SET_SIZE, new SimpleHashFunction<E>());
+		this(DEFAULT_SET_SIZE);
 	}
+	
+	/*Constructs an empty HashSet with a given initial capacity that hashes the elements with the given function*/
+	public HashSet(int initialCapacity, HashFunction<E> hashFunction) {
+		table = new RobinHoodTable<>(initialCapacity, LOAD_FACTOR, hashFunction, false);
+	}
+	
 	@Override
 	public Iterator<E> iterator() {
-		return hashtable.getKeys().iterator();
+		return new Iterator<E>() {
+			private int next = table.nextUsed(0);
+
+			@Override
+			public boolean hasNext() {
+				return next < table.capacity();
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				E element = (E) table.keys[next];
+				next = table.nextUsed(next + 1);
+				return element;
+			}
+		};
 	}
 
 	/**
@@ -34,8 +63,10 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean add(E obj) {
-		if(isMember(obj)) return false;
-		hashtable.put(obj, new Object()); //We put as parameter for value a dummy object
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		int hash = table.hash(obj);
+		if(table.find(obj, hash) != -1) return false;
+		table.add(obj, hash, null);
 		return true;
 	}
 	
@@ -45,7 +76,8 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean isMember(E obj) {
-		return hashtable.containsKey(obj);
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		return table.find(obj, table.hash(obj)) != -1;
 	}
 
 	/**
@@ -54,7 +86,11 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean remove(E obj) {
-		return hashtable.remove(obj) != null;
+		if(obj == null) throw new IllegalArgumentException("Invalid parameter");
+		int slot = table.find(obj, table.hash(obj));
+		if(slot == -1) return false;
+		table.removeSlot(slot);
+		return true;
  	}
 
 	
@@ -64,7 +100,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean isEmpty() {
-		return hashtable.isEmpty();
+		return size() == 0;
 	}
 
 	/**
@@ -72,7 +108,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public int size() {
-		return hashtable.size();
+		return table.size;
 	}
 
 	/**
@@ -80,7 +116,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public void clear() {
-		hashtable.clear();
+		table.clear();
 	}
 
 	/**
@@ -90,7 +126,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public Set<E> union(Set<E> S2) {
-		Set<E> result = new HashSet<E>(this.size() + S2.size());
+		Set<E> result = new HashSet<E>(Math.max(this.size() + S2.size(), 1), table.hashFunction());
 		for(E elm : this) result.add(elm);	
 		for (E elm : S2) result.add(elm);
 		return result;
@@ -103,7 +139,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public Set<E> difference(Set<E> S2) {
-		Set<E> result = new HashSet<E>();
+		Set<E> result = new HashSet<E>(DEFAULT_SET_SIZE, table.hashFunction());
 		for(E elm : this) {
 			if (!S2.isMember(elm)) {
 				result.add(elm);
@@ -119,7 +155,7 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public Set<E> intersection(Set<E> S2) {
-		Set<E> S3 = new HashSet<>();
+		Set<E> S3 = new HashSet<>(DEFAULT_SET_SIZE, table.hashFunction());
 		for (E e : this) if(S2.isMember(e)) S3.add(e);
 		return S3;
 	}
@@ -130,13 +166,12 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean isSubset(Set<E> S2) {
-		List<E> elements = this.hashtable.getKeys();
-		for (int i=0; i < this.size(); ++i) {
-			if (!S2.isMember(elements.get(i))) {
+		for (E elm : this) {
+			if (!S2.isMember(elm)) {
 				return false;
 			}
 		}
 		return true;
 	}
-	
+
 }
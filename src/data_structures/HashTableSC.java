@@ -1,43 +1,259 @@
 package data_structures;
 
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import interfaces.Entry;
 import interfaces.HashFunction;
 import interfaces.List;
 import interfaces.Map;
+import interfaces.View;
 
 public class HashTableSC<K, V> implements Map<K, V> {
-	
-	private static class BucketNode<K,V>{
-		private K key;
-		private V value;
-		
-		public BucketNode(K key, V value) {
+
+	// The fields are not private so the tree nodes below, which extend it, can use them
+	private static class BucketNode<K,V> implements Entry<K,V> {
+		K key;
+		V value;
+		// Spread hash of the key, kept so a rehash does not call the hash function again
+		int hash;
+		// Next node of the same bucket
+		BucketNode<K,V> next;
+
+		public BucketNode(K key, V value, int hash, BucketNode<K,V> next) {
 			this.key = key;
 			this.value = value;
+			this.hash = hash;
+			this.next = next;
 		}
-		
+
 		public K getKey() {return key;}
 		public V getValue() {return value;}
-		
+
 	}
-	
+
+	/*
+	 * Node of a treeified bucket. Besides its place in the tree it stays in a doubly linked list
+	 * of the bucket (through 'next' and 'prev'), which is what iteration and rehashing walk.
+	 */
+	private static class TreeNode<K,V> extends BucketNode<K,V> {
+		private TreeNode<K,V> left;
+		private TreeNode<K,V> right;
+		private TreeNode<K,V> prev;
+		private int height = 1;
+
+		public TreeNode(K key, V value, int hash) {
+			super(key, value, hash, null);
+		}
+	}
+
+	/*
+	 * Head of a bucket that was turned into an AVL tree because its chain got too long. The
+	 * nodes are ordered by hash, then by compareTo when both keys are Comparable of the same
+	 * class. Keys that cannot be ordered that way are placed by class name and identity hash,
+	 * and a lookup that meets one searches both subtrees. Keys with equal hashes that are
+	 * Comparable (like the anagrams SimpleHashFunction puts together) take O(log n) to find.
+	 */
+	private static class TreeBin<K,V> extends BucketNode<K,V> {
+		private TreeNode<K,V> root;
+		// First node of the list of the bucket
+		private TreeNode<K,V> first;
+		private int count;
+		// Set by remove() once the node was found
+		private boolean removed;
+
+		public TreeBin() {
+			super(null, null, 0, null);
+		}
+
+		public TreeNode<K,V> find(K key, int hash) {
+			return find(root, key, hash);
+		}
+
+		public void add(K key, V value, int hash) {
+			TreeNode<K,V> node = new TreeNode<>(key, value, hash);
+			root = insert(root, node);
+			node.next = first;
+			if(first != null) first.prev = node;
+			first = node;
+			count++;
+		}
+
+		public void remove(TreeNode<K,V> node) {
+			removed = false;
+			root = remove(root, node);
+			if(node.prev != null) node.prev.next = node.next;
+			else first = (TreeNode<K,V>) node.next;
+			if(node.next != null) ((TreeNode<K,V>) node.next).prev = node.prev;
+			node.next = node.prev = node.left = node.right = null;
+			count--;
+		}
+
+		private static <K,V> TreeNode<K,V> find(TreeNode<K,V> p, K key, int hash) {
+			while(p != null) {
+				int c = order(hash, key, p);
+				if(c < 0) p = p.left;
+				else if(c > 0) p = p.right;
+				else if(p.key.equals(key)) return p;
+				else {
+					// Not ordered against this key, it may be on either side
+					TreeNode<K,V> found = find(p.right, key, hash);
+					if(found != null) return found;
+					p = p.left;
+				}
+			}
+			return null;
+		}
+
+		private static <K,V> TreeNode<K,V> insert(TreeNode<K,V> p, TreeNode<K,V> node) {
+			if(p == null) return node;
+			if(compare(node, p) < 0) p.left = insert(p.left, node);
+			else p.right = insert(p.right, node);
+			return balance(p);
+		}
+
+		private TreeNode<K,V> remove(TreeNode<K,V> p, TreeNode<K,V> node) {
+			if(p == null) return null;
+			if(p == node) {
+				removed = true;
+				if(p.left == null) return p.right;
+				if(p.right == null) return p.left;
+				TreeNode<K,V> successor = p.right;
+				while(successor.left != null) successor = successor.left;
+				successor.right = removeMin(p.right);
+				successor.left = p.left;
+				return balance(successor);
+			}
+			int c = compare(node, p);
+			if(c <= 0) p.left = remove(p.left, node);
+			// Nodes that compare equal may have been rotated to either side
+			if(c > 0 || (c == 0 && !removed)) p.right = remove(p.right, node);
+			return balance(p);
+		}
+
+		private static <K,V> TreeNode<K,V> removeMin(TreeNode<K,V> p) {
+			if(p.left == null) return p.right;
+			p.left = removeMin(p.left);
+			return balance(p);
+		}
+
+		/*
+		 * Order of a key against a node: by hash, then by compareTo. 0 means equal or not comparable.
+		 */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private static int order(int hash, Object key, TreeNode<?,?> p) {
+			if(hash != p.hash) return hash < p.hash ? -1 : 1;
+			if(key instanceof Comparable && key.getClass() == p.key.getClass())
+				return ((Comparable) key).compareTo(p.key);
+			return 0;
+		}
+
+		// Total order used to place nodes, breaking the ties of order()
+		private static int compare(TreeNode<?,?> a, TreeNode<?,?> b) {
+			int c = order(a.hash, a.key, b);
+			if(c != 0 || a.key.equals(b.key)) return c;
+			c = a.key.getClass().getName().compareTo(b.key.getClass().getName());
+			if(c != 0) return c;
+			return Integer.compare(System.identityHashCode(a.key), System.identityHashCode(b.key));
+		}
+
+		private static int height(TreeNode<?,?> p) {
+			return p == null ? 0 : p.height;
+		}
+
+		private static <K,V> TreeNode<K,V> balance(TreeNode<K,V> p) {
+			int difference = height(p.left) - height(p.right);
+			if(difference > 1) {
+				if(height(p.left.left) < height(p.left.right)) p.left = rotateLeft(p.left);
+				return rotateRight(p);
+			}
+			if(difference < -1) {
+				if(height(p.right.right) < height(p.right.left)) p.right = rotateRight(p.right);
+				return rotateLeft(p);
+			}
+			p.height = Math.max(height(p.left), height(p.right)) + 1;
+			return p;
+		}
+
+		private static <K,V> TreeNode<K,V> rotateLeft(TreeNode<K,V> p) {
+			TreeNode<K,V> r = p.right;
+			p.right = r.left;
+			r.left = p;
+			p.height = Math.max(height(p.left), height(p.right)) + 1;
+			r.height = Math.max(height(r.left), height(r.right)) + 1;
+			return r;
+		}
+
+		private static <K,V> TreeNode<K,V> rotateRight(TreeNode<K,V> p) {
+			TreeNode<K,V> l = p.left;
+			p.left = l.right;
+			l.right = p;
+			p.height = Math.max(height(p.left), height(p.right)) + 1;
+			l.height = Math.max(height(l.left), height(l.right)) + 1;
+			return l;
+		}
+	}
+
+	public static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	// Buckets moved from the old table on every operation while rehashing incrementally
+	private static final int MIGRATE_PER_OPERATION = 8;
+	// A chain this long becomes a tree, and a tree this small becomes a chain again
+	private static final int TREEIFY_THRESHOLD = 8;
+	private static final int UNTREEIFY_THRESHOLD = 6;
+	// Below this many buckets a long chain makes the table grow instead of becoming a tree
+	private static final int MIN_TREEIFY_CAPACITY = 64;
+
 	private int currentSize;
-	private List<BucketNode<K,V>>[] buckets;
+	// Power-of-two table holding the first node of every bucket, null for an empty bucket
+	private BucketNode<K,V>[] buckets;
 	private HashFunction<K> hashFunction;
+	private float loadFactor;
+	private int threshold;
+	private boolean incremental;
+	// Table being drained into 'buckets' during an incremental rehash, null otherwise
+	private BucketNode<K,V>[] oldBuckets;
+	// Buckets of 'oldBuckets' below this index were already moved
+	private int migrated;
+	// Counts the keys added and removed, so iterators can tell the map changed under them
+	private int modCount;
 
 	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, false, hashFunction);
+	}
+
+	public HashTableSC(int initialCapacity, float loadFactor, HashFunction<K> hashFunction) {
+		this(initialCapacity, loadFactor, false, hashFunction);
+	}
+
+	/**
+	 * Creates an empty table with the power of two capacity closest to initialCapacity (rounding up).
+	 * @param initialCapacity - amount of buckets to start with
+	 * @param loadFactor - average amount of keys per bucket that makes the table double its buckets
+	 * @param incremental - true to move the keys to the bigger table a few buckets at a time over
+	 * the next operations instead of all at once, so no single put pays for the whole rehash
+	 * @param hashFunction - function used to hash the keys
+	 */
+	public HashTableSC(int initialCapacity, float loadFactor, boolean incremental, HashFunction<K> hashFunction) {
 		if(initialCapacity < 1) throw new IllegalArgumentException("Size must be at least 1");
+		if(!(loadFactor > 0)) throw new IllegalArgumentException("Load factor must be positive");
 		if(hashFunction == null) throw new IllegalArgumentException("Must provide a hash function");
-		
+
 		this.currentSize = 0;
-		this.buckets = new SinglyLinkedList[initialCapacity];
-		for (int i = 0; i < initialCapacity; i++) {
-			buckets[i] = new SinglyLinkedList<BucketNode<K,V>>();
-		}
+		this.loadFactor = loadFactor;
+		this.incremental = incremental;
+		this.buckets = newTable(tableSizeFor(initialCapacity));
+		this.threshold = thresholdFor(buckets.length);
 		this.hashFunction = hashFunction;
 	}
-	
+
 	@Override
 	public int size() {
 		return currentSize;
@@ -51,41 +267,35 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	@Override
 	public V get(K key) {
 		if(key == null) throw new IllegalArgumentException("Invalid parameter");
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		List<BucketNode<K,V>> bucket = buckets[targetBucket];
-		for (BucketNode<K, V> bucketNode : bucket) {
-			if(bucketNode.getKey().equals(key)) return bucketNode.getValue();
-		}
-		return null;
+		migrate();
+		BucketNode<K,V> node = find(key, hash(key));
+		return node == null ? null : node.getValue();
 	}
 
 	@Override
 	public V put(K key, V value) {
 		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
-		V oldValue = remove(key);
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		List<BucketNode<K,V>> bucket = buckets[targetBucket];
-		bucket.add(0, new BucketNode<>(key, value));
-		currentSize++;
-		return oldValue;
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		if(node != null) {
+			V oldValue = node.value;
+			node.value = value;
+			return oldValue;
+		}
+		insert(key, value, hash);
+		return null;
 	}
 
 	@Override
 	public V remove(K key) {
 		if(key == null) throw new IllegalArgumentException("Invalid parameter");
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;	
-		List<BucketNode<K,V>> bucket = buckets[targetBucket];
-		
-		int pos = 0;
-		for (BucketNode<K, V> bucketNode : bucket) {
-			if (bucketNode.getKey().equals(key)) {
-				bucket.remove(pos);
-				currentSize--;
-				return bucketNode.getValue();
-			} else pos++;
-		}
-		
-		return null;
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		if(node == null) return null;
+		unlink(node, hash);
+		return node.getValue();
 	}
 
 	@Override
@@ -93,38 +303,149 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		return get(key) != null;
 	}
 
+	/*
+	 * The operations below hash the key once and walk its bucket once, instead of the get and
+	 * put pair the defaults of Map use.
+	 */
+
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		if(node != null) return node.getValue();
+		insert(key, value, hash);
+		return null;
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if(key == null || mappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		if(node != null) return node.getValue();
+		V value = mappingFunction.apply(key);
+		if(value != null) insert(key, value, hash);
+		return value;
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if(key == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		V value = remappingFunction.apply(key, node == null ? null : node.getValue());
+		return update(key, node, value, hash);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if(key == null || value == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		migrate();
+		int hash = hash(key);
+		BucketNode<K,V> node = find(key, hash);
+		V result = node == null ? value : remappingFunction.apply(node.getValue(), value);
+		return update(key, node, result, hash);
+	}
+
 	@Override
 	public void clear() {
+		modCount++;
 		currentSize = 0;
-		for (List<BucketNode<K, V>> list : buckets) {
-			list.clear();
-		}
+		Arrays.fill(buckets, null);
+		oldBuckets = null;
+		migrated = 0;
 	}
 
 	@Override
 	public List<K> getKeys() {
 		List<K> result = new SinglyLinkedList<>();
-		for (int i = 0; i < buckets.length; i++) {
-			for (BucketNode<K,V> BN : buckets[i]) {
-				result.add(0, BN.getKey());
-			}
+		for (K key : keys()) {
+			result.add(0, key);
 		}
-		
+
 		return result;
 	}
 
 	@Override
 	public List<V> getValues() {
 		List<V> result = new SinglyLinkedList<>();
-		for (int i = 0; i < buckets.length; i++) {
-			for (BucketNode<K,V> BN : buckets[i]) {
-				result.add(0, BN.getValue());
-			}
+		for (V value : values()) {
+			result.add(0, value);
 		}
-		
+
 		return result;
 	}
 
+	/*
+	 * The iterators and spliterators of the views are fail-fast: adding or removing a key while
+	 * one of them is in use makes it throw ConcurrentModificationException. The spliterators split
+	 * the buckets in halves, so parallel streams over the views use every core.
+	 */
+
+	@Override
+	public View<K> keys() {
+		return view(node -> node.key, Spliterator.DISTINCT);
+	}
+
+	@Override
+	public View<V> values() {
+		return view(node -> node.value, 0);
+	}
+
+	/**
+	 * The entries are the nodes of the buckets themselves, so iterating them allocates nothing.
+	 */
+	@Override
+	public View<Entry<K,V>> entries() {
+		return view(node -> node, Spliterator.DISTINCT);
+	}
+
+	private <T> View<T> view(Function<BucketNode<K,V>, T> extract, int characteristics) {
+		return new View<T>() {
+			@Override
+			public Iterator<T> iterator() {
+				return new TableIterator<>(extract);
+			}
+
+			@Override
+			public Spliterator<T> spliterator() {
+				finishMigration();
+				return new TableSpliterator<>(0, buckets.length, currentSize, true, extract, characteristics);
+			}
+		};
+	}
+
+	/**
+	 * @return the load factor that makes the table grow
+	 */
+	public float getLoadFactor() {
+		return loadFactor;
+	}
+
+	/**
+	 * @return the amount of buckets of the table keys are inserted into
+	 */
+	public int capacity() {
+		return buckets.length;
+	}
+
+	/**
+	 * @return true if an incremental rehash has not moved every bucket yet
+	 */
+	public boolean isRehashing() {
+		return oldBuckets != null;
+	}
+
 	@Override
 	public void print(PrintStream out) {
 		// TODO Auto-generated method stub
@@ -132,10 +453,303 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	}
 	public String toString() {
 		String str = "key\tvalues\n";
-		for(K key: this.getKeys()) {
-			str += key.toString() + "\t" + this.get(key).toString() + "\n";
+		for(Entry<K,V> entry : this.entries()) {
+			str += entry.getKey().toString() + "\t" + entry.getValue().toString() + "\n";
 		}
 		return str;
 	}
 
+	/*
+	 * Mixes the high bits of the hash into the low ones, since the table only looks at the
+	 * low bits to pick a bucket.
+	 */
+	private int hash(K key) {
+		int h = hashFunction.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	/*
+	 * Walks the buckets of the table in order. A rehash that is still going on is finished
+	 * first, so gets done while iterating (which move a few buckets) cannot reorder the nodes.
+	 */
+	private class TableIterator<T> implements Iterator<T> {
+		private final Function<BucketNode<K,V>, T> extract;
+		private int expectedModCount;
+		private int index;
+		private BucketNode<K,V> next;
+
+		TableIterator(Function<BucketNode<K,V>, T> extract) {
+			this.extract = extract;
+			finishMigration();
+			expectedModCount = modCount;
+			advance(null);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public T next() {
+			if(modCount != expectedModCount) throw new ConcurrentModificationException();
+			if(next == null) throw new NoSuchElementException();
+			BucketNode<K,V> node = next;
+			advance(node.next);
+			return extract.apply(node);
+		}
+
+		private void advance(BucketNode<K,V> node) {
+			while(node == null && index < buckets.length) node = first(buckets[index++]);
+			next = node;
+		}
+	}
+
+	/*
+	 * Walks the buckets from 'index' up to 'fence'. Splitting gives away the upper half of the
+	 * buckets left, so only the spliterator that was never split knows its exact size.
+	 */
+	private class TableSpliterator<T> implements Spliterator<T> {
+		private final Function<BucketNode<K,V>, T> extract;
+		// DISTINCT or not, depending on the view
+		private final int characteristics;
+		private final int expectedModCount;
+		private int index;
+		private int fence;
+		private int estimate;
+		private boolean exact;
+		// Node to visit next in the bucket being walked, null between buckets
+		private BucketNode<K,V> current;
+
+		TableSpliterator(int index, int fence, int estimate, boolean exact, Function<BucketNode<K,V>, T> extract,
+				int characteristics) {
+			this.index = index;
+			this.fence = fence;
+			this.estimate = estimate;
+			this.exact = exact;
+			this.extract = extract;
+			this.characteristics = characteristics;
+			this.expectedModCount = modCount;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if(action == null) throw new IllegalArgumentException("Invalid parameter");
+			while(current == null && index < fence) current = first(buckets[index++]);
+			if(current == null) return false;
+			BucketNode<K,V> node = current;
+			current = current.next;
+			action.accept(extract.apply(node));
+			if(modCount != expectedModCount) throw new ConcurrentModificationException();
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			if(action == null) throw new IllegalArgumentException("Invalid parameter");
+			BucketNode<K,V>[] table = buckets;
+			for(BucketNode<K,V> node = current; node != null; node = node.next) action.accept(extract.apply(node));
+			current = null;
+			for(; index < fence; index++) {
+				for(BucketNode<K,V> node = first(table[index]); node != null; node = node.next) action.accept(extract.apply(node));
+			}
+			if(modCount != expectedModCount) throw new ConcurrentModificationException();
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if(current != null || middle <= index) return null;
+			estimate >>>= 1;
+			exact = false;
+			TableSpliterator<T> upper = new TableSpliterator<>(middle, fence, estimate, false, extract, characteristics);
+			fence = middle;
+			return upper;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return (exact ? Spliterator.SIZED : 0) | characteristics | Spliterator.NONNULL;
+		}
+	}
+
+	/*
+	 * Node of the key in its bucket, or null.
+	 */
+	private BucketNode<K,V> find(K key, int hash) {
+		BucketNode<K,V>[] table = tableOf(hash);
+		BucketNode<K,V> head = table[hash & (table.length - 1)];
+		if(head instanceof TreeBin) return ((TreeBin<K,V>) head).find(key, hash);
+		for (BucketNode<K,V> bucketNode = head; bucketNode != null; bucketNode = bucketNode.next) {
+			if(bucketNode.hash == hash && bucketNode.getKey().equals(key)) return bucketNode;
+		}
+		return null;
+	}
+
+	/*
+	 * Adds a key that is not in the table at the front of its bucket.
+	 */
+	private void insert(K key, V value, int hash) {
+		BucketNode<K,V>[] table = tableOf(hash);
+		int index = hash & (table.length - 1);
+		modCount++;
+		currentSize++;
+		if(table[index] instanceof TreeBin) ((TreeBin<K,V>) table[index]).add(key, value, hash);
+		else {
+			table[index] = new BucketNode<>(key, value, hash, table[index]);
+			if(isLong(table[index])) {
+				// A small table grows instead, which usually splits the chain
+				if(table.length < MIN_TREEIFY_CAPACITY) {
+					resize();
+					return;
+				}
+				table[index] = treeify(table[index]);
+			}
+		}
+		if(currentSize > threshold) resize();
+	}
+
+	private void unlink(BucketNode<K,V> node, int hash) {
+		BucketNode<K,V>[] table = tableOf(hash);
+		int index = hash & (table.length - 1);
+		if(table[index] instanceof TreeBin) {
+			TreeBin<K,V> bin = (TreeBin<K,V>) table[index];
+			bin.remove((TreeNode<K,V>) node);
+			if(bin.count <= UNTREEIFY_THRESHOLD) table[index] = untreeify(bin);
+		}
+		else if(table[index] == node) table[index] = node.next;
+		else {
+			BucketNode<K,V> prev = table[index];
+			while(prev.next != node) prev = prev.next;
+			prev.next = node.next;
+		}
+		node.next = null;
+		modCount++;
+		currentSize--;
+	}
+
+	/*
+	 * Gives the key its new value after compute or merge: the node found before (null if there
+	 * was none) is updated, a key without a node is inserted and a null value removes the key.
+	 */
+	private V update(K key, BucketNode<K,V> node, V value, int hash) {
+		if(value == null) {
+			if(node != null) unlink(node, hash);
+		}
+		else if(node != null) node.value = value;
+		else insert(key, value, hash);
+		return value;
+	}
+
+	/*
+	 * Table where the bucket of a key with the given hash lives: the old table if that bucket
+	 * was not moved yet, otherwise the current table.
+	 */
+	private BucketNode<K,V>[] tableOf(int hash) {
+		if(oldBuckets != null && (hash & (oldBuckets.length - 1)) >= migrated) return oldBuckets;
+		return buckets;
+	}
+
+	/*
+	 * Doubles the buckets. A rehash that is still going on is finished first.
+	 */
+	private void resize() {
+		if(buckets.length == MAXIMUM_CAPACITY) return;
+		finishMigration();
+		oldBuckets = buckets;
+		migrated = 0;
+		buckets = newTable(oldBuckets.length * 2);
+		threshold = thresholdFor(buckets.length);
+		if(!incremental) finishMigration();
+	}
+
+	/*
+	 * Moves the next few buckets of the old table during an incremental rehash.
+	 */
+	private void migrate() {
+		if(oldBuckets == null) return;
+		int end = Math.min(migrated + MIGRATE_PER_OPERATION, oldBuckets.length);
+		while(migrated < end) moveBucket(migrated++);
+		if(migrated == oldBuckets.length) oldBuckets = null;
+	}
+
+	private void finishMigration() {
+		if(oldBuckets == null) return;
+		while(migrated < oldBuckets.length) moveBucket(migrated++);
+		oldBuckets = null;
+	}
+
+	private void moveBucket(int index) {
+		BucketNode<K,V> head = oldBuckets[index];
+		oldBuckets[index] = null;
+		boolean tree = head instanceof TreeBin;
+		BucketNode<K,V> node = first(head);
+		while(node != null) {
+			BucketNode<K,V> next = node.next;
+			int target = node.hash & (buckets.length - 1);
+			if(buckets[target] instanceof TreeBin) {
+				((TreeBin<K,V>) buckets[target]).add(node.key, node.value, node.hash);
+			}
+			else {
+				// Tree nodes go back to plain nodes, the new bucket decides if it is a tree
+				if(tree) {
+					buckets[target] = new BucketNode<>(node.key, node.value, node.hash, buckets[target]);
+				}
+				else {
+					node.next = buckets[target];
+					buckets[target] = node;
+				}
+				if(buckets.length >= MIN_TREEIFY_CAPACITY && isLong(buckets[target])) buckets[target] = treeify(buckets[target]);
+			}
+			node = next;
+		}
+	}
+
+	// First node of a bucket, looking inside a tree bin
+	private static <K,V> BucketNode<K,V> first(BucketNode<K,V> head) {
+		return head instanceof TreeBin ? ((TreeBin<K,V>) head).first : head;
+	}
+
+	// True if the chain starting at 'node' has at least TREEIFY_THRESHOLD nodes
+	private static boolean isLong(BucketNode<?,?> node) {
+		int length = 0;
+		for(; node != null; node = node.next) {
+			if(++length >= TREEIFY_THRESHOLD) return true;
+		}
+		return false;
+	}
+
+	private static <K,V> TreeBin<K,V> treeify(BucketNode<K,V> chain) {
+		TreeBin<K,V> bin = new TreeBin<>();
+		for(BucketNode<K,V> node = chain; node != null; node = node.next)
+			bin.add(node.key, node.value, node.hash);
+		return bin;
+	}
+
+	private static <K,V> BucketNode<K,V> untreeify(TreeBin<K,V> bin) {
+		BucketNode<K,V> chain = null;
+		for(BucketNode<K,V> node = bin.first; node != null; node = node.next)
+			chain = new BucketNode<>(node.key, node.value, node.hash, chain);
+		return chain;
+	}
+
+	private int thresholdFor(int capacity) {
+		return (int) Math.min(capacity * (double) loadFactor, Integer.MAX_VALUE);
+	}
+
+	private static int tableSizeFor(int capacity) {
+		if(capacity >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <K,V> BucketNode<K,V>[] newTable(int capacity) {
+		return new BucketNode[capacity];
+	}
+
 }
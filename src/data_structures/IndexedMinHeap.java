@@ -0,0 +1,190 @@
+package data_structures;
+
+import java.util.NoSuchElementException;
+
+import interfaces.IndexedPriorityQueue;
+
+/**
+ * Implementation of an indexed min priority queue using a binary heap stored in an array.
+ *
+ * The heap array holds the indexes of the entries, and a second array (positions) remembers
+ * where each index currently sits in the heap. That way we can find any entry in O(1) and
+ * both decreaseKey and extractMin only cost O(log n) swaps.
+ *
+ * Entries with the same key are ordered by their index so the order in which they leave
+ * the queue is always the same.
+ *
+ */
+public class IndexedMinHeap implements IndexedPriorityQueue {
+
+	// heap[i] is the index of the entry stored at position i of the heap
+	private int[] heap;
+	// positions[index] is the position of that index in the heap, -1 if not in the queue
+	private int[] positions;
+	// keys[index] is the key of that index
+	private int[] keys;
+	private int size;
+
+	/**
+	 * Creates an empty queue that accepts indexes between 0 and capacity - 1
+	 * @param capacity - (int) how many different indexes the queue can hold
+	 */
+	public IndexedMinHeap(int capacity) {
+		if(capacity < 0)
+			throw new IllegalArgumentException("Capacity must be at least 0");
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new int[capacity];
+		for(int i = 0; i < capacity; i++)
+			this.positions[i] = -1;
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public boolean contains(int index) {
+		checkIndex(index);
+		return this.positions[index] != -1;
+	}
+
+	/**
+	 * Adds the entry at the bottom of the heap and moves it up until its parent is smaller.
+	 */
+	@Override
+	public void insert(int index, int key) {
+		if(contains(index))
+			throw new IllegalArgumentException("Index is already in the queue");
+		this.keys[index] = key;
+		this.heap[size] = index;
+		this.positions[index] = size;
+		size++;
+		swim(size - 1);
+	}
+
+	/**
+	 * Changes the key in place and moves the entry up, it can never need to go down.
+	 */
+	@Override
+	public void decreaseKey(int index, int key) {
+		if(!contains(index))
+			throw new NoSuchElementException();
+		if(key > this.keys[index])
+			throw new IllegalArgumentException("New key is greater than the current key");
+		this.keys[index] = key;
+		swim(this.positions[index]);
+	}
+
+	@Override
+	public int keyOf(int index) {
+		if(!contains(index))
+			throw new NoSuchElementException();
+		return this.keys[index];
+	}
+
+	@Override
+	public int minIndex() {
+		if(isEmpty())
+			throw new NoSuchElementException();
+		return this.heap[0];
+	}
+
+	@Override
+	public int minKey() {
+		if(isEmpty())
+			throw new NoSuchElementException();
+		return this.keys[this.heap[0]];
+	}
+
+	/**
+	 * Moves the last entry of the heap to the root and sinks it back to its place.
+	 */
+	@Override
+	public int extractMin() {
+		if(isEmpty())
+			throw new NoSuchElementException();
+		int min = this.heap[0];
+		size--;
+		swap(0, size);
+		this.positions[min] = -1;
+		if(size > 0)
+			sink(0);
+		return min;
+	}
+
+	/**
+	 * Empties the queue. Only the positions of the current entries need to be reset.
+	 */
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++)
+			this.positions[this.heap[i]] = -1;
+		this.size = 0;
+	}
+
+	/**
+	 * Moves the entry at position pos up while it is smaller than its parent
+	 * @param pos - position in the heap
+	 */
+	private void swim(int pos) {
+		while(pos > 0) {
+			int parent = (pos - 1) / 2;
+			if(!less(pos, parent))
+				break;
+			swap(pos, parent);
+			pos = parent;
+		}
+	}
+
+	/**
+	 * Moves the entry at position pos down while one of its children is smaller
+	 * @param pos - position in the heap
+	 */
+	private void sink(int pos) {
+		while(2 * pos + 1 < size) {
+			int child = 2 * pos + 1;
+			// Pick the smaller of the two children
+			if(child + 1 < size && less(child + 1, child))
+				child++;
+			if(!less(child, pos))
+				break;
+			swap(pos, child);
+			pos = child;
+		}
+	}
+
+	/**
+	 * Compares the entries at two heap positions by key, ties are broken by index
+	 */
+	private boolean less(int i, int j) {
+		int a = this.heap[i], b = this.heap[j];
+		if(this.keys[a] != this.keys[b])
+			return this.keys[a] < this.keys[b];
+		return a < b;
+	}
+
+	/**
+	 * Swaps the entries at two heap positions and updates their positions
+	 */
+	private void swap(int i, int j) {
+		int temp = this.heap[i];
+		this.heap[i] = this.heap[j];
+		this.heap[j] = temp;
+		this.positions[this.heap[i]] = i;
+		this.positions[this.heap[j]] = j;
+	}
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= this.positions.length)
+			throw new IndexOutOfBoundsException();
+	}
+
+}
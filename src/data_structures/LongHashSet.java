@@ -0,0 +1,117 @@
+package data_structures;
+
+import java.util.Arrays;
+
+/**
+ * Set of long values kept in an open addressing table of longs, with no boxing and no node per
+ * element. It is meant for pairs of ints packed in one long, like the station at the other end
+ * of a connection and its distance, to tell whether a pair was already seen in O(1) instead of
+ * scanning every pair seen before.
+ *
+ * The table uses linear probing with the bits of the value mixed first, so pairs that only
+ * differ in their low or high half still spread over the table. It doubles once it is half
+ * full. Elements cannot be removed one at a time, only all at once with clear().
+ */
+public class LongHashSet {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	// A slot is empty when used[slot] is false, so every long value can be an element
+	private long[] values;
+	private boolean[] used;
+	private int currentSize;
+
+	/*Constructs an empty set with room for expected elements before it grows*/
+	public LongHashSet(int expected) {
+		if(expected < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+		allocate(tableSizeFor(expected));
+	}
+
+	public LongHashSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Adds the value to the set
+	 * @param value - (long) value to add
+	 * @return true if it was not in the set
+	 */
+	public boolean add(long value) {
+		int mask = values.length - 1;
+		int slot = mix(value) & mask;
+		while(used[slot]) {
+			if(values[slot] == value) return false;
+			slot = (slot + 1) & mask;
+		}
+		values[slot] = value;
+		used[slot] = true;
+		if(++currentSize * 2 > values.length) resize();
+		return true;
+	}
+
+	/**
+	 * Checks whether the value is in the set
+	 * @param value - (long) value to look for
+	 * @return true if it is in the set
+	 */
+	public boolean isMember(long value) {
+		int mask = values.length - 1;
+		int slot = mix(value) & mask;
+		while(used[slot]) {
+			if(values[slot] == value) return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return currentSize == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		currentSize = 0;
+	}
+
+	// Same finalizer as MurmurHash3 for 64 bit values, folded into an int
+	private static int mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return (int) value;
+	}
+
+	private void resize() {
+		if(values.length == 1 << 30) throw new IllegalStateException("Set is full");
+		long[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(values.length * 2);
+		int mask = values.length - 1;
+		for(int i = 0; i < oldValues.length; i++) {
+			if(!oldUsed[i]) continue;
+			int slot = mix(oldValues[i]) & mask;
+			while(used[slot]) slot = (slot + 1) & mask;
+			values[slot] = oldValues[i];
+			used[slot] = true;
+		}
+	}
+
+	private void allocate(int capacity) {
+		values = new long[capacity];
+		used = new boolean[capacity];
+	}
+
+	// Power of two with room for expected elements at half load
+	private static int tableSizeFor(int expected) {
+		int capacity = Math.max(expected, 1) * 2;
+		if(capacity >= 1 << 30 || capacity < 0) return 1 << 30;
+		return Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+	}
+
+}
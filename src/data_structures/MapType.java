@@ -0,0 +1,54 @@
+package data_structures;
+
+import interfaces.HashFunction;
+import interfaces.Map;
+
+/**
+ * The Map implementations that the station tables can be built with.
+ * <p>
+ * The one used by default is chosen with the system property "data_structures.map"
+ * (for example -Ddata_structures.map=robin_hood); separate chaining is used when it is not set.
+ * CONCURRENT is the only type that can be shared by threads that write to it.
+ */
+public enum MapType {
+
+	SEPARATE_CHAINING {
+		@Override
+		public <K, V> Map<K, V> create(int initialCapacity, HashFunction<K> hashFunction) {
+			return new HashTableSC<>(initialCapacity, hashFunction);
+		}
+	},
+	ROBIN_HOOD {
+		@Override
+		public <K, V> Map<K, V> create(int initialCapacity, HashFunction<K> hashFunction) {
+			return new RobinHoodHashMap<>(initialCapacity, hashFunction);
+		}
+	},
+	CONCURRENT {
+		@Override
+		public <K, V> Map<K, V> create(int initialCapacity, HashFunction<K> hashFunction) {
+			return new ConcurrentHashTableSC<>(initialCapacity, hashFunction);
+		}
+	};
+
+	public static final String PROPERTY = "data_structures.map";
+
+	/**
+	 * Creates an empty map of this type.
+	 * @param initialCapacity - amount of keys expected
+	 * @param hashFunction - function used to hash the keys
+	 * @return the new map
+	 */
+	public abstract <K, V> Map<K, V> create(int initialCapacity, HashFunction<K> hashFunction);
+
+	/**
+	 * @return the type named by the "data_structures.map" system property, SEPARATE_CHAINING if it is not set
+	 * @throws IllegalArgumentException if the property does not name a type
+	 */
+	public static MapType configured() {
+		String name = System.getProperty(PROPERTY);
+		if(name == null || name.trim().isEmpty()) return SEPARATE_CHAINING;
+		return valueOf(name.trim().toUpperCase());
+	}
+
+}
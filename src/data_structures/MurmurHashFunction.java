@@ -0,0 +1,36 @@
+package data_structures;
+
+import interfaces.HashFunction;
+
+/**
+ * Applies the MurmurHash3 32 bit finalizer (fmix32) to the key's own hashCode(). The finalizer
+ * makes every input bit affect every output bit, so keys whose hashCode() only differ in a few
+ * bits (consecutive numbers, similar names) still land in unrelated buckets of a power of two
+ * table.
+ * <p>
+ * It costs a few multiplications on top of hashCode() and never allocates. String caches its
+ * hashCode(), so hashing the same station name again is constant time.
+ *
+ * @param <K>
+ */
+public class MurmurHashFunction<K> implements HashFunction<K> {
+
+	@Override
+	public int hashCode(K key) {
+		return mix(key.hashCode());
+	}
+
+	/**
+	 * @param h - value to mix
+	 * @return the MurmurHash3 finalizer of h
+	 */
+	public static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+}
@@ -0,0 +1,336 @@
+package data_structures;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjDoubleConsumer;
+
+import interfaces.HashFunction;
+
+/**
+ * Map from objects to double values that stores the values unboxed. It is meant for tables like
+ * the travel times of a route tree, where a Map<K, Double> would allocate a Double for every
+ * value put and read.
+ * <p>
+ * The layout is the one of RobinHoodHashMap (parallel arrays for keys, values and hashes with
+ * Robin Hood probing and backward-shift deletion), only with a double[] for the values. Keys cannot
+ * be null. Since a double cannot be null either, the map has a "no entry value" that get, put and
+ * remove return when the key is not present; it defaults to NaN.
+ *
+ * <p>
+ * The probe and insert loops are the map's own instead of the ones of RobinHoodTable, which the
+ * boxed map and HashSet share, so they work on a double[] directly and are compiled for this map
+ * alone. Sharing them made computing a table of a million stations almost twice as slow.
+ *
+ * @param <K>
+ */
+public class ObjectDoubleHashMap<K> {
+
+	public static final float DEFAULT_LOAD_FACTOR = 0.8f;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	// Parallel arrays, a slot is empty when its key is null
+	private Object[] keys;
+	private double[] values;
+	private int[] hashes;
+	private int currentSize;
+	private int threshold;
+	private float loadFactor;
+	private double noEntryValue;
+	// Set by makeReadOnly(), the methods that write throw once it is
+	private boolean readOnly;
+	private HashFunction<K> hashFunction;
+
+	public ObjectDoubleHashMap(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, Double.NaN, hashFunction);
+	}
+
+	/**
+	 * Creates an empty map with room for initialCapacity keys before it has to grow.
+	 * @param initialCapacity - amount of keys expected
+	 * @param loadFactor - fraction of the slots that can be used before the slots double, below 1
+	 * @param noEntryValue - value returned for keys that are not present
+	 * @param hashFunction - function used to hash the keys
+	 */
+	public ObjectDoubleHashMap(int initialCapacity, float loadFactor, double noEntryValue, HashFunction<K> hashFunction) {
+		if(initialCapacity < 1) throw new IllegalArgumentException("Size must be at least 1");
+		if(!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("Load factor must be between 0 and 1");
+		if(hashFunction == null) throw new IllegalArgumentException("Must provide a hash function");
+
+		this.loadFactor = loadFactor;
+		this.noEntryValue = noEntryValue;
+		this.hashFunction = hashFunction;
+		allocate(tableSizeFor((int) Math.min(Math.ceil(initialCapacity / (double) loadFactor), MAXIMUM_CAPACITY)));
+	}
+
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return the value returned for keys that are not present
+	 */
+	public double getNoEntryValue() {
+		return noEntryValue;
+	}
+
+	/**
+	 * @return the value of the key, or the no entry value if it is not present
+	 */
+	public double get(K key) {
+		return getOrDefault(key, noEntryValue);
+	}
+
+	/**
+	 * @return the value of the key, or defaultValue if it is not present
+	 */
+	public double getOrDefault(K key, double defaultValue) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int slot = find(key, hash(key));
+		return slot == -1 ? defaultValue : values[slot];
+	}
+
+	public boolean containsKey(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		return find(key, hash(key)) != -1;
+	}
+
+	/**
+	 * Adds the key with the value, or replaces its value if it is present.
+	 * @return the value the key had, or the no entry value if it was not present
+	 */
+	public double put(K key, double value) {
+		checkWritable();
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int hash = hash(key);
+		int slot = find(key, hash);
+		if(slot != -1) {
+			double oldValue = values[slot];
+			values[slot] = value;
+			return oldValue;
+		}
+		add(key, value, hash);
+		return noEntryValue;
+	}
+
+	/**
+	 * Adds amount to the value of the key, or adds the key with amount as its value if it is
+	 * not present. The key is looked up once.
+	 * @return the new value of the key
+	 */
+	public double adjust(K key, double amount) {
+		checkWritable();
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int hash = hash(key);
+		int slot = find(key, hash);
+		if(slot != -1) return values[slot] += amount;
+		add(key, amount, hash);
+		return amount;
+	}
+
+	/**
+	 * @return the value the key had, or the no entry value if it was not present
+	 */
+	public double remove(K key) {
+		checkWritable();
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int slot = find(key, hash(key));
+		if(slot == -1) return noEntryValue;
+		double oldValue = values[slot];
+		removeSlot(slot);
+		return oldValue;
+	}
+
+	public void clear() {
+		checkWritable();
+		Arrays.fill(keys, null);
+		currentSize = 0;
+	}
+
+	/**
+	 * Makes put, adjust, remove and clear throw UnsupportedOperationException from now on, for
+	 * tables that are handed out to several readers. It cannot be undone.
+	 */
+	public void makeReadOnly() {
+		readOnly = true;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Returns a view of the keys. Like the views of Map it copies nothing, and the map must
+	 * not be changed while it is iterated.
+	 */
+	public Iterable<K> keys() {
+		return () -> new Iterator<K>() {
+			private int next = nextUsed(0);
+
+			@Override
+			public boolean hasNext() {
+				return next < keys.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public K next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				K key = (K) keys[next];
+				next = nextUsed(next + 1);
+				return key;
+			}
+		};
+	}
+
+	/**
+	 * Gives every key and its value to the action without boxing the value. The action must
+	 * not add or remove keys.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(ObjDoubleConsumer<? super K> action) {
+		if(action == null) throw new IllegalArgumentException("Invalid parameter");
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) action.accept((K) keys[i], values[i]);
+		}
+	}
+
+	/**
+	 * @return the amount of slots
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	public void print(PrintStream out) {
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) out.println(keys[i] + "\t" + values[i]);
+		}
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder("key\tvalues\n");
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) str.append(keys[i]).append('\t').append(values[i]).append('\n');
+		}
+		return str.toString();
+	}
+
+	private void checkWritable() {
+		if(readOnly) throw new UnsupportedOperationException("Read-only map");
+	}
+
+	// Same bit mixing as HashTableSC, the home slot only looks at the low bits
+	private int hash(K key) {
+		int h = hashFunction.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	// How far the key in the slot is from its home slot
+	private int distance(int slot) {
+		return (slot - hashes[slot]) & (keys.length - 1);
+	}
+
+	/*
+	 * Slot of the key, or -1. The search stops at an empty slot or at a key that is closer to its
+	 * home than the distance walked, since the key would have taken that slot when it was inserted.
+	 */
+	private int find(Object key, int hash) {
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		for(int walked = 0; ; walked++) {
+			if(keys[slot] == null || distance(slot) < walked) return -1;
+			if(hashes[slot] == hash && keys[slot].equals(key)) return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private int nextUsed(int from) {
+		while(from < keys.length && keys[from] == null) from++;
+		return from;
+	}
+
+	/*
+	 * Adds a key that is not in the map, growing the slots first if needed.
+	 */
+	private void add(K key, double value, int hash) {
+		if(currentSize + 1 > threshold) resize();
+		insert(key, value, hash);
+		currentSize++;
+	}
+
+	/*
+	 * Backward shift: every following key of the cluster that is not at its home moves one slot back.
+	 */
+	private void removeSlot(int slot) {
+		int mask = keys.length - 1;
+		int next = (slot + 1) & mask;
+		while(keys[next] != null && distance(next) > 0) {
+			keys[slot] = keys[next];
+			values[slot] = values[next];
+			hashes[slot] = hashes[next];
+			slot = next;
+			next = (next + 1) & mask;
+		}
+		keys[slot] = null;
+		currentSize--;
+	}
+
+	/*
+	 * Places a key that is not in the map, swapping it with every key that is closer to its home.
+	 */
+	private void insert(Object key, double value, int hash) {
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		int walked = 0;
+		while(keys[slot] != null) {
+			int existing = distance(slot);
+			if(existing < walked) {
+				Object swapKey = keys[slot];
+				double swapValue = values[slot];
+				int swapHash = hashes[slot];
+				keys[slot] = key;
+				values[slot] = value;
+				hashes[slot] = hash;
+				key = swapKey;
+				value = swapValue;
+				hash = swapHash;
+				walked = existing;
+			}
+			slot = (slot + 1) & mask;
+			walked++;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		hashes[slot] = hash;
+	}
+
+	private void resize() {
+		if(keys.length == MAXIMUM_CAPACITY) throw new IllegalStateException("Map is full");
+		Object[] oldKeys = keys;
+		double[] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(keys.length * 2);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != null) insert(oldKeys[i], oldValues[i], oldHashes[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new double[capacity];
+		hashes = new int[capacity];
+		threshold = (int) Math.min(capacity * (double) loadFactor, capacity - 1);
+	}
+
+	private static int tableSizeFor(int capacity) {
+		if(capacity >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+}
@@ -0,0 +1,18 @@
+package data_structures;
+
+import interfaces.HashFunction;
+
+/**
+ * Uses the key's own hashCode(). For keys that cache it, like String, hashing is a field read
+ * after the first time, and no key is turned into a String to be hashed.
+ *
+ * @param <K>
+ */
+public class ObjectHashFunction<K> implements HashFunction<K> {
+
+	@Override
+	public int hashCode(K key) {
+		return key.hashCode();
+	}
+
+}
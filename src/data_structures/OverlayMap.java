@@ -0,0 +1,416 @@
+package data_structures;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import interfaces.Entry;
+import interfaces.HashFunction;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.View;
+
+/**
+ * Read-only map made of a base map and the entries that changed since, for versions of a big map
+ * that only differ in a few keys, like the shortest routes of a network after one connection
+ * changed.
+ *
+ * The changes are kept in a persistent hash array mapped trie: every node has a 32 bit bitmap of
+ * the children it has and a packed array with only those children, and each level of the trie
+ * reads the next 5 bits of the hash. with() copies the path from the root to the key (at most 7
+ * nodes) and shares everything else, so a new version costs O(log n) time and memory and the
+ * old version stays as it was. Keys whose whole hashes are equal share a collision node at the
+ * bottom. The base map is never written to and must not be changed by anyone else either.
+ *
+ * A key is looked up in the trie first and then in the base map. The views walk the base map,
+ * reading the changed value of the keys that have one, and then the keys that are only in the
+ * trie. Every operation that could change the map throws UnsupportedOperationException, like
+ * ReadOnlyMap.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class OverlayMap<K, V> implements Map<K, V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * Key with its value and hash, a leaf of the trie.
+	 */
+	private static final class Leaf<K, V> implements Entry<K, V> {
+		private final K key;
+		private final int hash;
+		private final V value;
+
+		Leaf(K key, int hash, V value) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {return key;}
+
+		@Override
+		public V getValue() {return value;}
+	}
+
+	/**
+	 * Inner node: bit i of the bitmap is set when there is a child for the value i of the bits
+	 * read at this level, and the children are packed in the order of their bits. A child is a
+	 * Leaf, a Node or a Collision.
+	 */
+	private static final class Node {
+		private final int bitmap;
+		private final Object[] children;
+
+		Node(int bitmap, Object[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+	}
+
+	/**
+	 * Keys that have the same hash, which no level of the trie can tell apart.
+	 */
+	private static final class Collision<K, V> {
+		private final int hash;
+		private final Leaf<K, V>[] leaves;
+
+		Collision(int hash, Leaf<K, V>[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+	}
+
+	private static final Node EMPTY = new Node(0, new Object[0]);
+
+	private final Map<K, V> base;
+	private final HashFunction<K> hashFunction;
+	private final Node root;
+	// Keys in the trie, and how many of them are not in the base map
+	private final int changedCount;
+	private final int addedCount;
+
+	/**
+	 * Creates a map with the entries of the base map and no changes.
+	 * @param base - map the changes are made on top of, it is read but never written to
+	 * @param hashFunction - function used to hash the keys of the trie
+	 */
+	public OverlayMap(Map<K, V> base, HashFunction<K> hashFunction) {
+		if(base == null || hashFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		this.base = base;
+		this.hashFunction = hashFunction;
+		this.root = EMPTY;
+		this.changedCount = 0;
+		this.addedCount = 0;
+	}
+
+	private OverlayMap(Map<K, V> base, HashFunction<K> hashFunction, Node root, int changedCount, int addedCount) {
+		this.base = base;
+		this.hashFunction = hashFunction;
+		this.root = root;
+		this.changedCount = changedCount;
+		this.addedCount = addedCount;
+	}
+
+	/**
+	 * Gives a new version of the map where the key has the value. This map is not changed and
+	 * both versions share everything but the path to the key.
+	 * @return the new version
+	 */
+	public OverlayMap<K, V> with(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = hash(key);
+		boolean changedBefore = find(root, key, hash) != null;
+		Node newRoot = (Node) insert(root, new Leaf<>(key, hash, value), 0);
+		int added = addedCount;
+		if(!changedBefore && !base.containsKey(key)) added++;
+		return new OverlayMap<>(base, hashFunction, newRoot, changedBefore ? changedCount : changedCount + 1, added);
+	}
+
+	/**
+	 * @return how many keys have a value that was given by with()
+	 */
+	public int changedCount() {
+		return changedCount;
+	}
+
+	@Override
+	public int size() {
+		return base.size() + addedCount;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public V get(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		Leaf<K, V> leaf = find(root, key, hash(key));
+		return leaf != null ? leaf.value : base.get(key);
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		return find(root, key, hash(key)) != null || base.containsKey(key);
+	}
+
+	@Override
+	public List<K> getKeys() {
+		List<K> result = new ArrayList<>(Math.max(size(), 1));
+		for(K key : keys()) result.add(key);
+		return result;
+	}
+
+	@Override
+	public List<V> getValues() {
+		List<V> result = new ArrayList<>(Math.max(size(), 1));
+		for(V value : values()) result.add(value);
+		return result;
+	}
+
+	@Override
+	public View<Entry<K, V>> entries() {
+		return () -> new Iterator<Entry<K, V>>() {
+			private final Iterator<Entry<K, V>> fromBase = base.entries().iterator();
+			private final Iterator<Leaf<K, V>> fromTrie = new LeafIterator<>(root);
+			// The next entry is only looked for in hasNext(), so an entry of the base map stays
+			// valid until the caller moves on, like the entries of the base map itself
+			private Entry<K, V> next;
+			private boolean found;
+
+			@Override
+			public boolean hasNext() {
+				if(!found) {
+					next = advance();
+					found = true;
+				}
+				return next != null;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				found = false;
+				return next;
+			}
+
+			/* Base keys first with their latest value, then the keys the base does not have */
+			private Entry<K, V> advance() {
+				if(fromBase.hasNext()) {
+					Entry<K, V> entry = fromBase.next();
+					K key = entry.getKey();
+					Leaf<K, V> changed = find(root, key, hash(key));
+					return changed != null ? changed : entry;
+				}
+				while(fromTrie.hasNext()) {
+					Leaf<K, V> leaf = fromTrie.next();
+					if(!base.containsKey(leaf.key)) return leaf;
+				}
+				return null;
+			}
+		};
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		for(Entry<K, V> entry : entries()) out.println(entry.getKey() + "\t" + entry.getValue());
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder("key\tvalues\n");
+		for(Entry<K, V> entry : entries()) str.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+		return str.toString();
+	}
+
+	@Override
+	public V put(K key, V value) {
+		throw readOnly();
+	}
+
+	@Override
+	public V remove(K key) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clear() {
+		throw readOnly();
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		throw readOnly();
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		throw readOnly();
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		throw readOnly();
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		throw readOnly();
+	}
+
+	private int hash(K key) {
+		int h = hashFunction.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Leaf<K, V> find(Node node, Object key, int hash) {
+		for(int shift = 0; ; shift += BITS) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if((node.bitmap & bit) == 0) return null;
+			Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+			if(child instanceof Node) {
+				node = (Node) child;
+				continue;
+			}
+			if(child instanceof Leaf) {
+				Leaf<K, V> leaf = (Leaf<K, V>) child;
+				return leaf.hash == hash && leaf.key.equals(key) ? leaf : null;
+			}
+			Collision<K, V> collision = (Collision<K, V>) child;
+			if(collision.hash != hash) return null;
+			for(Leaf<K, V> leaf : collision.leaves) {
+				if(leaf.key.equals(key)) return leaf;
+			}
+			return null;
+		}
+	}
+
+	/*
+	 * Gives a copy of the child with the leaf added or replacing the leaf of the same key. The
+	 * child is a Node, a Leaf, a Collision or null, at the level that reads the bits from shift.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <K, V> Object insert(Object child, Leaf<K, V> leaf, int shift) {
+		if(child == null) return leaf;
+		if(child instanceof Node) {
+			Node node = (Node) child;
+			int bit = 1 << ((leaf.hash >>> shift) & MASK);
+			int index = Integer.bitCount(node.bitmap & (bit - 1));
+			if((node.bitmap & bit) != 0) {
+				Object[] children = node.children.clone();
+				children[index] = insert(children[index], leaf, shift + BITS);
+				return new Node(node.bitmap, children);
+			}
+			Object[] children = new Object[node.children.length + 1];
+			System.arraycopy(node.children, 0, children, 0, index);
+			children[index] = leaf;
+			System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+			return new Node(node.bitmap | bit, children);
+		}
+		if(child instanceof Leaf) {
+			Leaf<K, V> existing = (Leaf<K, V>) child;
+			if(existing.hash == leaf.hash) {
+				if(existing.key.equals(leaf.key)) return leaf;
+				return new Collision<>(leaf.hash, new Leaf[] {existing, leaf});
+			}
+			return split(existing, existing.hash, leaf, shift);
+		}
+		Collision<K, V> collision = (Collision<K, V>) child;
+		if(collision.hash != leaf.hash) return split(collision, collision.hash, leaf, shift);
+		Leaf<K, V>[] leaves = collision.leaves;
+		for(int i = 0; i < leaves.length; i++) {
+			if(leaves[i].key.equals(leaf.key)) {
+				leaves = leaves.clone();
+				leaves[i] = leaf;
+				return new Collision<>(leaf.hash, leaves);
+			}
+		}
+		Leaf<K, V>[] grown = Arrays.copyOf(leaves, leaves.length + 1);
+		grown[leaves.length] = leaf;
+		return new Collision<>(leaf.hash, grown);
+	}
+
+	/*
+	 * Node at the level of shift that holds a leaf and another child (a Leaf or a Collision) with
+	 * a different hash, going down as many levels as their hashes need to be told apart.
+	 */
+	private static Object split(Object child, int childHash, Leaf<?, ?> leaf, int shift) {
+		int childBits = (childHash >>> shift) & MASK;
+		int leafBits = (leaf.hash >>> shift) & MASK;
+		if(childBits == leafBits)
+			return new Node(1 << childBits, new Object[] {split(child, childHash, leaf, shift + BITS)});
+		Object[] children = childBits < leafBits ? new Object[] {child, leaf} : new Object[] {leaf, child};
+		return new Node((1 << childBits) | (1 << leafBits), children);
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("Read-only map");
+	}
+
+	/**
+	 * Walks the leaves of a trie depth first with a stack of positions, one per level.
+	 */
+	private static final class LeafIterator<K, V> implements Iterator<Leaf<K, V>> {
+		// Deep enough for 32 bit hashes read 5 bits at a time
+		private final Object[][] path = new Object[8][];
+		private final int[] position = new int[8];
+		private int depth = 0;
+		private Leaf<K, V>[] collision;
+		private int collisionPosition;
+		private Leaf<K, V> next;
+
+		LeafIterator(Node root) {
+			path[0] = root.children;
+			next = advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Leaf<K, V> next() {
+			if(next == null) throw new NoSuchElementException();
+			Leaf<K, V> result = next;
+			next = advance();
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Leaf<K, V> advance() {
+			if(collision != null) {
+				if(collisionPosition < collision.length) return collision[collisionPosition++];
+				collision = null;
+			}
+			while(depth >= 0) {
+				if(position[depth] == path[depth].length) {
+					depth--;
+					continue;
+				}
+				Object child = path[depth][position[depth]++];
+				if(child instanceof Leaf) return (Leaf<K, V>) child;
+				if(child instanceof Node) {
+					depth++;
+					path[depth] = ((Node) child).children;
+					position[depth] = 0;
+					continue;
+				}
+				collision = ((Collision<K, V>) child).leaves;
+				collisionPosition = 1;
+				return collision[0];
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package data_structures;
+
+import interfaces.HashFunction;
+
+/**
+ * Polynomial rolling hash over the characters of the key: h = h * base + c for every character,
+ * so the position of each character matters and anagrams get different hashes.
+ * <p>
+ * Keys that are already a CharSequence (String, StringBuilder) are read directly; any other key
+ * is hashed through its toString().
+ *
+ * @param <K>
+ */
+public class PolynomialHashFunction<K> implements HashFunction<K> {
+
+	public static final int DEFAULT_BASE = 31;
+
+	private int base;
+
+	public PolynomialHashFunction() {
+		this(DEFAULT_BASE);
+	}
+
+	/**
+	 * @param base - multiplier applied before adding every character, an odd number keeps every bit useful
+	 */
+	public PolynomialHashFunction(int base) {
+		this.base = base;
+	}
+
+	@Override
+	public int hashCode(K key) {
+		CharSequence chars = key instanceof CharSequence ? (CharSequence) key : key.toString();
+		int result = 0;
+		for (int i = 0; i < chars.length(); i++) {
+			result = result * base + chars.charAt(i);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,132 @@
+package data_structures;
+
+import java.io.PrintStream;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import interfaces.Entry;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.View;
+
+/**
+ * Map that gives read access to another map and refuses every change, for maps that are shared
+ * by several readers and must stay as they are.
+ *
+ * The map is not copied: reads go straight to it, and its views walk its own storage. Every
+ * operation that could add, replace or remove a key throws UnsupportedOperationException, even
+ * when it would not change anything (a putIfAbsent of a key that is present, for instance), so
+ * a caller that writes to it finds out the first time instead of only on some keys.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ReadOnlyMap<K, V> implements Map<K, V> {
+
+	private final Map<K, V> map;
+
+	public ReadOnlyMap(Map<K, V> map) {
+		if(map == null) throw new IllegalArgumentException("Map cannot be null");
+		this.map = map;
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public V get(K key) {
+		return map.get(key);
+	}
+
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		return map.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return map.containsKey(key);
+	}
+
+	@Override
+	public List<K> getKeys() {
+		return map.getKeys();
+	}
+
+	@Override
+	public List<V> getValues() {
+		return map.getValues();
+	}
+
+	@Override
+	public View<K> keys() {
+		return map.keys();
+	}
+
+	@Override
+	public View<V> values() {
+		return map.values();
+	}
+
+	@Override
+	public View<Entry<K, V>> entries() {
+		return map.entries();
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		map.print(out);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		throw readOnly();
+	}
+
+	@Override
+	public V remove(K key) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clear() {
+		throw readOnly();
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		throw readOnly();
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		throw readOnly();
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		throw readOnly();
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		throw readOnly();
+	}
+
+	@Override
+	public String toString() {
+		return map.toString();
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("Read-only map");
+	}
+
+}
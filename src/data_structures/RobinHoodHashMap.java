@@ -0,0 +1,397 @@
+package data_structures;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import interfaces.Entry;
+import interfaces.HashFunction;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.View;
+
+/**
+ * Map that uses open addressing with Robin Hood hashing. It follows the same contract as
+ * HashTableSC (no null keys or values, put returns the value it replaced) so either one can
+ * be used wherever a Map is expected.
+ * <p>
+ * Keys, values and hashes live in three parallel arrays, so an entry costs no node objects and
+ * a lookup walks consecutive slots. A key is placed at the first free slot after its home slot
+ * (hash & (capacity - 1)); on the way, whenever the key being placed is further from its home
+ * than the key in the slot, they swap places ("take from the rich"). That keeps every probe
+ * sequence short and lets a lookup stop as soon as it meets a key closer to its home than the
+ * distance already walked. Removing a key shifts the following keys of the cluster one slot back
+ * (backward-shift deletion) instead of leaving a tombstone. The probing itself is done by a
+ * RobinHoodTable, shared with the primitive maps and HashSet.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class RobinHoodHashMap<K, V> implements Map<K, V> {
+
+	public static final float DEFAULT_LOAD_FACTOR = 0.8f;
+
+	// Keys and hashes, with the values in an Object[]
+	private final RobinHoodTable<K> table;
+
+	public RobinHoodHashMap(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, hashFunction);
+	}
+
+	/**
+	 * Creates an empty map with room for initialCapacity keys before it has to grow.
+	 * @param initialCapacity - amount of keys expected
+	 * @param loadFactor - fraction of the slots that can be used before the slots double, below 1
+	 * @param hashFunction - function used to hash the keys
+	 */
+	public RobinHoodHashMap(int initialCapacity, float loadFactor, HashFunction<K> hashFunction) {
+		this.table = new RobinHoodTable<>(initialCapacity, loadFactor, hashFunction, true);
+	}
+
+	@Override
+	public int size() {
+		return table.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int slot = table.find(key, table.hash(key));
+		return slot == -1 ? null : (V) slotValues()[slot];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = table.hash(key);
+		int slot = table.find(key, hash);
+		if(slot != -1) {
+			V oldValue = (V) slotValues()[slot];
+			slotValues()[slot] = value;
+			return oldValue;
+		}
+		add(key, value, hash);
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		int slot = table.find(key, table.hash(key));
+		if(slot == -1) return null;
+		V oldValue = (V) slotValues()[slot];
+		table.removeSlot(slot);
+		return oldValue;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		if(key == null) throw new IllegalArgumentException("Invalid parameter");
+		return table.find(key, table.hash(key)) != -1;
+	}
+
+	/*
+	 * The operations below hash the key and probe for it once, instead of the get and put pair
+	 * the defaults of Map use. A key that is missing is inserted from its home slot again, since
+	 * the function may have made the map grow.
+	 */
+
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if(key == null || value == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = table.hash(key);
+		int slot = table.find(key, hash);
+		if(slot != -1) return (V) slotValues()[slot];
+		add(key, value, hash);
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if(key == null || mappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = table.hash(key);
+		int slot = table.find(key, hash);
+		if(slot != -1) return (V) slotValues()[slot];
+		V value = mappingFunction.apply(key);
+		if(value != null) add(key, value, hash);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if(key == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = table.hash(key);
+		int slot = table.find(key, hash);
+		V value = remappingFunction.apply(key, slot == -1 ? null : (V) slotValues()[slot]);
+		return update(key, slot, value, hash);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if(key == null || value == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		int hash = table.hash(key);
+		int slot = table.find(key, hash);
+		V result = slot == -1 ? value : remappingFunction.apply((V) slotValues()[slot], value);
+		return update(key, slot, result, hash);
+	}
+
+	@Override
+	public void clear() {
+		table.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<K> getKeys() {
+		Object[] keys = table.keys;
+		List<K> result = new ArrayList<>(Math.max(table.size, 1));
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) result.add((K) keys[i]);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<V> getValues() {
+		Object[] keys = table.keys, values = slotValues();
+		List<V> result = new ArrayList<>(Math.max(table.size, 1));
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) result.add((V) values[i]);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public View<K> keys() {
+		return new View<K>() {
+			public Iterator<K> iterator() {
+				return new SlotIterator<K>() {
+					K extract() {return (K) table.keys[slot];}
+				};
+			}
+
+			public Spliterator<K> spliterator() {
+				return new SlotSpliterator<>(0, table.capacity(), table.size, true, slot -> (K) table.keys[slot], Spliterator.DISTINCT);
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public View<V> values() {
+		return new View<V>() {
+			public Iterator<V> iterator() {
+				return new SlotIterator<V>() {
+					V extract() {return (V) slotValues()[slot];}
+				};
+			}
+
+			public Spliterator<V> spliterator() {
+				return new SlotSpliterator<>(0, table.capacity(), table.size, true, slot -> (V) slotValues()[slot], 0);
+			}
+		};
+	}
+
+	/**
+	 * The slots hold no entry objects, so the iterator itself is the entry of the slot it is on.
+	 * The streams cannot share one entry between threads, so they get a new entry per slot.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public View<Entry<K,V>> entries() {
+		return new View<Entry<K,V>>() {
+			public Iterator<Entry<K,V>> iterator() {
+				return new EntryIterator();
+			}
+
+			public Spliterator<Entry<K,V>> spliterator() {
+				return new SlotSpliterator<>(0, table.capacity(), table.size, true, slot -> {
+					K key = (K) table.keys[slot];
+					V value = (V) slotValues()[slot];
+					return new Entry<K,V>() {
+						public K getKey() {return key;}
+						public V getValue() {return value;}
+					};
+				}, Spliterator.DISTINCT);
+			}
+		};
+	}
+
+	/**
+	 * @return the amount of slots
+	 */
+	public int capacity() {
+		return table.capacity();
+	}
+
+	/**
+	 * @return the longest distance between a key and its home slot
+	 */
+	public int maxProbeLength() {
+		return table.maxProbeLength();
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		Object[] keys = table.keys, values = slotValues();
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) out.println(keys[i] + "\t" + values[i]);
+		}
+	}
+
+	public String toString() {
+		String str = "key\tvalues\n";
+		for(Entry<K,V> entry : this.entries()) {
+			str += entry.getKey().toString() + "\t" + entry.getValue().toString() + "\n";
+		}
+		return str;
+	}
+
+	private Object[] slotValues() {
+		return table.values;
+	}
+
+	/*
+	 * Walks the used slots in order.
+	 */
+	private abstract class SlotIterator<T> implements Iterator<T> {
+		// Slot of the last key returned
+		int slot = -1;
+		private int next = table.nextUsed(0);
+
+		abstract T extract();
+
+		@Override
+		public boolean hasNext() {
+			return next < table.capacity();
+		}
+
+		@Override
+		public T next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			slot = next;
+			next = table.nextUsed(next + 1);
+			return extract();
+		}
+	}
+
+	/*
+	 * Walks the used slots from 'index' up to 'fence'. Splitting gives away the upper half of the
+	 * slots left, so only the spliterator that was never split knows its exact size.
+	 */
+	private class SlotSpliterator<T> implements Spliterator<T> {
+		private final IntFunction<T> extract;
+		private final int characteristics;
+		private int index;
+		private int fence;
+		private int estimate;
+		private boolean exact;
+
+		SlotSpliterator(int index, int fence, int estimate, boolean exact, IntFunction<T> extract, int characteristics) {
+			this.index = index;
+			this.fence = fence;
+			this.estimate = estimate;
+			this.exact = exact;
+			this.extract = extract;
+			this.characteristics = characteristics;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if(action == null) throw new IllegalArgumentException("Invalid parameter");
+			Object[] keys = table.keys;
+			while(index < fence && keys[index] == null) index++;
+			if(index == fence) return false;
+			action.accept(extract.apply(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			if(action == null) throw new IllegalArgumentException("Invalid parameter");
+			Object[] keys = table.keys;
+			for(; index < fence; index++) {
+				if(keys[index] != null) action.accept(extract.apply(index));
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if(middle <= index) return null;
+			estimate >>>= 1;
+			exact = false;
+			SlotSpliterator<T> upper = new SlotSpliterator<>(middle, fence, estimate, false, extract, characteristics);
+			fence = middle;
+			return upper;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return (exact ? Spliterator.SIZED : 0) | characteristics | Spliterator.NONNULL;
+		}
+	}
+
+	private class EntryIterator extends SlotIterator<Entry<K,V>> implements Entry<K,V> {
+		Entry<K,V> extract() {return this;}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public K getKey() {return (K) table.keys[slot];}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {return (V) slotValues()[slot];}
+	}
+
+	/*
+	 * Adds a key that is not in the map, growing the slots first if needed.
+	 */
+	private void add(K key, V value, int hash) {
+		table.add(key, hash, value);
+	}
+
+	/*
+	 * Gives the key its new value after compute or merge: the slot found before (-1 if there was
+	 * none) is updated, a missing key is added and a null value removes the key.
+	 */
+	private V update(K key, int slot, V value, int hash) {
+		if(value == null) {
+			if(slot != -1) table.removeSlot(slot);
+		}
+		else if(slot != -1) slotValues()[slot] = value;
+		else add(key, value, hash);
+		return value;
+	}
+
+}
@@ -0,0 +1,206 @@
+package data_structures;
+
+import java.util.Arrays;
+
+import interfaces.HashFunction;
+
+/**
+ * Slots shared by RobinHoodHashMap and HashSet. It holds the keys and their hashes in parallel
+ * arrays and does the Robin Hood probing, insertion, backward-shift deletion and growth for
+ * both, so they only differ in whether they keep a value next to each key. ObjectIntHashMap and
+ * ObjectDoubleHashMap keep loops of their own on their primitive values instead.
+ * <p>
+ * A key is placed at the first free slot after its home slot (hash & (capacity - 1)), and
+ * whenever it is further from its home than the key already in a slot it takes that slot
+ * ("take from the rich") and the displaced key carries on. The keys of a cluster therefore stay
+ * ordered by home slot, so removing a key moves the rest of the cluster one slot back, which is
+ * done with System.arraycopy on the keys, the hashes and the values at once. The values are an
+ * Object[] for a map, or none for a set; the owner adds a key together with its value and reads
+ * or writes the value at the slot found by find().
+ *
+ * @param <K>
+ */
+final class RobinHoodTable<K> {
+
+	static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	// Parallel arrays, a slot is empty when its key is null
+	Object[] keys;
+	int[] hashes;
+	// Value of each slot, null when there are no values
+	Object[] values;
+	int size;
+	private int threshold;
+	private final float loadFactor;
+	private final HashFunction<K> hashFunction;
+	private final boolean withValues;
+
+	/**
+	 * Creates empty slots with room for initialCapacity keys before they have to grow.
+	 * @param initialCapacity - amount of keys expected
+	 * @param loadFactor - fraction of the slots that can be used before the slots double, below 1
+	 * @param hashFunction - function used to hash the keys
+	 * @param withValues - whether a value is kept next to each key
+	 */
+	RobinHoodTable(int initialCapacity, float loadFactor, HashFunction<K> hashFunction, boolean withValues) {
+		if(initialCapacity < 1) throw new IllegalArgumentException("Size must be at least 1");
+		if(!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("Load factor must be between 0 and 1");
+		if(hashFunction == null) throw new IllegalArgumentException("Must provide a hash function");
+
+		this.loadFactor = loadFactor;
+		this.hashFunction = hashFunction;
+		this.withValues = withValues;
+		allocate(tableSizeFor((int) Math.min(Math.ceil(initialCapacity / (double) loadFactor), MAXIMUM_CAPACITY)));
+	}
+
+	HashFunction<K> hashFunction() {
+		return hashFunction;
+	}
+
+	// Same bit mixing as HashTableSC, the home slot only looks at the low bits
+	int hash(K key) {
+		int h = hashFunction.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	// How far the key in the slot is from its home slot
+	int distance(int slot) {
+		return (slot - hashes[slot]) & (keys.length - 1);
+	}
+
+	/*
+	 * Slot of the key, or -1. The search stops at an empty slot or at a key that is closer to its
+	 * home than the distance walked, since the key would have taken that slot when it was inserted.
+	 */
+	int find(Object key, int hash) {
+		Object[] keys = this.keys;
+		int[] hashes = this.hashes;
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		for(int walked = 0; ; walked++) {
+			Object candidate = keys[slot];
+			if(candidate == null || ((slot - hashes[slot]) & mask) < walked) return -1;
+			if(hashes[slot] == hash && candidate.equals(key)) return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/*
+	 * Adds a key that is not present with its value, growing the slots first if needed.
+	 */
+	void add(Object key, int hash, Object value) {
+		if(size + 1 > threshold) resize();
+		size++;
+		insert(key, hash, value);
+	}
+
+	/*
+	 * Backward shift: every following key of the cluster that is not at its home moves one slot
+	 * back with its hash and value, and the last slot of the cluster is emptied.
+	 */
+	void removeSlot(int slot) {
+		int mask = keys.length - 1;
+		int end = (slot + 1) & mask;
+		while(keys[end] != null && distance(end) > 0) end = (end + 1) & mask;
+		int last = (end - 1) & mask;
+		if(last >= slot) {
+			move(slot + 1, slot, last - slot);
+		}
+		else {
+			// The cluster wraps around the end of the arrays
+			move(slot + 1, slot, keys.length - 1 - slot);
+			move(0, keys.length - 1, 1);
+			move(1, 0, last);
+		}
+		keys[last] = null;
+		if(values != null) values[last] = null;
+		size--;
+	}
+
+	void clear() {
+		Arrays.fill(keys, null);
+		if(values != null) Arrays.fill(values, null);
+		size = 0;
+	}
+
+	// First used slot from 'from' on, keys.length if there is none
+	int nextUsed(int from) {
+		while(from < keys.length && keys[from] == null) from++;
+		return from;
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+
+	int maxProbeLength() {
+		int longest = 0;
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != null) longest = Math.max(longest, distance(i));
+		}
+		return longest;
+	}
+
+	/*
+	 * Places a key that is not present: walking from its home slot, it swaps with the first key
+	 * that is closer to its own home, which then carries on the walk with its value, until an
+	 * empty slot is reached.
+	 */
+	private void insert(Object key, int hash, Object value) {
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		for(int walked = 0; keys[slot] != null; walked++) {
+			int existing = distance(slot);
+			if(existing < walked) {
+				Object swapKey = keys[slot];
+				int swapHash = hashes[slot];
+				keys[slot] = key;
+				hashes[slot] = hash;
+				if(values != null) {
+					Object swapValue = values[slot];
+					values[slot] = value;
+					value = swapValue;
+				}
+				key = swapKey;
+				hash = swapHash;
+				walked = existing;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		hashes[slot] = hash;
+		if(values != null) values[slot] = value;
+	}
+
+	// Copies 'length' slots, with their hashes and values, from 'from' to 'to'
+	private void move(int from, int to, int length) {
+		if(length == 0) return;
+		System.arraycopy(keys, from, keys, to, length);
+		System.arraycopy(hashes, from, hashes, to, length);
+		if(values != null) System.arraycopy(values, from, values, to, length);
+	}
+
+	private void resize() {
+		if(keys.length == MAXIMUM_CAPACITY) throw new IllegalStateException("Table is full");
+		Object[] oldKeys = keys;
+		int[] oldHashes = hashes;
+		Object[] oldValues = values;
+		allocate(keys.length * 2);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != null) insert(oldKeys[i], oldHashes[i], oldValues == null ? null : oldValues[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		hashes = new int[capacity];
+		values = withValues ? new Object[capacity] : null;
+		threshold = (int) Math.min(capacity * (double) loadFactor, capacity - 1);
+	}
+
+	private static int tableSizeFor(int capacity) {
+		if(capacity >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+}
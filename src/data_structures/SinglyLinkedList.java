@@ -1,5 +1,7 @@
 package data_structures;
 
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -7,6 +9,17 @@ import interfaces.List;
 
 /**
  * Implementation of a list using simple nodes. All the data is stored using nodes.
+ * <p>
+ * The list also keeps a reference to its last node, so adding at the end is O(1), and remembers
+ * the last node it reached by position (the cursor). get(i) and set(i) start walking from the
+ * cursor when it is at or before i, so a loop that goes through the positions in ascending order
+ * takes O(1) per position instead of walking from head every time. The cursor keeps the node and
+ * its position in one object that is replaced, never changed, so get() can still be called from
+ * several threads at once as long as none of them changes the list.
+ * <p>
+ * The iterator is fail-fast: if nodes are added or removed while it is in use it throws
+ * ConcurrentModificationException instead of returning the wrong elements.
+ * sort() relinks the nodes with a natural merge sort, it creates and copies no nodes.
  * @author Gretchen Bonilla
  *
  * @param <E>
@@ -71,10 +84,30 @@ public class SinglyLinkedList<E> implements List<E>{
 		
 	}
 	
+	/**
+	 * Node reached by getNode() together with its position. A cursor is replaced as a whole and
+	 * never changed, so a thread that reads it always gets a node with its own position.
+	 */
+	private class Cursor {
+		private final Node<E> node;
+		private final int index;
+
+		public Cursor(Node<E> node, int index) {
+			this.node = node;
+			this.index = index;
+		}
+	}
+	
 	// Represent the first node in the list
 	private Node<E> head;
+	// Represents the last node in the list, null when the list is empty
+	private Node<E> tail;
 	// Tracks the current size of the list
 	private int size;
+	// Last node found by getNode() and its position, null when there is none
+	private Cursor cursor;
+	// Counts the times nodes were added or removed, so iterators can tell the list changed
+	private int modCount;
 	
 
 	/**
@@ -82,7 +115,9 @@ public class SinglyLinkedList<E> implements List<E>{
 	 */
 	public SinglyLinkedList() {
 		this.head = null;
+		this.tail = null;
 		this.size = 0;
+		this.cursor = null;
 	}
 	
 
@@ -111,16 +146,14 @@ public class SinglyLinkedList<E> implements List<E>{
 		if(head == null)
 			head = newNode;
 		else {
-			// Lets search for the last node in the list
-			Node<E> temp = head;
-			while(temp.getNext() != null) {
-				temp = temp.getNext();
-			}
 			// Set the next of the last node to the new node.
-			// We now have a new last node
-			temp.setNext(newNode);
+			// We no longer search for the last node, tail always references it
+			tail.setNext(newNode);
 		}
+		// We now have a new last node. No position changed, so the cursor is still valid
+		tail = newNode;
 		this.size++;
+		modCount++;
 		
 	}
 	/**
@@ -134,15 +167,34 @@ public class SinglyLinkedList<E> implements List<E>{
 		// Check the index is valid
 		if(index < 0 || index >=size)
 			throw new IndexOutOfBoundsException();
-		// We start at head
+		// The last node needs no walking at all
+		if(index == size - 1)
+			return tail;
+		// We start at head, or at the cursor if it is not past index
 		Node<E> temp = head;
+		int i = 0;
+		Cursor last = cursor;
+		if(last != null && last.index <= index) {
+			temp = last.node;
+			i = last.index;
+		}
 		// Move through the list until we find the node at position index
-		for(int i = 0; i < index; i++)
+		for(; i < index; i++)
 			temp = temp.getNext();
+		// Remember where we stopped for the next call
+		if(last == null || last.node != temp)
+			cursor = new Cursor(temp, index);
 		// Return the node
 		return temp;
 	}
 
+	/**
+	 * Drops the cursor, used when the positions after it are about to change.
+	 */
+	private void forgetCursor() {
+		cursor = null;
+	}
+	
 	/**
 	 * Adds a node with element obj at position index.
 	 * 
@@ -154,8 +206,16 @@ public class SinglyLinkedList<E> implements List<E>{
 		// Check index is valid
 		if(index < 0 || index > size)
 			throw new IndexOutOfBoundsException();
+		// Adding at the end is the same as add(obj)
+		if(index == size) {
+			add(obj);
+			return;
+		}
 		// Create the node to be added
 		Node<E> newNode = new Node<E>(obj);
+		// The positions from index on move one place, so a cursor there is no longer valid
+		if(cursor != null && cursor.index >= index)
+			forgetCursor();
 		// If index is 0 that means this element will be the new head node
 		if(index == 0) {
 			// The next of this node is the current head
@@ -204,6 +264,7 @@ public class SinglyLinkedList<E> implements List<E>{
 
 		}
 		this.size++;
+		modCount++;
 	}
 
 	/**
@@ -247,8 +308,11 @@ public class SinglyLinkedList<E> implements List<E>{
 	@Override
 	public boolean remove(int index) {
 		// Check index is valid
-		if(index < 0 || index > size)
+		if(index < 0 || index >= size)
 			throw new IndexOutOfBoundsException();
+		// The positions from index on move one place, so a cursor there is no longer valid
+		if(cursor != null && cursor.index >= index)
+			forgetCursor();
 		// If it's the first node
 		if(index == 0) {
 			// Get the node to be removed
@@ -258,6 +322,9 @@ public class SinglyLinkedList<E> implements List<E>{
 			 * Notice this still works if there is only one node. 
 			 */
 			this.head = this.head.getNext();
+			// If it was also the last node the list is now empty
+			if(holdNode == tail)
+				tail = null;
 			// Help gc
 			holdNode.clear();
 		}
@@ -284,10 +351,14 @@ public class SinglyLinkedList<E> implements List<E>{
 			Node<E> nodeToRemove = previousNode.getNext();
 			// Update references
 			previousNode.setNext(nodeToRemove.getNext());
+			// If we removed the last node, the one before it is the new last node
+			if(nodeToRemove == tail)
+				tail = previousNode;
 			// Help GC
 			nodeToRemove.clear();
 		}
 		size--;
+		modCount++;
 		return true;
 	}
 
@@ -357,7 +428,10 @@ public class SinglyLinkedList<E> implements List<E>{
 		while(!isEmpty()) remove(0);
 		// Reset values for empty list
 		size = 0;
-		head = null;		
+		modCount++;
+		head = null;
+		tail = null;
+		forgetCursor();
 	}
 
 	/**
@@ -370,6 +444,8 @@ public class SinglyLinkedList<E> implements List<E>{
 	public int removeAll(E obj) {
 		// counter
 		int count = 0;
+		// Positions may move, forget the cursor
+		forgetCursor();
 		// Nodes we need for removing. Reference to the previous node and the current node
 		Node<E> previousNode = null;
 		Node<E> currentNode = head;
@@ -388,10 +464,14 @@ public class SinglyLinkedList<E> implements List<E>{
 					Node<E> holdNode = currentNode;
 					// Update references
 					previousNode.setNext(currentNode.getNext());
+					// If we removed the last node, the previous one is the new last node
+					if(currentNode == tail)
+						tail = previousNode;
 					currentNode = currentNode.getNext();
 					holdNode.clear();
 					// Need to decrease size as we remove a node
 					size--;
+					modCount++;
 				}
 				count++;
 			}
@@ -452,7 +532,96 @@ public class SinglyLinkedList<E> implements List<E>{
 	public E last() {
 		if(this.isEmpty())
 			throw new NoSuchElementException();
-		return this.get(size-1);
+		return this.tail.getElement();
+	}
+
+	/**
+	 * Sorts the List with the order given by the comparator. Equal elements keep their order.
+	 * 
+	 * No node is created or copied, only the references change (natural merge sort). The list
+	 * is cut into runs, nodes that are already in order, and the runs are merged like the digits
+	 * of a binary counter: merged[i] holds a chain made of 2^i runs, and a new run is merged with
+	 * merged[0], then with merged[1], and so on while those are taken. Runs are merged while
+	 * their nodes were visited recently, and a list with k runs is merged in about log2(k) rounds,
+	 * so a list that is already sorted is a single run and takes one walk.
+	 * 
+	 * @param c - comparator that decides the order
+	 * @throws IllegalArgumentException if c is null
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	@Override
+	public void sort(Comparator<? super E> c) {
+		if(c == null)
+			throw new IllegalArgumentException("Invalid parameter");
+		// Positions are about to change
+		forgetCursor();
+		modCount++;
+		if(size < 2)
+			return;
+		// Dummy node the merges link the chains after
+		Node<E> start = new Node<E>();
+		Node<E>[] merged = (Node<E>[]) new SinglyLinkedList.Node[32];
+		Node<E> rest = head;
+		while(rest != null) {
+			// Cut the next run out of the rest of the list
+			Node<E> run = rest;
+			Node<E> runLast = runEnd(run, c);
+			rest = runLast.getNext();
+			runLast.setNext(null);
+			// Merge it with the chains that hold the runs before it, like carrying in a sum
+			int i = 0;
+			while(merged[i] != null && i < merged.length - 1) {
+				run = merge(merged[i], run, start, c);
+				merged[i] = null;
+				i++;
+			}
+			merged[i] = merged[i] == null ? run : merge(merged[i], run, start, c);
+		}
+		// The higher chains hold the older runs, so they go first
+		Node<E> sorted = null;
+		for(Node<E> chain : merged) {
+			if(chain != null)
+				sorted = sorted == null ? chain : merge(chain, sorted, start, c);
+		}
+		head = sorted;
+		// Find the new last node
+		Node<E> last = sorted;
+		while(last.getNext() != null)
+			last = last.getNext();
+		tail = last;
+		start.clear();
+	}
+	
+	/**
+	 * Returns the last node of the run that starts at node, the nodes that are in order from node on.
+	 */
+	private Node<E> runEnd(Node<E> node, Comparator<? super E> c) {
+		while(node.getNext() != null && c.compare(node.getNext().getElement(), node.getElement()) >= 0)
+			node = node.getNext();
+		return node;
+	}
+	
+	/**
+	 * Merges the sorted chains starting at first and second into one, linking it after start.
+	 * On ties the node of first goes first, which keeps the sort stable.
+	 * @return the first node of the merged chain
+	 */
+	private Node<E> merge(Node<E> first, Node<E> second, Node<E> start, Comparator<? super E> c) {
+		Node<E> last = start;
+		while(first != null && second != null) {
+			if(c.compare(second.getElement(), first.getElement()) < 0) {
+				last.setNext(second);
+				second = second.getNext();
+			}
+			else {
+				last.setNext(first);
+				first = first.getNext();
+			}
+			last = last.getNext();
+		}
+		// One chain is used up, the other is already in order
+		last.setNext(first != null ? first : second);
+		return start.getNext();
 	}
 	/**
 	 * Returns a String version of the SinglyLinkedList. 
@@ -490,22 +659,28 @@ public class SinglyLinkedList<E> implements List<E>{
 	 * @param <E>
 	 */
 	private class LinkedListIterator<E> implements Iterator<E> {
-		// For keeping track of the current node of the list
+		// For keeping track of the current node of the list and its position
 		private Node<E> currentNode;
+		private int currentPosition;
+		// modCount when the iterator was created, if it changes the list was modified
+		private int expectedModCount;
 		
 		@SuppressWarnings("unchecked")
 		public LinkedListIterator() {
 			// We start at the head node
 			currentNode = (Node<E>) head;
+			currentPosition = 0;
+			expectedModCount = modCount;
 		}
 
 		/**
-		 * Checks if we can still move in the list
+		 * Checks if we can still move in the list. This is done with the position, like in
+		 * ArrayList, so an element added during the last next() is not missed silently.
 		 */
 		@Override
 		public boolean hasNext() {
-			// Check if we reached the final node of the list
-			return currentNode != null;
+			// There is a next value if the current position is smaller than the current size
+			return currentPosition < size;
 		}
 
 		/**
@@ -513,10 +688,16 @@ public class SinglyLinkedList<E> implements List<E>{
 		 */
 		@Override
 		public E next() {
+			// The list changed since the iterator was created
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if(!hasNext())
+				throw new NoSuchElementException();
 			// Get the current value
 			E value = currentNode.getElement();
 			// Move to next node
 			currentNode = currentNode.getNext();
+			currentPosition++;
 			return value;
 		}
 		
@@ -0,0 +1,77 @@
+package interfaces;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Interface that describes the behavior of an indexed min priority queue.
+ *
+ * Every entry is identified by an integer index between 0 and capacity - 1 and holds
+ * an integer key (its priority). Unlike a regular priority queue, the key of an entry
+ * that is already in the queue can be lowered in place, which is what Dijkstra's
+ * algorithm needs when it finds a shorter route to a station it has not visited yet.
+ *
+ */
+public interface IndexedPriorityQueue {
+	/**
+	 * Returns how many entries are in the queue
+	 * @return (int) Number of entries in the queue
+	 */
+	public int size();
+	/**
+	 * Checks whether the queue is empty, true if it is, false otherwise
+	 * @return (boolean) whether the queue is empty
+	 */
+	public boolean isEmpty();
+	/**
+	 * Checks whether the entry with the given index is currently in the queue
+	 * @param index - index of the entry
+	 * @return (boolean) True if the entry is in the queue, false otherwise
+	 * @throws IndexOutOfBoundsException if the index is not valid
+	 */
+	public boolean contains(int index);
+	/**
+	 * Inserts a new entry with the given index and key
+	 * @param index - index of the entry
+	 * @param key - priority of the entry, smaller keys leave the queue first
+	 * @throws IndexOutOfBoundsException if the index is not valid
+	 * @throws IllegalArgumentException if the index is already in the queue
+	 */
+	public void insert(int index, int key);
+	/**
+	 * Lowers the key of an entry that is already in the queue
+	 * @param index - index of the entry
+	 * @param key - the new key, must not be greater than the current one
+	 * @throws NoSuchElementException if the index is not in the queue
+	 * @throws IllegalArgumentException if the new key is greater than the current one
+	 */
+	public void decreaseKey(int index, int key);
+	/**
+	 * Returns the key of an entry that is in the queue
+	 * @param index - index of the entry
+	 * @return (int) key of the entry
+	 * @throws NoSuchElementException if the index is not in the queue
+	 */
+	public int keyOf(int index);
+	/**
+	 * Returns the index of the entry with the smallest key
+	 * @return (int) index at the front of the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int minIndex();
+	/**
+	 * Returns the smallest key in the queue
+	 * @return (int) key at the front of the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int minKey();
+	/**
+	 * Removes the entry with the smallest key and returns its index
+	 * @return (int) index of the removed entry
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int extractMin();
+	/**
+	 * Removes every entry from the queue
+	 */
+	public void clear();
+}
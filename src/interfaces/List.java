@@ -1,5 +1,12 @@
 package interfaces;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Interface that describes the behavior of a List.
  * 
@@ -113,4 +120,52 @@ public interface List<E> extends Iterable<E> {
 	 */
 	public E last();
 	
+	/**
+	 * Sorts the List with the order given by the comparator. Equal elements keep their order.
+	 * The version here copies the elements into an array, sorts it and writes them back with set();
+	 * the Lists in data_structures override it with a sort suited to how they store the elements.
+	 * @param c - comparator that decides the order
+	 * @throws IllegalArgumentException if c is null
+	 */
+	@SuppressWarnings("unchecked")
+	public default void sort(Comparator<? super E> c) {
+		if(c == null)
+			throw new IllegalArgumentException("Invalid parameter");
+		Object[] elements = new Object[size()];
+		int i = 0;
+		for(E e : this)
+			elements[i++] = e;
+		Arrays.sort((E[]) elements, c);
+		for(i = 0; i < elements.length; i++)
+			set(i, (E) elements[i]);
+	}
+	
+	/**
+	 * Returns a Spliterator over the elements in order, which is what stream() and parallelStream() use.
+	 * The version here knows the size of the List and splits by copying the next elements of the
+	 * iterator into arrays; Lists that can split their own storage override it.
+	 * @return (Spliterator) Spliterator over the elements of the List
+	 */
+	@Override
+	public default Spliterator<E> spliterator() {
+		return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+	}
+	
+	/**
+	 * Returns a sequential stream of the elements in order.
+	 * @return (Stream) stream of the elements of the List
+	 */
+	public default Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Returns a stream of the elements that may be processed by several threads.
+	 * The List must not be changed until the stream is done.
+	 * @return (Stream) parallel stream of the elements of the List
+	 */
+	public default Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
 }
@@ -1,6 +1,9 @@
 package interfaces;
 
 import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 /**
  * 
  * @author Fernando J Bermudez (bermed28)
@@ -17,4 +20,126 @@ public interface Map<K,V> {
 	public List<K> getKeys();
 	public List<V> getValues();
 	public void print(PrintStream out);
-}
\ No newline at end of file
+
+	/*
+	 * Views of the map: unlike getKeys() and getValues() they copy nothing, every iteration walks
+	 * the map as it is at that moment. keys(), values() and entries() visit the keys in the same
+	 * order. The map must not be changed while one of its views is being iterated (updating the
+	 * value of a key that is already present is fine), and the iterators do not support remove().
+	 * Each view can also be processed with stream() or parallelStream(); a parallel stream only
+	 * reads the map, so it is safe as long as nothing changes the map until it is done.
+	 */
+
+	/**
+	 * @return a view of the keys of the map
+	 */
+	public default View<K> keys() {
+		return () -> new Iterator<K>() {
+			private final Iterator<Entry<K,V>> entries = entries().iterator();
+			public boolean hasNext() {return entries.hasNext();}
+			public K next() {return entries.next().getKey();}
+		};
+	}
+
+	/**
+	 * @return a view of the values of the map, in the same order as keys()
+	 */
+	public default View<V> values() {
+		return () -> new Iterator<V>() {
+			private final Iterator<Entry<K,V>> entries = entries().iterator();
+			public boolean hasNext() {return entries.hasNext();}
+			public V next() {return entries.next().getValue();}
+		};
+	}
+
+	/**
+	 * Returns a view of the key-value pairs of the map. An entry is only valid until the iterator
+	 * moves to the next one, since a map may reuse the same Entry object for all of them; keep its
+	 * key and value instead of the entry itself.
+	 * <p>
+	 * The version here walks getKeys() and looks every key up; the maps in data_structures
+	 * override it to walk their own storage.
+	 * @return a view of the entries of the map
+	 */
+	public default View<Entry<K,V>> entries() {
+		return () -> new Iterator<Entry<K,V>>() {
+			private final Iterator<K> keys = getKeys().iterator();
+			public boolean hasNext() {return keys.hasNext();}
+			public Entry<K,V> next() {
+				K key = keys.next();
+				V value = get(key);
+				return new Entry<K,V>() {
+					public K getKey() {return key;}
+					public V getValue() {return value;}
+				};
+			}
+		};
+	}
+
+	/*
+	 * The operations below read and write a key in one call. The versions here are written with
+	 * get, put and remove, so they look the key up more than once; the maps in data_structures
+	 * override them to find the key only once. Like get, they use null to mean "no value" since
+	 * maps do not hold null values. The functions must not change the map.
+	 */
+
+	/**
+	 * Returns the value of the key, or defaultValue if the key is not present.
+	 */
+	public default V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Adds the key with the value only if the key is not present.
+	 * @return the value the key already had, or null if the value was added
+	 */
+	public default V putIfAbsent(K key, V value) {
+		V current = get(key);
+		if(current == null) put(key, value);
+		return current;
+	}
+
+	/**
+	 * Returns the value of the key, first adding the value mappingFunction gives for it if the
+	 * key is not present. Nothing is added if mappingFunction returns null.
+	 * @return the current value of the key, null if it is still not present
+	 */
+	public default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if(mappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		V current = get(key);
+		if(current != null) return current;
+		V value = mappingFunction.apply(key);
+		if(value != null) put(key, value);
+		return value;
+	}
+
+	/**
+	 * Replaces the value of the key with what remappingFunction gives for the key and its current
+	 * value (null if the key is not present). The key is removed if remappingFunction returns null.
+	 * @return the new value of the key, or null if it is not present anymore
+	 */
+	public default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if(remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		V value = remappingFunction.apply(key, get(key));
+		if(value == null) remove(key);
+		else put(key, value);
+		return value;
+	}
+
+	/**
+	 * Adds the key with the value if it is not present, otherwise replaces its value with what
+	 * remappingFunction gives for the current value and the given one. The key is removed if
+	 * remappingFunction returns null.
+	 * @return the new value of the key, or null if it is not present anymore
+	 */
+	public default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if(value == null || remappingFunction == null) throw new IllegalArgumentException("Invalid parameters");
+		V current = get(key);
+		V result = current == null ? value : remappingFunction.apply(current, value);
+		if(result == null) remove(key);
+		else put(key, result);
+		return result;
+	}
+}
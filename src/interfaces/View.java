@@ -0,0 +1,32 @@
+package interfaces;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Elements of a collection that can be walked with a for-each loop or processed with a stream,
+ * like the keys, values and entries of a Map.
+ * <p>
+ * The streams are built on spliterator(). The one inherited from Iterable does not know how many
+ * elements there are and splits by copying the next elements into arrays; collections that can
+ * split their own storage override it.
+ *
+ * @param <E>
+ */
+public interface View<E> extends Iterable<E> {
+
+	/**
+	 * @return a sequential stream of the elements
+	 */
+	public default Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a stream of the elements that may be processed by several threads
+	 */
+	public default Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+}
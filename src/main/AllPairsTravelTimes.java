@@ -0,0 +1,174 @@
+package main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data_structures.ArrayDeque;
+import data_structures.IndexedMinHeap;
+import interfaces.Stack;
+
+/**
+ * Class that precomputes the shortest distance, travel time and route between every pair
+ * of stations of a `StationGraph`.
+ * <p>
+ * One single-source search is run per station. The origins are split in ranges that run in
+ * parallel on a `ForkJoinPool`; each worker reuses one heap and one set of scratch arrays for
+ * all the origins of its range and copies each result into its row of the matrices, so the
+ * workers never share anything they write to and the work scales with the number of cores.
+ * <p>
+ * The results are stored in flat row-major arrays of n * n entries: `distances` (int),
+ * `travelTimes` (float) and `predecessors` (int), where the entry origin * n + station belongs
+ * to the route from origin to station. The predecessor rows let traceRoute() rebuild the route
+ * between any pair. Because the matrices hold n * n entries, this mode is meant for networks
+ * of up to a few thousand stations; at most 46340 stations fit in an int-indexed array.
+ */
+public class AllPairsTravelTimes {
+
+	/* Amount of origins a worker runs without splitting its range any further */
+	private static final int ORIGINS_PER_TASK = 8;
+	private static final int MAX_STATIONS = 46340;
+
+	private StationGraph graph;
+	private int n;
+	private int[] distances;
+	private float[] travelTimes;
+	private int[] predecessors;
+
+	/**
+	 * Constructor that computes every pair using the common ForkJoinPool.
+	 * <p>
+	 * @param graph which represents the network to compute
+	 */
+	public AllPairsTravelTimes(StationGraph graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor that computes every pair on the given pool.
+	 * <p>
+	 * @param graph which represents the network to compute
+	 * @param pool which represents the pool the searches run on
+	 */
+	public AllPairsTravelTimes(StationGraph graph, ForkJoinPool pool) {
+		if(graph.size() > MAX_STATIONS)
+			throw new IllegalArgumentException("Too many stations for an all-pairs matrix: " + graph.size());
+		this.graph = graph;
+		this.n = graph.size();
+		this.distances = new int[n * n];
+		this.travelTimes = new float[n * n];
+		this.predecessors = new int[n * n];
+		pool.invoke(new OriginRange(0, n));
+	}
+
+	/**
+	 * Method that gives the amount of stations in the matrix.
+	 * <p>
+	 * @return the number of stations
+	 */
+	public int size() {
+		return this.n;
+	}
+
+	/**
+	 * Method that gives the shortest distance between two stations.
+	 * <p>
+	 * @param origin which represents the station the route starts from
+	 * @param stationName which represents the station the route ends at
+	 * @return the shortest distance or Integer.MAX_VALUE if the station cannot be reached
+	 */
+	public int getDistance(String origin, String stationName) {
+		return this.distances[entry(origin, stationName)];
+	}
+
+	/**
+	 * Method that gives the travel time between two stations, using 2.5 minutes per kilometer
+	 * and 15 minutes per station between them.
+	 * <p>
+	 * @param origin which represents the station the route starts from
+	 * @param stationName which represents the station the route ends at
+	 * @return the travel time in minutes
+	 */
+	public double getTravelTime(String origin, String stationName) {
+		return this.travelTimes[entry(origin, stationName)];
+	}
+
+	/**
+	 * Returns the path between the two stations given.
+	 * The format is as follows: origin->stationA->.....stationZ->stationName
+	 * <p>
+	 * @param origin - Name of the station the route starts from
+	 * @param stationName - Name of the station whose route we want to trace
+	 * @return (String) String representation of the path taken to reach stationName.
+	 */
+	public String traceRoute(String origin, String stationName) {
+		int from = idOf(origin);
+		int station = idOf(stationName);
+		int row = from * n;
+
+		Stack<String> trace = new ArrayDeque<String>();
+		trace.push(stationName);
+		while(station != from) {
+			station = this.predecessors[row + station];
+			trace.push(this.graph.nameOf(station));
+		}
+
+		StringBuilder route = new StringBuilder(trace.pop());
+		while(!trace.isEmpty()) {
+			route.append("->").append(trace.pop());
+		}
+		return route.toString();
+	}
+
+	private int entry(String origin, String stationName) {
+		return idOf(origin) * n + idOf(stationName);
+	}
+
+	private int idOf(String name) {
+		int id = this.graph.idOf(name);
+		if(id == -1)
+			throw new IllegalArgumentException("Unknown station: " + name);
+		return id;
+	}
+
+	/**
+	 * Task that computes the rows of a range of origins, splitting the range in two while
+	 * it has more than ORIGINS_PER_TASK origins.
+	 */
+	private class OriginRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int from;
+		private int to;
+
+		public OriginRange(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from > ORIGINS_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new OriginRange(from, middle), new OriginRange(middle, to));
+				return;
+			}
+			int[] dist = new int[n];
+			int[] pred = new int[n];
+			int[] hops = new int[n];
+			IndexedMinHeap toVisit = new IndexedMinHeap(n);
+			for(int origin = from; origin < to; origin++) {
+				graph.findShortestDistance(origin, dist, pred, hops, toVisit);
+				int row = origin * n;
+				System.arraycopy(dist, 0, distances, row, n);
+				System.arraycopy(pred, 0, predecessors, row, n);
+				for(int i = 0; i < n; i++) {
+					// 2.5 minutes per kilometer and 15 minutes per station in between
+					double time = dist[i] * 2.5;
+					if(i != origin && dist[i] != Integer.MAX_VALUE)
+						time += 15 * (hops[i] - 1);
+					travelTimes[row + i] = (float) time;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+package main;
+
+import data_structures.ArrayDeque;
+import data_structures.ArrayList;
+import data_structures.IndexedMinHeap;
+import interfaces.IndexedPriorityQueue;
+import interfaces.List;
+import interfaces.Stack;
+
+/**
+ * Class that answers route queries between two stations with a bidirectional Dijkstra search.
+ * <p>
+ * One search grows forward from the origin on the `StationGraph` and another grows backward
+ * from the destination on its reverse graph, always expanding the side with the smaller queue.
+ * Every time a connection reaches a station the other side has already reached, the route
+ * through that station is a candidate, and the best candidate (mu) is kept. The search stops
+ * as soon as the smallest keys of both queues add up to mu or more, because no route that is
+ * still unexplored can be shorter. On a network where the two stations are close, that settles
+ * only a small part of the stations instead of the whole shortest route tree.
+ * <p>
+ * The router keeps its arrays and queues between queries. Distances start as Integer.MAX_VALUE
+ * and only the entries a query touched are reset afterwards, so a query costs time proportional
+ * to the stations it reached, not to the size of the network. Because of that shared state a
+ * router must not be used by more than one thread at a time; fork() gives another thread a
+ * router on the same graphs.
+ */
+public class BidirectionalRouter implements Router {
+
+	private StationGraph forward;
+	private StationGraph backward;
+	private int[] distForward;
+	private int[] distBackward;
+	// predForward[v] is the station before v, predBackward[v] is the station after v
+	private int[] predForward;
+	private int[] predBackward;
+	private IndexedPriorityQueue queueForward;
+	private IndexedPriorityQueue queueBackward;
+	// Stations whose distance was set by the current query
+	private int[] touched;
+	private int touchedCount;
+
+	/**
+	 * Constructor that prepares a router for the given network.
+	 * <p>
+	 * @param graph which represents the network to search
+	 */
+	public BidirectionalRouter(StationGraph graph) {
+		this(graph, graph.reverse());
+	}
+
+	private BidirectionalRouter(StationGraph forward, StationGraph backward) {
+		int n = forward.size();
+		this.forward = forward;
+		this.backward = backward;
+		this.distForward = new int[n];
+		this.distBackward = new int[n];
+		this.predForward = new int[n];
+		this.predBackward = new int[n];
+		this.queueForward = new IndexedMinHeap(n);
+		this.queueBackward = new IndexedMinHeap(n);
+		this.touched = new int[n];
+		this.touchedCount = 0;
+		for(int i = 0; i < n; i++) {
+			this.distForward[i] = Integer.MAX_VALUE;
+			this.distBackward[i] = Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Method that gives a router on the same graph and reverse graph with arrays of its own.
+	 * <p>
+	 * @return the new router
+	 */
+	@Override
+	public Router fork() {
+		return new BidirectionalRouter(this.forward, this.backward);
+	}
+
+	/**
+	 * Method that finds the shortest route between two stations.
+	 * <p>
+	 * @param origin which represents the name of the station the route starts from
+	 * @param destination which represents the name of the station the route ends at
+	 * @return the route, with its distance, travel time, stations and settled count
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	@Override
+	public Route route(String origin, String destination) {
+		int source = idOf(origin);
+		int target = idOf(destination);
+
+		touch(source);
+		distForward[source] = 0;
+		queueForward.insert(source, 0);
+		touch(target);
+		distBackward[target] = 0;
+		queueBackward.insert(target, 0);
+
+		long best = source == target ? 0 : Long.MAX_VALUE; // mu
+		int meeting = source == target ? source : -1;
+		int settled = 0;
+
+		while(!queueForward.isEmpty() && !queueBackward.isEmpty()) {
+			if((long) queueForward.minKey() + queueBackward.minKey() >= best)
+				break;
+
+			/* Expands the side with fewer stations waiting */
+			boolean expandForward = queueForward.size() <= queueBackward.size();
+			StationGraph graph = expandForward ? forward : backward;
+			IndexedPriorityQueue queue = expandForward ? queueForward : queueBackward;
+			int[] dist = expandForward ? distForward : distBackward;
+			int[] pred = expandForward ? predForward : predBackward;
+			int[] otherDist = expandForward ? distBackward : distForward;
+
+			int current = queue.extractMin();
+			settled++;
+			int end = graph.endConnection(current);
+			for(int e = graph.firstConnection(current); e < end; e++) {
+				int neighbor = graph.target(e);
+				int addition = dist[current] + graph.weight(e);
+				if(addition < dist[neighbor]) {
+					touch(neighbor);
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					if(queue.contains(neighbor)) {
+						queue.decreaseKey(neighbor, addition);
+					} else {
+						queue.insert(neighbor, addition);
+					}
+				}
+				/* A station reached by both sides closes a candidate route */
+				if(otherDist[neighbor] != Integer.MAX_VALUE && (long) dist[neighbor] + otherDist[neighbor] < best) {
+					best = (long) dist[neighbor] + otherDist[neighbor];
+					meeting = neighbor;
+				}
+			}
+		}
+
+		Route result = buildRoute(origin, destination, source, target, meeting, best, settled);
+		reset();
+		return result;
+	}
+
+	/**
+	 * Joins the forward half of the route (origin to meeting station) and the backward half
+	 * (meeting station to destination).
+	 */
+	private Route buildRoute(String origin, String destination, int source, int target, int meeting, long best, int settled) {
+		List<String> stations = new ArrayList<>();
+		if(meeting == -1)
+			return new Route(origin, destination, Integer.MAX_VALUE, Integer.MAX_VALUE * 2.5, stations, settled);
+
+		Stack<String> firstHalf = new ArrayDeque<String>();
+		for(int station = meeting; station != source; station = predForward[station])
+			firstHalf.push(forward.nameOf(station));
+		stations.add(origin);
+		while(!firstHalf.isEmpty())
+			stations.add(firstHalf.pop());
+		for(int station = meeting; station != target; ) {
+			station = predBackward[station];
+			stations.add(forward.nameOf(station));
+		}
+
+		// 2.5 minutes per kilometer and 15 minutes per station between origin and destination
+		double travelTime = best * 2.5 + 15 * Math.max(stations.size() - 2, 0);
+		return new Route(origin, destination, (int) best, travelTime, stations, settled);
+	}
+
+	private void touch(int station) {
+		if(distForward[station] == Integer.MAX_VALUE && distBackward[station] == Integer.MAX_VALUE)
+			touched[touchedCount++] = station;
+	}
+
+	/**
+	 * Puts back the entries touched by the last query so the next one starts clean.
+	 */
+	private void reset() {
+		for(int i = 0; i < touchedCount; i++) {
+			distForward[touched[i]] = Integer.MAX_VALUE;
+			distBackward[touched[i]] = Integer.MAX_VALUE;
+		}
+		touchedCount = 0;
+		queueForward.clear();
+		queueBackward.clear();
+	}
+
+	private int idOf(String name) {
+		int id = this.forward.idOf(name);
+		if(id == -1)
+			throw new IllegalArgumentException("Unknown station: " + name);
+		return id;
+	}
+
+}
@@ -0,0 +1,143 @@
+package main;
+
+import java.util.Arrays;
+
+import data_structures.MapType;
+import data_structures.MurmurHashFunction;
+import interfaces.Map;
+
+/**
+ * Class that collects the connections of a network before they are packed into a
+ * `StationGraph`.
+ * <p>
+ * Station names are interned to dense integer ids the first time they are seen, in
+ * order of appearance, and every directed connection is appended to three growable
+ * parallel arrays (source id, target id and distance). Appending a connection only
+ * writes three ints, so the buffer can take millions of connections without creating
+ * an object per connection.
+ */
+public class ConnectionBuffer {
+
+	private static final int DEFAULT_STATIONS = 1024;
+	private static final int DEFAULT_CONNECTIONS = 16;
+
+	private String[] names;
+	private int stationCount;
+	private Map<String, Integer> ids;
+	private int[] from;
+	private int[] to;
+	private int[] distance;
+	private int size;
+
+	/**
+	 * Constructor that creates an empty buffer sized for a small network.
+	 */
+	public ConnectionBuffer() {
+		this(DEFAULT_STATIONS, DEFAULT_CONNECTIONS);
+	}
+
+	/**
+	 * Constructor that creates an empty buffer sized for the expected network.
+	 * <p>
+	 * @param expectedStations which represents how many stations are expected
+	 * @param expectedConnections which represents how many directed connections are expected
+	 */
+	public ConnectionBuffer(int expectedStations, int expectedConnections) {
+		expectedStations = Math.max(expectedStations, 1);
+		expectedConnections = Math.max(expectedConnections, 1);
+		this.names = new String[expectedStations];
+		this.ids = MapType.configured().create(expectedStations, new MurmurHashFunction<>());
+		this.from = new int[expectedConnections];
+		this.to = new int[expectedConnections];
+		this.distance = new int[expectedConnections];
+		this.stationCount = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Method that gives the id of a station, giving it the next free id if it is new.
+	 * <p>
+	 * @param name of the station
+	 * @return the id of the station
+	 */
+	public int intern(String name) {
+		/* A new name gets the next free id in the same lookup that finds the id of a known one */
+		int id = this.ids.computeIfAbsent(name, key -> this.stationCount);
+		if(id < this.stationCount)
+			return id;
+		if(this.stationCount == this.names.length)
+			this.names = Arrays.copyOf(this.names, this.names.length * 2);
+		this.names[this.stationCount] = name;
+		return this.stationCount++;
+	}
+
+	/**
+	 * Method that appends a directed connection.
+	 * <p>
+	 * @param source which represents the id of the station the connection leaves from
+	 * @param target which represents the id of the station the connection arrives to
+	 * @param dist which represents the distance of the connection
+	 */
+	public void add(int source, int target, int dist) {
+		if(this.size == this.from.length) {
+			int capacity = this.from.length * 2;
+			this.from = Arrays.copyOf(this.from, capacity);
+			this.to = Arrays.copyOf(this.to, capacity);
+			this.distance = Arrays.copyOf(this.distance, capacity);
+		}
+		this.from[this.size] = source;
+		this.to[this.size] = target;
+		this.distance[this.size] = dist;
+		this.size++;
+	}
+
+	/**
+	 * Method that appends a two-way connection between two stations, as it appears in a
+	 * station file.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @param dist which represents the distance of the connection
+	 */
+	public void addConnection(String src_city, String dest_city, int dist) {
+		int source = intern(src_city);
+		int target = intern(dest_city);
+		add(source, target, dist);
+		add(target, source, dist);
+	}
+
+	/**
+	 * Method that gives the amount of stations interned so far.
+	 * <p>
+	 * @return the number of stations
+	 */
+	public int stationCount() {
+		return this.stationCount;
+	}
+
+	/**
+	 * Method that gives the amount of directed connections appended so far.
+	 * <p>
+	 * @return the number of connections
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	String[] names() {
+		return this.names;
+	}
+
+	int[] from() {
+		return this.from;
+	}
+
+	int[] to() {
+		return this.to;
+	}
+
+	int[] distance() {
+		return this.distance;
+	}
+
+}
@@ -0,0 +1,547 @@
+package main;
+
+import java.util.Arrays;
+
+import data_structures.ArrayDeque;
+import data_structures.ArrayList;
+import data_structures.IndexedMinHeap;
+import interfaces.IndexedPriorityQueue;
+import interfaces.List;
+import interfaces.Stack;
+
+/**
+ * Class that preprocesses a `StationGraph` into a contraction hierarchy and answers route
+ * queries on it.
+ * <p>
+ * Preprocessing removes (contracts) the stations one at a time, from the least important to
+ * the most important. When a station v is contracted, every pair of remaining neighbors u and w
+ * whose shortest route goes through v gets a shortcut connection u->w with the length of
+ * u->v->w, so the distances between the remaining stations never change. A local "witness"
+ * search from u, which skips v, decides whether the shortcut is needed. The importance of a
+ * station is its edge difference (shortcuts it would add minus connections it removes) plus how
+ * many of its neighbors were already contracted; it is kept in an `IndexedMinHeap` and checked
+ * again (lazy update) when the station reaches the front of the queue.
+ * <p>
+ * The rank of a station is its position in the contraction order. Every connection, original
+ * or shortcut, is stored once in CSR form: as an upward connection of its lower end when it goes
+ * up in rank, or as a downward connection stored at its lower end when it comes from a higher
+ * station. A query runs a bidirectional Dijkstra search that only follows upward connections on
+ * both sides, so it settles a few hundred stations even on large networks. Shortcuts remember the
+ * station they skip (their middle), which lets the route be unpacked back into the original
+ * stations in the same format traceRoute() produces.
+ * <p>
+ * Like the other routers, it keeps its query arrays between queries and must not be used by
+ * more than one thread at a time. fork() gives another thread a router on the same hierarchy,
+ * with query arrays of its own.
+ */
+public class ContractionHierarchy implements Router {
+
+	/* A witness search gives up after settling this many stations and the shortcut is added */
+	private static final int WITNESS_SETTLE_LIMIT = 64;
+
+	private StationGraph graph;
+	private int[] rank;
+	private int shortcutCount;
+
+	// Upward connections: from u to a station of higher rank, stored at u
+	private int[] upOffsets;
+	private int[] upTargets;
+	private int[] upWeights;
+	private int[] upMiddles;
+	// Downward connections: from a station of higher rank into u, stored at u
+	private int[] downOffsets;
+	private int[] downSources;
+	private int[] downWeights;
+	private int[] downMiddles;
+
+	// Query state, reset after every query
+	private int[] distForward;
+	private int[] distBackward;
+	// predForward[v] is the station before v, predBackward[v] is the station after v
+	private int[] predForward;
+	private int[] predBackward;
+	private IndexedPriorityQueue queueForward;
+	private IndexedPriorityQueue queueBackward;
+	private int[] touched;
+	private int touchedCount;
+
+	// Preprocessing state, dropped once the hierarchy is built. The lists of a station only
+	// hold stations that are not contracted yet, so once it is contracted they hold exactly
+	// its upward and downward connections
+	private EdgeList[] outEdges;
+	private EdgeList[] inEdges;
+	private int[] witnessDist;
+	private int[] witnessTouched;
+	private int witnessTouchedCount;
+	private IndexedPriorityQueue witnessQueue;
+
+	/**
+	 * Constructor that builds the contraction hierarchy of the given network.
+	 * <p>
+	 * @param graph which represents the network to preprocess
+	 */
+	public ContractionHierarchy(StationGraph graph) {
+		this.graph = graph;
+		int n = graph.size();
+		this.rank = new int[n];
+
+		prepareContraction();
+		contractAll();
+		buildSearchGraph();
+
+		/* Drops everything that was only needed while contracting */
+		this.outEdges = null;
+		this.inEdges = null;
+		this.witnessDist = null;
+		this.witnessTouched = null;
+		this.witnessQueue = null;
+
+		allocateQueryState();
+	}
+
+	/* Router of fork(), shares the hierarchy, which queries only read */
+	private ContractionHierarchy(ContractionHierarchy hierarchy) {
+		this.graph = hierarchy.graph;
+		this.rank = hierarchy.rank;
+		this.shortcutCount = hierarchy.shortcutCount;
+		this.upOffsets = hierarchy.upOffsets;
+		this.upTargets = hierarchy.upTargets;
+		this.upWeights = hierarchy.upWeights;
+		this.upMiddles = hierarchy.upMiddles;
+		this.downOffsets = hierarchy.downOffsets;
+		this.downSources = hierarchy.downSources;
+		this.downWeights = hierarchy.downWeights;
+		this.downMiddles = hierarchy.downMiddles;
+		allocateQueryState();
+	}
+
+	private void allocateQueryState() {
+		int n = this.graph.size();
+		this.distForward = new int[n];
+		this.distBackward = new int[n];
+		this.predForward = new int[n];
+		this.predBackward = new int[n];
+		this.queueForward = new IndexedMinHeap(n);
+		this.queueBackward = new IndexedMinHeap(n);
+		this.touched = new int[n];
+		Arrays.fill(this.distForward, Integer.MAX_VALUE);
+		Arrays.fill(this.distBackward, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Method that gives a router on the same hierarchy with query arrays of its own.
+	 * <p>
+	 * @return the new router
+	 */
+	@Override
+	public Router fork() {
+		return new ContractionHierarchy(this);
+	}
+
+	/**
+	 * Method that gives how many shortcut connections the preprocessing added.
+	 * <p>
+	 * @return the number of shortcuts
+	 */
+	public int getShortcutCount() {
+		return this.shortcutCount;
+	}
+
+	/**
+	 * Method that gives the position of a station in the contraction order.
+	 * <p>
+	 * @param name of the station
+	 * @return the rank of the station, 0 is the first one contracted
+	 */
+	public int getRank(String name) {
+		return this.rank[idOf(name)];
+	}
+
+	/**
+	 * Method that finds the shortest route between two stations with an upward bidirectional
+	 * search on the hierarchy.
+	 * <p>
+	 * @param origin which represents the name of the station the route starts from
+	 * @param destination which represents the name of the station the route ends at
+	 * @return the route, with its distance, travel time, stations and settled count
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	@Override
+	public Route route(String origin, String destination) {
+		int source = idOf(origin);
+		int target = idOf(destination);
+
+		touch(source);
+		distForward[source] = 0;
+		queueForward.insert(source, 0);
+		touch(target);
+		distBackward[target] = 0;
+		queueBackward.insert(target, 0);
+
+		long best = Long.MAX_VALUE;
+		int meeting = -1;
+		int settled = 0;
+
+		while(true) {
+			/* A side stops once its smallest key can no longer improve the best route */
+			boolean forward = !queueForward.isEmpty() && queueForward.minKey() < best;
+			boolean backward = !queueBackward.isEmpty() && queueBackward.minKey() < best;
+			if(!forward && !backward)
+				break;
+			boolean expandForward = forward && (!backward || queueForward.size() <= queueBackward.size());
+
+			IndexedPriorityQueue queue = expandForward ? queueForward : queueBackward;
+			int[] dist = expandForward ? distForward : distBackward;
+			int[] pred = expandForward ? predForward : predBackward;
+			int[] offsets = expandForward ? upOffsets : downOffsets;
+			int[] ends = expandForward ? upTargets : downSources;
+			int[] weights = expandForward ? upWeights : downWeights;
+
+			int current = queue.extractMin();
+			settled++;
+			if(distForward[current] != Integer.MAX_VALUE && distBackward[current] != Integer.MAX_VALUE
+					&& (long) distForward[current] + distBackward[current] < best) {
+				best = (long) distForward[current] + distBackward[current];
+				meeting = current;
+			}
+			for(int e = offsets[current]; e < offsets[current + 1]; e++) {
+				int neighbor = ends[e];
+				int addition = dist[current] + weights[e];
+				if(addition < dist[neighbor]) {
+					touch(neighbor);
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					if(queue.contains(neighbor)) {
+						queue.decreaseKey(neighbor, addition);
+					} else {
+						queue.insert(neighbor, addition);
+					}
+				}
+			}
+		}
+
+		Route result = buildRoute(origin, destination, source, target, meeting, best, settled);
+		reset();
+		return result;
+	}
+
+	/**
+	 * Joins both halves of the route at the meeting station and unpacks every shortcut.
+	 */
+	private Route buildRoute(String origin, String destination, int source, int target, int meeting, long best, int settled) {
+		List<String> stations = new ArrayList<>();
+		if(meeting == -1)
+			return new Route(origin, destination, Integer.MAX_VALUE, Integer.MAX_VALUE * 2.5, stations, settled);
+
+		stations.add(origin);
+		Stack<Integer> firstHalf = new ArrayDeque<Integer>();
+		for(int station = meeting; station != source; station = predForward[station])
+			firstHalf.push(station);
+		int previous = source;
+		while(!firstHalf.isEmpty()) {
+			int station = firstHalf.pop();
+			unpack(previous, station, stations);
+			previous = station;
+		}
+		for(int station = meeting; station != target; ) {
+			int next = predBackward[station];
+			unpack(station, next, stations);
+			station = next;
+		}
+
+		// 2.5 minutes per kilometer and 15 minutes per station between origin and destination
+		double travelTime = best * 2.5 + 15 * Math.max(stations.size() - 2, 0);
+		return new Route(origin, destination, (int) best, travelTime, stations, settled);
+	}
+
+	/**
+	 * Adds the stations of the connection from -> to, without from, to the list. Shortcuts are
+	 * replaced by the two connections they skip, recursively.
+	 */
+	private void unpack(int from, int to, List<String> stations) {
+		int middle = middleOf(from, to);
+		if(middle == -1) {
+			stations.add(graph.nameOf(to));
+		} else {
+			unpack(from, middle, stations);
+			unpack(middle, to, stations);
+		}
+	}
+
+	/**
+	 * Finds the station skipped by the connection from -> to, -1 if it is an original connection.
+	 */
+	private int middleOf(int from, int to) {
+		if(rank[to] > rank[from]) {
+			for(int e = upOffsets[from]; e < upOffsets[from + 1]; e++)
+				if(upTargets[e] == to)
+					return upMiddles[e];
+		} else {
+			for(int e = downOffsets[to]; e < downOffsets[to + 1]; e++)
+				if(downSources[e] == from)
+					return downMiddles[e];
+		}
+		throw new IllegalStateException("Missing connection in hierarchy");
+	}
+
+	private void touch(int station) {
+		if(distForward[station] == Integer.MAX_VALUE && distBackward[station] == Integer.MAX_VALUE)
+			touched[touchedCount++] = station;
+	}
+
+	/**
+	 * Puts back the entries touched by the last query so the next one starts clean.
+	 */
+	private void reset() {
+		for(int i = 0; i < touchedCount; i++) {
+			distForward[touched[i]] = Integer.MAX_VALUE;
+			distBackward[touched[i]] = Integer.MAX_VALUE;
+		}
+		touchedCount = 0;
+		queueForward.clear();
+		queueBackward.clear();
+	}
+
+	private int idOf(String name) {
+		int id = this.graph.idOf(name);
+		if(id == -1)
+			throw new IllegalArgumentException("Unknown station: " + name);
+		return id;
+	}
+
+	/* ---------------------------- Preprocessing ---------------------------- */
+
+	/**
+	 * Copies the graph into per-station connection lists that can take shortcuts.
+	 */
+	private void prepareContraction() {
+		int n = graph.size();
+		this.outEdges = new EdgeList[n];
+		this.inEdges = new EdgeList[n];
+		for(int u = 0; u < n; u++) {
+			this.outEdges[u] = new EdgeList();
+			this.inEdges[u] = new EdgeList();
+		}
+		for(int u = 0; u < n; u++) {
+			for(int e = graph.firstConnection(u); e < graph.endConnection(u); e++) {
+				int v = graph.target(e);
+				if(v == u)
+					continue;
+				this.outEdges[u].put(v, graph.weight(e), -1);
+				this.inEdges[v].put(u, graph.weight(e), -1);
+			}
+		}
+		this.witnessDist = new int[n];
+		Arrays.fill(this.witnessDist, Integer.MAX_VALUE);
+		this.witnessTouched = new int[n];
+		this.witnessQueue = new IndexedMinHeap(n);
+	}
+
+	/**
+	 * Contracts every station in order of importance, updating the importance lazily.
+	 */
+	private void contractAll() {
+		int n = graph.size();
+		int[] deletedNeighbors = new int[n];
+		IndexedPriorityQueue order = new IndexedMinHeap(n);
+		for(int v = 0; v < n; v++)
+			order.insert(v, priority(v, deletedNeighbors));
+
+		int next = 0;
+		while(!order.isEmpty()) {
+			int v = order.extractMin();
+			/* Lazy update: if the station became less important, it goes back in line */
+			int current = priority(v, deletedNeighbors);
+			if(!order.isEmpty() && current > order.minKey()) {
+				order.insert(v, current);
+				continue;
+			}
+
+			this.shortcutCount += contract(v, false);
+			this.rank[v] = next++;
+			detach(v);
+
+			/* Neighbors lose a connection, which can make them less important to keep */
+			for(EdgeList edges : new EdgeList[] {outEdges[v], inEdges[v]}) {
+				for(int i = 0; i < edges.size; i++) {
+					int neighbor = edges.node[i];
+					if(!order.contains(neighbor))
+						continue;
+					deletedNeighbors[neighbor]++;
+					int updated = priority(neighbor, deletedNeighbors);
+					if(updated < order.keyOf(neighbor))
+						order.decreaseKey(neighbor, updated);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Importance of a station: shortcuts it would add minus connections it would remove,
+	 * plus how many of its neighbors are already contracted.
+	 */
+	private int priority(int v, int[] deletedNeighbors) {
+		int removed = outEdges[v].size + inEdges[v].size;
+		return contract(v, true) - removed + deletedNeighbors[v];
+	}
+
+	/**
+	 * Removes a contracted station from the lists of its neighbors, its own lists are kept
+	 * as its connections in the hierarchy.
+	 */
+	private void detach(int v) {
+		for(int i = 0; i < outEdges[v].size; i++)
+			inEdges[outEdges[v].node[i]].remove(v);
+		for(int i = 0; i < inEdges[v].size; i++)
+			outEdges[inEdges[v].node[i]].remove(v);
+	}
+
+	/**
+	 * Finds the shortcuts needed to contract v and adds them unless simulate is true.
+	 * @return the number of shortcuts needed
+	 */
+	private int contract(int v, boolean simulate) {
+		EdgeList in = inEdges[v];
+		EdgeList out = outEdges[v];
+		int maxOut = 0;
+		for(int j = 0; j < out.size; j++)
+			maxOut = Math.max(maxOut, out.weight[j]);
+
+		int shortcuts = 0;
+		for(int i = 0; i < in.size; i++) {
+			int u = in.node[i];
+			int weightIn = in.weight[i];
+			witnessSearch(u, v, weightIn + maxOut);
+			for(int j = 0; j < out.size; j++) {
+				int w = out.node[j];
+				if(w == u)
+					continue;
+				int via = weightIn + out.weight[j];
+				if(witnessDist[w] > via) {
+					shortcuts++;
+					if(!simulate) {
+						outEdges[u].put(w, via, v);
+						inEdges[w].put(u, via, v);
+					}
+				}
+			}
+			resetWitness();
+		}
+		return shortcuts;
+	}
+
+	/**
+	 * Dijkstra search from source over the stations that are not contracted yet, skipping the
+	 * station being contracted, up to maxDist or WITNESS_SETTLE_LIMIT settled stations.
+	 */
+	private void witnessSearch(int source, int skip, int maxDist) {
+		witnessDist[source] = 0;
+		witnessTouched[witnessTouchedCount++] = source;
+		witnessQueue.insert(source, 0);
+		int settled = 0;
+		while(!witnessQueue.isEmpty() && witnessQueue.minKey() <= maxDist && settled < WITNESS_SETTLE_LIMIT) {
+			int u = witnessQueue.extractMin();
+			settled++;
+			EdgeList out = outEdges[u];
+			for(int i = 0; i < out.size; i++) {
+				int w = out.node[i];
+				if(w == skip)
+					continue;
+				int addition = witnessDist[u] + out.weight[i];
+				if(addition < witnessDist[w]) {
+					if(witnessDist[w] == Integer.MAX_VALUE)
+						witnessTouched[witnessTouchedCount++] = w;
+					witnessDist[w] = addition;
+					if(witnessQueue.contains(w)) {
+						witnessQueue.decreaseKey(w, addition);
+					} else {
+						witnessQueue.insert(w, addition);
+					}
+				}
+			}
+		}
+	}
+
+	private void resetWitness() {
+		for(int i = 0; i < witnessTouchedCount; i++)
+			witnessDist[witnessTouched[i]] = Integer.MAX_VALUE;
+		witnessTouchedCount = 0;
+		witnessQueue.clear();
+	}
+
+	/**
+	 * Packs the upward and downward connections left in the lists of every contracted
+	 * station into CSR arrays.
+	 */
+	private void buildSearchGraph() {
+		int n = graph.size();
+		this.upOffsets = new int[n + 1];
+		this.downOffsets = new int[n + 1];
+		for(int u = 0; u < n; u++) {
+			upOffsets[u + 1] = upOffsets[u] + outEdges[u].size;
+			downOffsets[u + 1] = downOffsets[u] + inEdges[u].size;
+		}
+		this.upTargets = new int[upOffsets[n]];
+		this.upWeights = new int[upOffsets[n]];
+		this.upMiddles = new int[upOffsets[n]];
+		this.downSources = new int[downOffsets[n]];
+		this.downWeights = new int[downOffsets[n]];
+		this.downMiddles = new int[downOffsets[n]];
+		for(int u = 0; u < n; u++) {
+			EdgeList out = outEdges[u];
+			System.arraycopy(out.node, 0, upTargets, upOffsets[u], out.size);
+			System.arraycopy(out.weight, 0, upWeights, upOffsets[u], out.size);
+			System.arraycopy(out.middle, 0, upMiddles, upOffsets[u], out.size);
+			EdgeList in = inEdges[u];
+			System.arraycopy(in.node, 0, downSources, downOffsets[u], in.size);
+			System.arraycopy(in.weight, 0, downWeights, downOffsets[u], in.size);
+			System.arraycopy(in.middle, 0, downMiddles, downOffsets[u], in.size);
+		}
+	}
+
+	/**
+	 * Growable list of connections of one station used while contracting. Each connection has
+	 * the station at the other end, its distance and the station it skips (-1 if original).
+	 * There is at most one connection per station at the other end, the shortest one.
+	 */
+	private static class EdgeList {
+		private int[] node = new int[4];
+		private int[] weight = new int[4];
+		private int[] middle = new int[4];
+		private int size = 0;
+
+		public void put(int other, int dist, int skipped) {
+			for(int i = 0; i < size; i++) {
+				if(node[i] == other) {
+					if(dist < weight[i]) {
+						weight[i] = dist;
+						middle[i] = skipped;
+					}
+					return;
+				}
+			}
+			if(size == node.length) {
+				node = Arrays.copyOf(node, size * 2);
+				weight = Arrays.copyOf(weight, size * 2);
+				middle = Arrays.copyOf(middle, size * 2);
+			}
+			node[size] = other;
+			weight[size] = dist;
+			middle[size] = skipped;
+			size++;
+		}
+
+		public void remove(int other) {
+			for(int i = 0; i < size; i++) {
+				if(node[i] == other) {
+					size--;
+					node[i] = node[size];
+					weight[i] = weight[size];
+					middle[i] = middle[size];
+					return;
+				}
+			}
+		}
+	}
+
+}
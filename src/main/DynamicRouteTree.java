@@ -0,0 +1,498 @@
+package main;
+
+import java.util.Arrays;
+
+import data_structures.BitSet;
+import data_structures.HashSet;
+import data_structures.HashTableSC;
+import data_structures.IndexedMinHeap;
+import data_structures.LongHashSet;
+import data_structures.MurmurHashFunction;
+import interfaces.IndexedPriorityQueue;
+import interfaces.Map;
+import interfaces.Set;
+
+/**
+ * Class that keeps the shortest route tree of one origin up to date while connections are
+ * added, removed or change their distance.
+ * <p>
+ * The connections are held in growable per-station lists (outgoing and incoming), so a change
+ * costs time proportional to the stations it affects instead of a new `StationGraph`. The tree
+ * is repaired in place after every change to a single directed connection u->v:
+ * <ul>
+ * <li>If the connection got shorter (or was added), v may now be reached through u. When it is,
+ * a Dijkstra search starts at v and only follows connections that improve a station, so it
+ * stops at the edge of the region that got closer.</li>
+ * <li>If the connection got longer (or was removed) and v was reached through u, every station
+ * in the subtree of v may be affected. Their distances are cleared, each one is seeded with its
+ * best connection from a station outside the subtree, and a Dijkstra search restricted to the
+ * subtree settles them again. Any other connection that gets longer changes nothing.</li>
+ * </ul>
+ * Every change reports the stations whose previous station, distance or number of connections
+ * in the route changed, which are exactly the stations whose route or travel time changed.
+ * <p>
+ * Two-way connections, like the ones in a station file, are changed one direction after the
+ * other. The tree is not thread-safe.
+ */
+public class DynamicRouteTree {
+
+	private String[] names;
+	private Map<String, Integer> ids;
+	private int size;
+	private ConnectionList[] outgoing;
+	private ConnectionList[] incoming;
+
+	private int origin;
+	private int[] dist;
+	private int[] pred;
+	private int[] hops;
+	private IndexedPriorityQueue toVisit;
+
+	// Stations of the subtree being repaired, with their values before the change
+	private BitSet inSubtree;
+	private int[] subtree;
+	private int[] oldDist;
+	private int[] oldPred;
+	private int[] oldHops;
+
+	/**
+	 * Constructor that copies the connections of a graph and computes the shortest route tree
+	 * of the origin.
+	 * <p>
+	 * @param graph which represents the network to start from
+	 * @param originName which represents the station every route starts from
+	 * @throws IllegalArgumentException if the origin is not a station of the graph
+	 */
+	public DynamicRouteTree(StationGraph graph, String originName) {
+		int n = graph.size();
+		this.origin = graph.idOf(originName);
+		if(this.origin == -1)
+			throw new IllegalArgumentException("Unknown origin: " + originName);
+
+		int capacity = Math.max(n, 1);
+		this.names = new String[capacity];
+		this.ids = new HashTableSC<>(capacity, new MurmurHashFunction<>());
+		this.outgoing = new ConnectionList[capacity];
+		this.incoming = new ConnectionList[capacity];
+		for(int u = 0; u < n; u++) {
+			this.names[u] = graph.nameOf(u);
+			this.ids.put(this.names[u], u);
+			this.outgoing[u] = new ConnectionList();
+			this.incoming[u] = new ConnectionList();
+		}
+		this.size = n;
+		for(int u = 0; u < n; u++) {
+			for(int e = graph.firstConnection(u); e < graph.endConnection(u); e++) {
+				this.outgoing[u].add(graph.target(e), graph.weight(e));
+				this.incoming[graph.target(e)].add(u, graph.weight(e));
+			}
+		}
+
+		allocate(capacity);
+		graph.findShortestDistance(this.origin, this.dist, this.pred, this.hops, this.toVisit);
+	}
+
+	/**
+	 * Method that gives the name of the station every route starts from.
+	 * <p>
+	 * @return the name of the origin
+	 */
+	public String getOrigin() {
+		return this.names[this.origin];
+	}
+
+	/**
+	 * Method that gives the amount of stations.
+	 * <p>
+	 * @return the number of stations
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Method that gives the route information of a station in the same form as the maps
+	 * returned by TrainStationManager.getShortestRoutes().
+	 * <p>
+	 * @param name of the station
+	 * @return a station with the name of the previous station in the route and the shortest
+	 * distance from the origin
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	public Station stationOf(String name) {
+		int id = idOf(name);
+		return new Station(this.names[this.pred[id]], this.dist[id]);
+	}
+
+	/**
+	 * Method that adds a two-way connection between two stations. Stations that do not exist
+	 * yet are added. A connection identical to an existing one is ignored, like in a station
+	 * file.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @param distance which represents the distance of the connection
+	 * @return the names of the stations whose route or travel time changed
+	 * @throws IllegalArgumentException if the distance is negative
+	 */
+	public Set<String> addConnection(String src_city, String dest_city, int distance) {
+		if(distance < 0)
+			throw new IllegalArgumentException("Distance cannot be negative: " + distance);
+		Set<String> changed = new HashSet<>();
+		int u = intern(src_city, changed);
+		int v = intern(dest_city, changed);
+		addDirected(u, v, distance, changed);
+		addDirected(v, u, distance, changed);
+		return changed;
+	}
+
+	/**
+	 * Method that removes every connection between two stations, in both directions. The
+	 * stations themselves stay, even if they are left without connections.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @return the names of the stations whose route or travel time changed
+	 * @throws IllegalArgumentException if either station does not exist or they are not connected
+	 */
+	public Set<String> removeConnection(String src_city, String dest_city) {
+		int u = idOf(src_city);
+		int v = idOf(dest_city);
+		if(outgoing[u].minWeight(v) == -1 && outgoing[v].minWeight(u) == -1)
+			throw new IllegalArgumentException("No connection between " + src_city + " and " + dest_city);
+		Set<String> changed = new HashSet<>();
+		removeDirected(u, v, changed);
+		removeDirected(v, u, changed);
+		return changed;
+	}
+
+	/**
+	 * Method that changes the distance of the connection between two stations, in both
+	 * directions. If there were several connections between them, they become a single one.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @param distance which represents the new distance of the connection
+	 * @return the names of the stations whose route or travel time changed
+	 * @throws IllegalArgumentException if either station does not exist, they are not connected
+	 * or the distance is negative
+	 */
+	public Set<String> updateDistance(String src_city, String dest_city, int distance) {
+		if(distance < 0)
+			throw new IllegalArgumentException("Distance cannot be negative: " + distance);
+		int u = idOf(src_city);
+		int v = idOf(dest_city);
+		if(outgoing[u].minWeight(v) == -1 && outgoing[v].minWeight(u) == -1)
+			throw new IllegalArgumentException("No connection between " + src_city + " and " + dest_city);
+		Set<String> changed = new HashSet<>();
+		updateDirected(u, v, distance, changed);
+		updateDirected(v, u, distance, changed);
+		return changed;
+	}
+
+	/**
+	 * Method that collects the current connections so they can be packed into a new
+	 * `StationGraph`. Ids are interned in the same order as the tree's.
+	 * <p>
+	 * @return a buffer with every station and directed connection
+	 */
+	public ConnectionBuffer toBuffer() {
+		int total = 0;
+		for(int u = 0; u < size; u++)
+			total += outgoing[u].size;
+		ConnectionBuffer buffer = new ConnectionBuffer(size, total);
+		for(int u = 0; u < size; u++)
+			buffer.intern(names[u]);
+		for(int u = 0; u < size; u++) {
+			ConnectionList out = outgoing[u];
+			for(int i = 0; i < out.size; i++)
+				buffer.add(u, out.target[i], out.weight[i]);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Method that gives the connections a station has now as a patch of the packed graph, so
+	 * a graph can be packed again from the one before the change without reading every
+	 * station of the tree.
+	 * <p>
+	 * @param name of the station
+	 * @param previous which represents the patches of earlier changes, or null
+	 * @return a patch with the connections of the station in front of the previous ones
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	StationGraph.Patch patch(String name, StationGraph.Patch previous) {
+		int id = idOf(name);
+		ConnectionList out = outgoing[id];
+		return new StationGraph.Patch(id, name, Arrays.copyOf(out.target, out.size), Arrays.copyOf(out.weight, out.size), size, previous);
+	}
+
+	/* ------------------------- Directed changes ------------------------- */
+
+	private void addDirected(int u, int v, int distance, Set<String> changed) {
+		if(!outgoing[u].add(v, distance))
+			return;
+		incoming[v].add(u, distance);
+		shortened(u, v, distance, changed);
+	}
+
+	private void removeDirected(int u, int v, Set<String> changed) {
+		if(outgoing[u].minWeight(v) == -1)
+			return;
+		outgoing[u].removeAll(v);
+		incoming[v].removeAll(u);
+		lengthened(u, v, changed);
+	}
+
+	private void updateDirected(int u, int v, int distance, Set<String> changed) {
+		int before = outgoing[u].minWeight(v);
+		if(before == -1)
+			return;
+		outgoing[u].removeAll(v);
+		incoming[v].removeAll(u);
+		outgoing[u].add(v, distance);
+		incoming[v].add(u, distance);
+		if(distance < before)
+			shortened(u, v, distance, changed);
+		else if(distance > before)
+			lengthened(u, v, changed);
+	}
+
+	/**
+	 * Repairs the tree after the connection u->v got shorter: if v is now closer through u,
+	 * the improvement is pushed forward until no station gets closer.
+	 */
+	private void shortened(int u, int v, int distance, Set<String> changed) {
+		if(dist[u] == Integer.MAX_VALUE || dist[u] + distance >= dist[v])
+			return;
+		dist[v] = dist[u] + distance;
+		pred[v] = u;
+		hops[v] = hops[u] + 1;
+		changed.add(names[v]);
+		toVisit.insert(v, dist[v]);
+
+		while(!toVisit.isEmpty()) {
+			int current = toVisit.extractMin();
+			ConnectionList out = outgoing[current];
+			for(int i = 0; i < out.size; i++) {
+				int neighbor = out.target[i];
+				int addition = dist[current] + out.weight[i];
+				if(addition < dist[neighbor]) {
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					hops[neighbor] = hops[current] + 1;
+					changed.add(names[neighbor]);
+					if(toVisit.contains(neighbor)) {
+						toVisit.decreaseKey(neighbor, addition);
+					} else {
+						toVisit.insert(neighbor, addition);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Repairs the tree after the connection u->v got longer or was removed. Only the subtree
+	 * hanging from v can change, and only if v was reached through u.
+	 */
+	private void lengthened(int u, int v, Set<String> changed) {
+		if(v == origin || pred[v] != u || dist[v] == Integer.MAX_VALUE)
+			return;
+
+		/* Collects the subtree of v and clears its distances */
+		int count = 0;
+		subtree[count++] = v;
+		inSubtree.add(v);
+		for(int i = 0; i < count; i++) {
+			int current = subtree[i];
+			ConnectionList out = outgoing[current];
+			for(int j = 0; j < out.size; j++) {
+				int child = out.target[j];
+				if(!inSubtree.isMember(child) && child != origin && pred[child] == current && dist[child] != Integer.MAX_VALUE) {
+					inSubtree.add(child);
+					subtree[count++] = child;
+				}
+			}
+		}
+		for(int i = 0; i < count; i++) {
+			int station = subtree[i];
+			oldDist[i] = dist[station];
+			oldPred[i] = pred[station];
+			oldHops[i] = hops[station];
+			dist[station] = Integer.MAX_VALUE;
+			pred[station] = origin;
+			hops[station] = 0;
+		}
+
+		/* Seeds every station of the subtree with its best connection from outside of it */
+		for(int i = 0; i < count; i++) {
+			int station = subtree[i];
+			ConnectionList in = incoming[station];
+			for(int j = 0; j < in.size; j++) {
+				int source = in.target[j];
+				if(inSubtree.isMember(source) || dist[source] == Integer.MAX_VALUE)
+					continue;
+				int addition = dist[source] + in.weight[j];
+				if(addition < dist[station]) {
+					dist[station] = addition;
+					pred[station] = source;
+					hops[station] = hops[source] + 1;
+				}
+			}
+			if(dist[station] != Integer.MAX_VALUE)
+				toVisit.insert(station, dist[station]);
+		}
+
+		/* Settles the subtree again without leaving it */
+		while(!toVisit.isEmpty()) {
+			int current = toVisit.extractMin();
+			ConnectionList out = outgoing[current];
+			for(int i = 0; i < out.size; i++) {
+				int neighbor = out.target[i];
+				if(!inSubtree.isMember(neighbor))
+					continue;
+				int addition = dist[current] + out.weight[i];
+				if(addition < dist[neighbor]) {
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					hops[neighbor] = hops[current] + 1;
+					if(toVisit.contains(neighbor)) {
+						toVisit.decreaseKey(neighbor, addition);
+					} else {
+						toVisit.insert(neighbor, addition);
+					}
+				}
+			}
+		}
+
+		for(int i = 0; i < count; i++) {
+			int station = subtree[i];
+			inSubtree.remove(station);
+			if(dist[station] != oldDist[i] || pred[station] != oldPred[i] || hops[station] != oldHops[i])
+				changed.add(names[station]);
+		}
+	}
+
+	/* ------------------------------ Stations ------------------------------ */
+
+	private int idOf(String name) {
+		Integer id = this.ids.get(name);
+		if(id == null)
+			throw new IllegalArgumentException("Unknown station: " + name);
+		return id;
+	}
+
+	/**
+	 * Gives the id of a station, adding it unreachable and without connections if it is new.
+	 */
+	private int intern(String name, Set<String> changed) {
+		int id = this.ids.computeIfAbsent(name, key -> this.size);
+		if(id < this.size)
+			return id;
+		if(this.size == this.names.length)
+			grow(this.names.length * 2);
+		int station = this.size++;
+		this.names[station] = name;
+		this.outgoing[station] = new ConnectionList();
+		this.incoming[station] = new ConnectionList();
+		this.dist[station] = Integer.MAX_VALUE;
+		this.pred[station] = this.origin;
+		this.hops[station] = 0;
+		changed.add(name);
+		return station;
+	}
+
+	private void allocate(int capacity) {
+		this.dist = new int[capacity];
+		this.pred = new int[capacity];
+		this.hops = new int[capacity];
+		this.toVisit = new IndexedMinHeap(capacity);
+		this.inSubtree = new BitSet(capacity);
+		this.subtree = new int[capacity];
+		this.oldDist = new int[capacity];
+		this.oldPred = new int[capacity];
+		this.oldHops = new int[capacity];
+	}
+
+	private void grow(int capacity) {
+		int[] dist = this.dist, pred = this.pred, hops = this.hops;
+		allocate(capacity);
+		System.arraycopy(dist, 0, this.dist, 0, this.size);
+		System.arraycopy(pred, 0, this.pred, 0, this.size);
+		System.arraycopy(hops, 0, this.hops, 0, this.size);
+		this.names = Arrays.copyOf(this.names, capacity);
+		this.outgoing = Arrays.copyOf(this.outgoing, capacity);
+		this.incoming = Arrays.copyOf(this.incoming, capacity);
+	}
+
+	/**
+	 * Growable list of the connections of one station: the station at the other end and the
+	 * distance. Several connections to the same station are allowed if their distances differ.
+	 * A list with more than a few connections also keeps its (station, distance) pairs in a
+	 * hash set, so adding a connection to a hub does not scan all of its connections.
+	 */
+	private static class ConnectionList {
+		private int[] target = new int[4];
+		private int[] weight = new int[4];
+		private int size = 0;
+		/* Pairs of the list, null while it has at most StationGraph.SCANNED_CONNECTIONS */
+		private LongHashSet pairs;
+
+		/* Returns false if the same connection is already in the list */
+		public boolean add(int other, int distance) {
+			if(pairs != null) {
+				if(!pairs.add(StationGraph.pair(other, distance)))
+					return false;
+			}
+			else {
+				for(int i = 0; i < size; i++)
+					if(target[i] == other && weight[i] == distance)
+						return false;
+			}
+			if(size == target.length) {
+				target = Arrays.copyOf(target, size * 2);
+				weight = Arrays.copyOf(weight, size * 2);
+			}
+			target[size] = other;
+			weight[size] = distance;
+			size++;
+			if(pairs == null && size > StationGraph.SCANNED_CONNECTIONS)
+				indexPairs();
+			return true;
+		}
+
+		public void removeAll(int other) {
+			int kept = 0;
+			for(int i = 0; i < size; i++) {
+				if(target[i] != other) {
+					target[kept] = target[i];
+					weight[kept] = weight[i];
+					kept++;
+				}
+			}
+			if(kept < size) {
+				size = kept;
+				pairs = null;
+				if(size > StationGraph.SCANNED_CONNECTIONS)
+					indexPairs();
+			}
+		}
+
+		private void indexPairs() {
+			pairs = new LongHashSet(size);
+			for(int i = 0; i < size; i++)
+				pairs.add(StationGraph.pair(target[i], weight[i]));
+		}
+
+		/* Shortest distance to the given station, -1 if there is no connection to it */
+		public int minWeight(int other) {
+			int best = -1;
+			for(int i = 0; i < size; i++)
+				if(target[i] == other && (best == -1 || weight[i] < best))
+					best = weight[i];
+			return best;
+		}
+	}
+
+}
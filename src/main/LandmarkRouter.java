@@ -0,0 +1,158 @@
+package main;
+
+import data_structures.ArrayDeque;
+import data_structures.ArrayList;
+import data_structures.IndexedMinHeap;
+import interfaces.IndexedPriorityQueue;
+import interfaces.List;
+import interfaces.Stack;
+
+/**
+ * Class that answers route queries between two stations with an A* search guided by
+ * `Landmarks` (ALT).
+ * <p>
+ * The search is Dijkstra's algorithm where the key of a station is its distance from the
+ * origin plus a lower bound of its distance to the destination, taken from the landmark
+ * tables. Stations that lead away from the destination get large keys and are never settled,
+ * so the search heads straight for the destination. The bound is consistent, so the route is
+ * exact and the search can stop as soon as the destination is settled.
+ * <p>
+ * Like `BidirectionalRouter`, the router keeps its arrays between queries and only resets the
+ * entries a query touched, so it must not be used by more than one thread at a time. The
+ * routers fork() gives share the landmark tables, which are only read.
+ */
+public class LandmarkRouter implements Router {
+
+	private StationGraph graph;
+	private Landmarks landmarks;
+	private int[] dist;
+	private int[] pred;
+	private IndexedPriorityQueue toVisit;
+	// Stations whose distance was set by the current query
+	private int[] touched;
+	private int touchedCount;
+
+	/**
+	 * Constructor that prepares a router for the given network and its landmark tables.
+	 * <p>
+	 * @param graph which represents the network to search
+	 * @param landmarks which represents the landmark tables computed for the graph
+	 */
+	public LandmarkRouter(StationGraph graph, Landmarks landmarks) {
+		if(!landmarks.belongsTo(graph))
+			throw new IllegalArgumentException("Landmarks were computed for a different graph");
+		this.graph = graph;
+		this.landmarks = landmarks;
+		allocate();
+	}
+
+	/* Router of fork(), the landmarks were already checked against the graph */
+	private LandmarkRouter(LandmarkRouter router) {
+		this.graph = router.graph;
+		this.landmarks = router.landmarks;
+		allocate();
+	}
+
+	private void allocate() {
+		int n = this.graph.size();
+		this.dist = new int[n];
+		this.pred = new int[n];
+		this.toVisit = new IndexedMinHeap(n);
+		this.touched = new int[n];
+		this.touchedCount = 0;
+		for(int i = 0; i < n; i++)
+			this.dist[i] = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Method that gives a router on the same graph and landmark tables with arrays of its own.
+	 * <p>
+	 * @return the new router
+	 */
+	@Override
+	public Router fork() {
+		return new LandmarkRouter(this);
+	}
+
+	/**
+	 * Method that finds the shortest route between two stations.
+	 * <p>
+	 * @param origin which represents the name of the station the route starts from
+	 * @param destination which represents the name of the station the route ends at
+	 * @return the route, with its distance, travel time, stations and settled count
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	@Override
+	public Route route(String origin, String destination) {
+		int source = idOf(origin);
+		int target = idOf(destination);
+
+		touched[touchedCount++] = source;
+		dist[source] = 0;
+		toVisit.insert(source, landmarks.lowerBound(source, target));
+
+		int settled = 0;
+		while(!toVisit.isEmpty()) {
+			int current = toVisit.extractMin();
+			settled++;
+			if(current == target)
+				break;
+			int end = graph.endConnection(current);
+			for(int e = graph.firstConnection(current); e < end; e++) {
+				int neighbor = graph.target(e);
+				int addition = dist[current] + graph.weight(e);
+				if(addition < dist[neighbor]) {
+					if(dist[neighbor] == Integer.MAX_VALUE)
+						touched[touchedCount++] = neighbor;
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					int key = (int) Math.min((long) addition + landmarks.lowerBound(neighbor, target), Integer.MAX_VALUE);
+					if(toVisit.contains(neighbor)) {
+						toVisit.decreaseKey(neighbor, key);
+					} else {
+						toVisit.insert(neighbor, key);
+					}
+				}
+			}
+		}
+
+		Route result = buildRoute(origin, destination, source, target, settled);
+		reset();
+		return result;
+	}
+
+	private Route buildRoute(String origin, String destination, int source, int target, int settled) {
+		List<String> stations = new ArrayList<>();
+		if(dist[target] == Integer.MAX_VALUE)
+			return new Route(origin, destination, Integer.MAX_VALUE, Integer.MAX_VALUE * 2.5, stations, settled);
+
+		Stack<String> trace = new ArrayDeque<String>();
+		for(int station = target; station != source; station = pred[station])
+			trace.push(graph.nameOf(station));
+		stations.add(origin);
+		while(!trace.isEmpty())
+			stations.add(trace.pop());
+
+		// 2.5 minutes per kilometer and 15 minutes per station between origin and destination
+		double travelTime = dist[target] * 2.5 + 15 * Math.max(stations.size() - 2, 0);
+		return new Route(origin, destination, dist[target], travelTime, stations, settled);
+	}
+
+	/**
+	 * Puts back the entries touched by the last query so the next one starts clean.
+	 */
+	private void reset() {
+		for(int i = 0; i < touchedCount; i++)
+			dist[touched[i]] = Integer.MAX_VALUE;
+		touchedCount = 0;
+		toVisit.clear();
+	}
+
+	private int idOf(String name) {
+		int id = this.graph.idOf(name);
+		if(id == -1)
+			throw new IllegalArgumentException("Unknown station: " + name);
+		return id;
+	}
+
+}
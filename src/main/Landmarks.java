@@ -0,0 +1,200 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import data_structures.IndexedMinHeap;
+
+/**
+ * Class that holds the landmark tables used by ALT (A*, landmarks and triangle inequality)
+ * searches on a `StationGraph`.
+ * <p>
+ * A landmark is a station whose exact distance to and from every other station is stored.
+ * By the triangle inequality, for any landmark L the distance from v to t is at least
+ * d(L, t) - d(L, v) and at least d(v, L) - d(t, L). The largest of those values over all the
+ * landmarks is a lower bound that never overestimates, so A* can use it as its heuristic even
+ * though the stations have no coordinates.
+ * <p>
+ * Landmarks are picked by farthest-point selection: the first one is the station farthest from
+ * an arbitrary start, and each next one is the station whose distance to the closest landmark
+ * chosen so far is the largest. That spreads them around the edge of the network, where they
+ * give the tightest bounds. Preprocessing costs two searches per landmark (one on the graph and
+ * one on its reverse) and the tables take 2 * k * n ints.
+ * <p>
+ * The tables can be saved next to the station file and loaded on the next start. The file
+ * keeps the checksum of the graph, so tables saved for a different network are rejected.
+ */
+public class Landmarks {
+
+	private static final int FILE_VERSION = 1;
+
+	private int stationCount;
+	private int[] landmarks;
+	// fromLandmark[i * n + v] is the distance from landmark i to v, toLandmark the distance from v to landmark i
+	private int[] fromLandmark;
+	private int[] toLandmark;
+	private long checksum;
+
+	/**
+	 * Constructor that picks the landmarks of a graph and computes their tables.
+	 * <p>
+	 * @param graph which represents the network to preprocess
+	 * @param count which represents how many landmarks to pick, at most the amount of stations
+	 */
+	public Landmarks(StationGraph graph, int count) {
+		int n = graph.size();
+		if(count < 1 || count > n)
+			throw new IllegalArgumentException("Landmark count must be between 1 and " + n);
+		this.stationCount = n;
+		this.checksum = graph.checksum();
+		this.landmarks = new int[count];
+		this.fromLandmark = new int[count * n];
+		this.toLandmark = new int[count * n];
+
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		IndexedMinHeap toVisit = new IndexedMinHeap(n);
+		StationGraph reverse = graph.reverse();
+
+		/* closest[v] is the distance from v to the closest landmark picked so far */
+		int[] closest = new int[n];
+		graph.findShortestDistance(0, dist, pred, null, toVisit);
+		System.arraycopy(dist, 0, closest, 0, n);
+
+		for(int i = 0; i < count; i++) {
+			/* Picks the reachable station that is farthest from every landmark so far */
+			int next = 0;
+			for(int v = 1; v < n; v++) {
+				if(closest[v] != Integer.MAX_VALUE && (closest[next] == Integer.MAX_VALUE || closest[v] > closest[next]))
+					next = v;
+			}
+			this.landmarks[i] = next;
+
+			graph.findShortestDistance(next, dist, pred, null, toVisit);
+			System.arraycopy(dist, 0, this.fromLandmark, i * n, n);
+			reverse.findShortestDistance(next, dist, pred, null, toVisit);
+			System.arraycopy(dist, 0, this.toLandmark, i * n, n);
+
+			for(int v = 0; v < n; v++)
+				closest[v] = Math.min(closest[v], this.fromLandmark[i * n + v]);
+			closest[next] = 0;
+		}
+	}
+
+	private Landmarks() {
+	}
+
+	/**
+	 * Method that gives how many landmarks there are.
+	 * <p>
+	 * @return the number of landmarks
+	 */
+	public int size() {
+		return this.landmarks.length;
+	}
+
+	/**
+	 * Method that gives the id of a landmark station.
+	 * <p>
+	 * @param index of the landmark, between 0 and size() - 1
+	 * @return the id of the station
+	 */
+	public int landmark(int index) {
+		return this.landmarks[index];
+	}
+
+	/**
+	 * Method that gives a lower bound of the distance from a station to a target, using the
+	 * triangle inequality with every landmark. Landmarks that cannot reach or be reached by
+	 * either station are skipped.
+	 * <p>
+	 * @param station which represents the id of the station the distance starts from
+	 * @param target which represents the id of the station the distance ends at
+	 * @return a value that is never greater than the shortest distance from station to target
+	 */
+	public int lowerBound(int station, int target) {
+		int n = this.stationCount;
+		int best = 0;
+		for(int i = 0; i < this.landmarks.length; i++) {
+			int row = i * n;
+			int fromTarget = this.fromLandmark[row + target];
+			int fromStation = this.fromLandmark[row + station];
+			if(fromTarget != Integer.MAX_VALUE && fromStation != Integer.MAX_VALUE)
+				best = Math.max(best, fromTarget - fromStation);
+			int stationTo = this.toLandmark[row + station];
+			int targetTo = this.toLandmark[row + target];
+			if(stationTo != Integer.MAX_VALUE && targetTo != Integer.MAX_VALUE)
+				best = Math.max(best, stationTo - targetTo);
+		}
+		return best;
+	}
+
+	/**
+	 * Method that checks if the tables were computed for the given graph.
+	 * <p>
+	 * @param graph which represents the network to compare with
+	 * @return true if the graph has the same stations and connections
+	 */
+	public boolean belongsTo(StationGraph graph) {
+		return graph.size() == this.stationCount && graph.checksum() == this.checksum;
+	}
+
+	/**
+	 * Method that saves the landmark tables to a file.
+	 * <p>
+	 * @param path which represents the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(String path) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+			out.writeInt(FILE_VERSION);
+			out.writeLong(this.checksum);
+			out.writeInt(this.stationCount);
+			out.writeInt(this.landmarks.length);
+			for(int landmark : this.landmarks)
+				out.writeInt(landmark);
+			for(int value : this.fromLandmark)
+				out.writeInt(value);
+			for(int value : this.toLandmark)
+				out.writeInt(value);
+		}
+	}
+
+	/**
+	 * Method that loads landmark tables saved by save() for the given graph.
+	 * <p>
+	 * @param path which represents the file to read
+	 * @param graph which represents the network the tables must belong to
+	 * @return the landmark tables, or null if the file was saved for a different graph
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Landmarks load(String path, StationGraph graph) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+			if(in.readInt() != FILE_VERSION)
+				return null;
+			Landmarks result = new Landmarks();
+			result.checksum = in.readLong();
+			result.stationCount = in.readInt();
+			if(!result.belongsTo(graph))
+				return null;
+			int count = in.readInt();
+			int n = result.stationCount;
+			result.landmarks = new int[count];
+			result.fromLandmark = new int[count * n];
+			result.toLandmark = new int[count * n];
+			for(int i = 0; i < count; i++)
+				result.landmarks[i] = in.readInt();
+			for(int i = 0; i < count * n; i++)
+				result.fromLandmark[i] = in.readInt();
+			for(int i = 0; i < count * n; i++)
+				result.toLandmark[i] = in.readInt();
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data_structures.ArrayList;
+import interfaces.List;
+
+/**
+ * Class that loads a station file in parallel into a `ConnectionBuffer`.
+ * <p>
+ * The file is split in chunks whose boundaries are moved forward to the next line break, so
+ * no line is cut in two. Every chunk is memory mapped and read by its own `StationFileParser`
+ * into its own `ConnectionBuffer` on a `ForkJoinPool`, so the workers share nothing while they
+ * parse. The chunk buffers are then merged in file order: the stations of each chunk are
+ * interned in the order the chunk first saw them and its connections are appended after the
+ * ones of the previous chunks. That gives the stations the same ids and the connections the
+ * same order as reading the file from start to end, so the result is exactly the buffer the
+ * sequential constructor builds.
+ * <p>
+ * Malformed lines are reported with their line number in the whole file, like the
+ * sequential parser does.
+ */
+public class ParallelStationLoader {
+
+	/* Files smaller than this are not worth more than one chunk per MIN_CHUNK bytes */
+	private static final long MIN_CHUNK = 1 << 20;
+	/* A mapped region must stay under 2 GB */
+	private static final long MAX_CHUNK = 1 << 30;
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int BOUNDARY_WINDOW = 4096;
+
+	private ConnectionBuffer buffer;
+	private List<String> errors;
+	private int lineCount;
+	private long bytesRead;
+
+	/**
+	 * Constructor that loads the file using the common ForkJoinPool.
+	 * <p>
+	 * @param path which represents the station file to read
+	 * @throws IOException if the file cannot be read
+	 */
+	public ParallelStationLoader(String path) throws IOException {
+		this(path, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor that loads the file on the given pool.
+	 * <p>
+	 * @param path which represents the station file to read
+	 * @param pool which represents the pool the chunks are parsed on
+	 * @throws IOException if the file cannot be read
+	 */
+	public ParallelStationLoader(String path, ForkJoinPool pool) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long[] bounds = chunkBounds(channel, size, chunkCount(size, pool.getParallelism()));
+			Chunk[] chunks = new Chunk[bounds.length - 1];
+			for(int i = 0; i < chunks.length; i++)
+				chunks[i] = new Chunk(channel, bounds[i], bounds[i + 1], i == 0);
+			pool.invoke(new ChunkRange(chunks, 0, chunks.length));
+			merge(chunks);
+		}
+	}
+
+	/**
+	 * Method that gives the stations and connections of the file.
+	 * <p>
+	 * @return the merged buffer, equal to the one a sequential read builds
+	 */
+	public ConnectionBuffer getBuffer() {
+		return this.buffer;
+	}
+
+	/**
+	 * Method that gives the lines that were skipped, as "line N: reason" messages.
+	 * <p>
+	 * @return the list of errors in file order, empty if every line was read
+	 */
+	public List<String> getErrors() {
+		return this.errors;
+	}
+
+	/**
+	 * Method that gives the amount of lines read, counting the header.
+	 * <p>
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return this.lineCount;
+	}
+
+	/**
+	 * Method that gives the amount of bytes read.
+	 * <p>
+	 * @return the number of bytes
+	 */
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	private static int chunkCount(long size, int threads) {
+		long count = (long) threads * CHUNKS_PER_THREAD;
+		count = Math.min(count, Math.max(1, size / MIN_CHUNK));
+		count = Math.max(count, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+		return (int) count;
+	}
+
+	/**
+	 * Splits [0, size) in count chunks and moves every inner boundary to the byte after the
+	 * next line break. Chunks can end up empty when a line is longer than a chunk.
+	 */
+	private static long[] chunkBounds(FileChannel channel, long size, int count) throws IOException {
+		long[] bounds = new long[count + 1];
+		bounds[count] = size;
+		ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+		for(int i = 1; i < count; i++) {
+			long position = Math.max(size / count * i, bounds[i - 1]);
+			boolean found = false;
+			while(!found && position < size) {
+				window.clear();
+				int read = channel.read(window, position);
+				if(read <= 0)
+					break;
+				for(int j = 0; j < read; j++) {
+					if(window.get(j) == '\n') {
+						position += j + 1;
+						found = true;
+						break;
+					}
+				}
+				if(!found)
+					position += read;
+			}
+			bounds[i] = Math.min(position, size);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Appends the chunk buffers in file order, translating the ids of every chunk to the ids
+	 * of the merged buffer.
+	 */
+	private void merge(Chunk[] chunks) {
+		int connections = 0;
+		int stations = 0;
+		for(Chunk chunk : chunks) {
+			connections += chunk.buffer.size();
+			stations = Math.max(stations, chunk.buffer.stationCount());
+		}
+		this.buffer = new ConnectionBuffer(stations, connections);
+		ArrayList<String> errors = new ArrayList<>();
+
+		for(Chunk chunk : chunks) {
+			ConnectionBuffer local = chunk.buffer;
+			String[] names = local.names();
+			int[] ids = new int[local.stationCount()];
+			for(int i = 0; i < ids.length; i++)
+				ids[i] = this.buffer.intern(names[i]);
+			int[] from = local.from(), to = local.to(), distance = local.distance();
+			for(int e = 0; e < local.size(); e++)
+				this.buffer.add(ids[from[e]], ids[to[e]], distance[e]);
+
+			chunk.parser.setLineOffset(this.lineCount);
+			errors.addAll(chunk.parser.getErrors());
+			this.lineCount += chunk.parser.getLineCount();
+			this.bytesRead += chunk.parser.getBytesRead();
+		}
+		this.errors = errors;
+	}
+
+	/**
+	 * One part of the file, parsed into its own buffer.
+	 */
+	private static class Chunk {
+		private FileChannel channel;
+		private long start;
+		private long end;
+		private ConnectionBuffer buffer;
+		private StationFileParser parser;
+
+		public Chunk(FileChannel channel, long start, long end, boolean first) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.buffer = new ConnectionBuffer();
+			this.parser = new StationFileParser(this.buffer, first);
+		}
+
+		public void parse() {
+			if(end == start)
+				return;
+			try {
+				parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not map bytes " + start + " to " + end, e);
+			}
+		}
+	}
+
+	/**
+	 * Task that parses a range of chunks, splitting it in halves until one chunk is left.
+	 */
+	private static class ChunkRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private Chunk[] chunks;
+		private int from;
+		private int to;
+
+		public ChunkRange(Chunk[] chunks, int from, int to) {
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= 1) {
+				for(int i = from; i < to; i++)
+					chunks[i].parse();
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ChunkRange(chunks, from, middle), new ChunkRange(chunks, middle, to));
+		}
+	}
+
+}
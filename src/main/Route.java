@@ -0,0 +1,128 @@
+package main;
+
+import interfaces.List;
+
+/**
+ * Class that creates an object that represents the answer to a route query between two
+ * stations. It contains the stations of the route in order, its distance, its travel time
+ * and how many stations the search had to settle to find it.
+ */
+public class Route {
+	private String origin;
+	private String destination;
+	private int distance;
+	private double travelTime;
+	private List<String> stations;
+	private int settled;
+
+	/**
+	 * Constructor that initializes the route with the given values.
+	 * <p>
+	 * @param origin represents the name of the station the route starts from
+	 * @param destination represents the name of the station the route ends at
+	 * @param distance represents the total distance of the route, Integer.MAX_VALUE if there is no route
+	 * @param travelTime represents the minutes it takes to travel the route
+	 * @param stations represents the stations of the route in order, empty if there is no route
+	 * @param settled represents how many stations the search settled
+	 */
+	public Route(String origin, String destination, int distance, double travelTime, List<String> stations, int settled) {
+		this.origin = origin;
+		this.destination = destination;
+		this.distance = distance;
+		this.travelTime = travelTime;
+		this.stations = stations;
+		this.settled = settled;
+	}
+
+	/**
+	 * Method that gives the name of the station the route starts from.
+	 * <p>
+	 * @return origin of the route
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Method that gives the name of the station the route ends at.
+	 * <p>
+	 * @return destination of the route
+	 */
+	public String getDestination() {
+		return this.destination;
+	}
+
+	/**
+	 * Method that gives the total distance of the route.
+	 * <p>
+	 * @return distance of the route, Integer.MAX_VALUE if the destination cannot be reached
+	 */
+	public int getDistance() {
+		return this.distance;
+	}
+
+	/**
+	 * Method that gives the time it takes to travel the route, using 2.5 minutes per kilometer
+	 * and 15 minutes per station between the origin and the destination.
+	 * <p>
+	 * @return travel time in minutes
+	 */
+	public double getTravelTime() {
+		return this.travelTime;
+	}
+
+	/**
+	 * Method that gives the stations of the route, from the origin to the destination.
+	 * <p>
+	 * @return list of station names, empty if the destination cannot be reached
+	 */
+	public List<String> getStations() {
+		return this.stations;
+	}
+
+	/**
+	 * Method that gives how many stations the search settled to answer the query. A full
+	 * shortest route tree settles every station that can be reached from the origin.
+	 * <p>
+	 * @return number of settled stations
+	 */
+	public int getSettled() {
+		return this.settled;
+	}
+
+	/**
+	 * Method that checks if the destination can be reached from the origin.
+	 * <p>
+	 * @return true if there is a route
+	 */
+	public boolean isReachable() {
+		return this.distance != Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Method that gives the route in the same format as traceRoute():
+	 * origin->stationA->.....stationZ->destination
+	 * <p>
+	 * @return the route as a string, empty if the destination cannot be reached
+	 */
+	public String getPath() {
+		StringBuilder path = new StringBuilder();
+		for(String station : this.stations) {
+			if(path.length() > 0)
+				path.append("->");
+			path.append(station);
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Method that converts the route into a string in the format of (path, distance).
+	 * <p>
+	 * @return a string of the route in the format of (path, distance)
+	 */
+	@Override
+	public String toString() {
+		return "(" + getPath() + ", " + this.distance + ")";
+	}
+
+}
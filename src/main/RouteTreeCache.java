@@ -0,0 +1,118 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import interfaces.Entry;
+import interfaces.Map;
+
+import data_structures.ConcurrentHashTableSC;
+import data_structures.MurmurHashFunction;
+
+/**
+ * Class that keeps the shortest route trees of a network by origin, for any number of threads
+ * reading at once.
+ * <p>
+ * The trees are kept in a `ConcurrentHashTableSC`, whose reads take no lock, so looking up a
+ * tree never waits for another thread. Every tree carries the time it was last used, read from
+ * a shared counter. Once a new tree takes the cache over its size, the tree that was used the
+ * longest ago is dropped, so the cache keeps the least recently used order without moving
+ * anything on a read. Trees added at the same time may both push out an old one, so the cache can briefly hold
+ * one tree less than its size.
+ * <p>
+ * The cache also counts how many calls to get() found their origin (hits) and how many did not
+ * (misses).
+ */
+class RouteTreeCache {
+
+	/**
+	 * A tree with the time it was last used.
+	 */
+	private static final class CachedTree {
+		private final Map<String, Station> routes;
+		private volatile long lastUsed;
+
+		CachedTree(Map<String, Station> routes, long lastUsed) {
+			this.routes = routes;
+			this.lastUsed = lastUsed;
+		}
+	}
+
+	private final int capacity;
+	private final ConcurrentHashTableSC<String, CachedTree> trees;
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructor that creates an empty cache.
+	 * <p>
+	 * @param capacity which represents how many trees are kept at most
+	 */
+	RouteTreeCache(int capacity) {
+		if(capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		this.capacity = capacity;
+		this.trees = new ConcurrentHashTableSC<>(capacity + 1, ConcurrentHashTableSC.DEFAULT_LOAD_FACTOR, 1, new MurmurHashFunction<>());
+	}
+
+	/**
+	 * Method that gives the tree of an origin and marks it as the most recently used.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return the routes from the origin, or null if they are not in the cache
+	 */
+	Map<String, Station> get(String origin) {
+		CachedTree tree = this.trees.get(origin);
+		if(tree == null) {
+			this.misses.increment();
+			return null;
+		}
+		tree.lastUsed = this.clock.incrementAndGet();
+		this.hits.increment();
+		return tree.routes;
+	}
+
+	/**
+	 * Method that adds the tree of an origin unless another thread added one first, dropping
+	 * the least recently used tree if the cache is over its size.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @param routes which represents the routes from the origin
+	 * @return the tree that is in the cache for the origin
+	 */
+	Map<String, Station> putIfAbsent(String origin, Map<String, Station> routes) {
+		CachedTree existing = this.trees.putIfAbsent(origin, new CachedTree(routes, this.clock.incrementAndGet()));
+		if(existing != null)
+			return existing.routes;
+		if(this.trees.size() > this.capacity)
+			evictLeastRecentlyUsed();
+		return routes;
+	}
+
+	long getHits() {
+		return this.hits.sum();
+	}
+
+	long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Removes the tree that was used the longest ago.
+	 */
+	private void evictLeastRecentlyUsed() {
+		String oldest = null;
+		long oldestUse = Long.MAX_VALUE;
+		for(Entry<String, CachedTree> entry : this.trees.entries()) {
+			long lastUsed = entry.getValue().lastUsed;
+			if(lastUsed < oldestUse) {
+				oldest = entry.getKey();
+				oldestUse = lastUsed;
+			}
+		}
+		if(oldest != null)
+			this.trees.remove(oldest);
+	}
+
+}
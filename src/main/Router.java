@@ -0,0 +1,26 @@
+package main;
+
+/**
+ * Interface that describes the behavior of a point to point route search over a
+ * `StationGraph`. Implementations may keep state between queries, so unless they say
+ * otherwise they must not be used by more than one thread at a time; fork() gives another
+ * thread a router of its own.
+ */
+public interface Router {
+	/**
+	 * Finds the shortest route between two stations.
+	 * @param origin - name of the station the route starts from
+	 * @param destination - name of the station the route ends at
+	 * @return (Route) the route, with its distance, travel time, stations and settled count
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	public Route route(String origin, String destination);
+
+	/**
+	 * Gives a router for the same network with query state of its own, so it can run queries
+	 * on another thread while this one is in use. What was precomputed for the network is
+	 * shared, not computed again.
+	 * @return (Router) the new router
+	 */
+	public Router fork();
+}
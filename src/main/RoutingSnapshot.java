@@ -0,0 +1,680 @@
+package main;
+
+import java.util.Comparator;
+
+import interfaces.Entry;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.Set;
+import interfaces.Stack;
+
+import data_structures.ArrayDeque;
+import data_structures.ArrayList;
+import data_structures.IndexedMinHeap;
+import data_structures.MapType;
+import data_structures.MurmurHashFunction;
+import data_structures.ObjectDoubleHashMap;
+import data_structures.ObjectIntHashMap;
+import data_structures.OverlayMap;
+import data_structures.ReadOnlyMap;
+
+/**
+ * Class that holds one version of the routing state of a `TrainStationManager`: the graph of
+ * stations, the shortest routes from the default origin and everything derived from them.
+ * <p>
+ * A snapshot is never changed once it is published. The manager keeps the current one behind a
+ * single volatile reference; a new network, new routes or a new router are built into a new
+ * snapshot off to the side (sharing whatever did not change) and swapped in with one write. A
+ * reader that takes a snapshot sees a consistent network, routes and travel times for as long as
+ * it keeps it, without locks and without waiting for a reload to finish.
+ * <p>
+ * The station map and the travel times from the default origin are built the first time they
+ * are asked for. Two threads asking at once may both build them, which gives the same result.
+ * Shortest route trees of other origins are kept in a bounded `RouteTreeCache` that belongs to
+ * the network, so it is dropped with it; looking up a tree takes no lock. Routes between two
+ * stations are searched on routers forked from the one of the snapshot, which the snapshot
+ * does not keep: `TrainStationManager` keeps one per thread, so queries from different threads
+ * never wait for each other either. The maps and tables a snapshot gives out are shared by
+ * every reader, so they are read-only: a `ReadOnlyMap` over the routes, the travel times and
+ * the station map, and tables made read-only once they are filled. Writing to them throws
+ * UnsupportedOperationException.
+ * <p>
+ * A change to one connection publishes a snapshot that shares almost everything with the one
+ * before it. Its routes are an `OverlayMap` of the previous routes with only the stations whose
+ * route changed, and its graph is the previous graph plus a `StationGraph.Patch` with the new
+ * connections of the two stations, packed the first time a reader needs the graph. Changes
+ * that nobody reads in between add up in one chain of patches, packed once; the chain is packed
+ * anyway once it has more patches than the graph has stations, so it never grows without bound.
+ */
+public class RoutingSnapshot {
+
+	private static final int DEFAULT_CACHED_ORIGINS = 16;
+	/* Shorter travel time first, stations with the same time in alphabetical order */
+	private static final Comparator<Entry<String, Double>> BY_TRAVEL_TIME = (a, b) -> {
+		int order = Double.compare(a.getValue(), b.getValue());
+		return order != 0 ? order : a.getKey().compareTo(b.getKey());
+	};
+
+	/* Packed graph, null until a snapshot made by withChanges() packs its patches */
+	private volatile StationGraph graph;
+	/* Graph and changes the graph is packed from, null once it is packed or if it never had any */
+	private final StationGraph baseGraph;
+	private final StationGraph.Patch patch;
+	private final String origin;
+	private final Map<String, Station> shortRoutes;
+	/* Shortest route trees that were already computed, by origin */
+	private final RouteTreeCache routeTrees;
+	/* Routes between every pair of stations, null unless they were precomputed */
+	private final AllPairsTravelTimes allPairs;
+	/* Router prepared by the manager, null until forkRouter() creates a bidirectional one */
+	private volatile Router router;
+	/* Map view of the graph and tables of the origin, built the first time they are asked for */
+	private volatile Map<String, List<Station>> stations;
+	private volatile ObjectDoubleHashMap<String> travelTimeTable;
+	private volatile ObjectIntHashMap<String> distanceTable;
+	private volatile Map<String, Double> travelTimes;
+
+	/**
+	 * Constructor that computes the shortest routes from the origin on the graph.
+	 * <p>
+	 * @param graph which represents the network of stations
+	 * @param origin which represents the station the default routes start from
+	 * @throws IllegalArgumentException if the origin is not a station of the graph
+	 */
+	RoutingSnapshot(StationGraph graph, String origin) {
+		this(graph, null, origin, null, new RouteTreeCache(DEFAULT_CACHED_ORIGINS), null, null);
+	}
+
+	private RoutingSnapshot(StationGraph graph, Map<String, List<Station>> stations, String origin, Map<String, Station> shortRoutes,
+			RouteTreeCache routeTrees, Router router, AllPairsTravelTimes allPairs) {
+		this(graph, null, null, stations, origin, shortRoutes, routeTrees, router, allPairs);
+	}
+
+	private RoutingSnapshot(StationGraph graph, StationGraph baseGraph, StationGraph.Patch patch, Map<String, List<Station>> stations,
+			String origin, Map<String, Station> shortRoutes, RouteTreeCache routeTrees, Router router, AllPairsTravelTimes allPairs) {
+		this.graph = graph;
+		this.baseGraph = baseGraph;
+		this.patch = patch;
+		this.stations = stations;
+		this.origin = origin;
+		this.routeTrees = routeTrees;
+		this.router = router;
+		this.allPairs = allPairs;
+		this.shortRoutes = shortRoutes != null ? readOnly(shortRoutes) : getShortestRoutes(origin);
+	}
+
+	/**
+	 * Method that gives a snapshot of a different network that keeps the default routes of this
+	 * one. Route trees, routers and precomputed routes are not carried over. The station map
+	 * is built again from the packed graph, so later changes to the given map are not seen.
+	 * <p>
+	 * @param stations which represents the map of connections of the new network
+	 * @return the new snapshot
+	 */
+	RoutingSnapshot withStations(Map<String, List<Station>> stations) {
+		return new RoutingSnapshot(new StationGraph(stations), null, this.origin, this.shortRoutes,
+				new RouteTreeCache(DEFAULT_CACHED_ORIGINS), null, null);
+	}
+
+	/**
+	 * Method that gives a snapshot of the network after one connection changed, whose default
+	 * routes were already repaired by the given tree. The routes of the stations that did not
+	 * change and the graph before the change are shared with this snapshot, only the changed
+	 * routes and the connections of the two stations are copied. Route trees, routers and
+	 * precomputed routes are not carried over.
+	 * <p>
+	 * @param tree which represents the network and routes from the origin after the change
+	 * @param changed which represents the stations whose route changed
+	 * @param src_city which represents the name of one end of the connection that changed
+	 * @param dest_city which represents the name of the other end of the connection that changed
+	 * @return the new snapshot
+	 */
+	RoutingSnapshot withChanges(DynamicRouteTree tree, Set<String> changed, String src_city, String dest_city) {
+		OverlayMap<String, Station> routes = overlay(this.shortRoutes);
+		for(String name : changed)
+			routes = routes.with(name, tree.stationOf(name));
+
+		/* Patches the packed graph if there is one, otherwise adds to the patches not packed yet */
+		StationGraph packed = this.graph;
+		StationGraph base = packed != null ? packed : this.baseGraph;
+		StationGraph.Patch patch = packed != null ? null : this.patch;
+		patch = tree.patch(dest_city, tree.patch(src_city, patch));
+
+		StationGraph graph = null;
+		if(patch.depth > patch.stationCount) {
+			graph = new StationGraph(base, patch);
+			base = null;
+			patch = null;
+		}
+		RouteTreeCache trees = new RouteTreeCache(DEFAULT_CACHED_ORIGINS);
+		trees.putIfAbsent(this.origin, routes);
+		return new RoutingSnapshot(graph, base, patch, null, this.origin, routes, trees, null, null);
+	}
+
+	/**
+	 * Method that gives a snapshot of the same network with other default routes. The routes
+	 * are copied, so later changes to the given map are not seen. The route trees start over
+	 * with the given routes as the tree of the origin, so getShortestRoutes(origin) agrees with
+	 * getShortestRoutes().
+	 * <p>
+	 * @param shortRoutes which represents the routes that replace the default ones
+	 * @return the new snapshot
+	 */
+	RoutingSnapshot withShortestRoutes(Map<String, Station> shortRoutes) {
+		Map<String, Station> copy = MapType.configured().create(Math.max(shortRoutes.size(), 1), new MurmurHashFunction<>());
+		for(Entry<String, Station> route : shortRoutes.entries())
+			copy.put(route.getKey(), route.getValue());
+		Map<String, Station> routes = readOnly(copy);
+		/* The tree of the origin in the cache was computed, these routes replace it */
+		RouteTreeCache trees = new RouteTreeCache(DEFAULT_CACHED_ORIGINS);
+		trees.putIfAbsent(this.origin, routes);
+		return new RoutingSnapshot(getGraph(), this.stations, this.origin, routes, trees, this.router, this.allPairs);
+	}
+
+	/**
+	 * Method that gives a snapshot of the same network whose route() uses the given router.
+	 * <p>
+	 * @param router which represents the router prepared for this network
+	 * @return the new snapshot
+	 */
+	RoutingSnapshot withRouter(Router router) {
+		return new RoutingSnapshot(getGraph(), this.stations, this.origin, this.shortRoutes, this.routeTrees, router, this.allPairs);
+	}
+
+	/**
+	 * Method that gives a snapshot of the same network whose traceRoute() reads the routes
+	 * between every pair of stations.
+	 * <p>
+	 * @param allPairs which represents the routes computed for this network
+	 * @return the new snapshot
+	 */
+	RoutingSnapshot withAllPairs(AllPairsTravelTimes allPairs) {
+		return new RoutingSnapshot(getGraph(), this.stations, this.origin, this.shortRoutes, this.routeTrees, this.router, allPairs);
+	}
+
+	/**
+	 * Method that gives the station the default routes start from.
+	 * <p>
+	 * @return the name of the origin
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Method that gives the graph of stations that every search runs on.
+	 * <p>
+	 * @return the graph
+	 */
+	public StationGraph getGraph() {
+		StationGraph result = this.graph;
+		if(result == null) {
+			/* Two threads packing at once build the same graph, either of them is kept */
+			result = new StationGraph(this.baseGraph, this.patch);
+			this.graph = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the map that represents the connection between each station.
+	 * <p>
+	 * @return a map from every station to the stations it is connected to
+	 */
+	public Map<String, List<Station>> getStations() {
+		Map<String, List<Station>> result = this.stations;
+		if(result == null) {
+			result = new ReadOnlyMap<>(getGraph().toStationMap());
+			this.stations = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the shortest routes from the origin to the other stations.
+	 * <p>
+	 * @return a map where the key is the station name, and the value is a station with the
+	 * name of the previous station in the route and the shortest distance from the origin
+	 */
+	public Map<String, Station> getShortestRoutes() {
+		return this.shortRoutes;
+	}
+
+	/**
+	 * Method that gives the shortest routes from the given origin to the other stations,
+	 * searching them the first time the origin is asked for.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is a station with the
+	 * name of the previous station in the route and the shortest distance from the origin
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public Map<String, Station> getShortestRoutes(String origin) {
+		if(getGraph().idOf(origin) == -1)
+			throw new IllegalArgumentException("Unknown origin: " + origin);
+		Map<String, Station> routes = this.routeTrees.get(origin);
+		if(routes != null)
+			return routes;
+		/* A tree added meanwhile by another thread wins */
+		return this.routeTrees.putIfAbsent(origin, findShortestDistance(origin));
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from the origin.
+	 * <p>
+	 * @return a map where the key is the station name, and the value is
+	 * the time it takes to reach that station.
+	 */
+	public Map<String, Double> getTravelTimes() {
+		Map<String, Double> result = this.travelTimes;
+		if(result == null) {
+			result = new ReadOnlyMap<>(boxed(getTravelTimeTable()));
+			this.travelTimes = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from the origin without boxing
+	 * the times. getTravelTimes() is built from this table.
+	 * <p>
+	 * @return a table where the key is the station name, and the value is
+	 * the time it takes to reach that station.
+	 */
+	public ObjectDoubleHashMap<String> getTravelTimeTable() {
+		ObjectDoubleHashMap<String> result = this.travelTimeTable;
+		if(result == null) {
+			result = computeTravelTimes(this.shortRoutes, this.origin);
+			result.makeReadOnly();
+			this.travelTimeTable = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from the given origin without
+	 * boxing the times. The origin of the snapshot is answered from getTravelTimeTable(), which
+	 * follows the default routes even after their tree left the cache.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a table where the key is the station name, and the value is
+	 * the time it takes to reach that station from the origin.
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public ObjectDoubleHashMap<String> getTravelTimeTable(String origin) {
+		if(origin.equals(this.origin))
+			return getTravelTimeTable();
+		return computeTravelTimes(getShortestRoutes(origin), origin);
+	}
+
+	/**
+	 * Method that gives the time it takes to get to a station from the origin.
+	 * <p>
+	 * @param stationName which represents the station the route ends at
+	 * @return the travel time in minutes
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	public double getTravelTime(String stationName) {
+		double time = getTravelTimeTable().get(stationName);
+		if(Double.isNaN(time))
+			throw new IllegalArgumentException("Unknown station: " + stationName);
+		return time;
+	}
+
+	/**
+	 * Method that gives the shortest distance from the origin to each station, read from the
+	 * shortest routes into a table that does not box the distances.
+	 * <p>
+	 * @return a table where the key is the station name, and the value is its shortest
+	 * distance from the origin (Integer.MAX_VALUE if it cannot be reached)
+	 */
+	public ObjectIntHashMap<String> getDistanceTable() {
+		ObjectIntHashMap<String> result = this.distanceTable;
+		if(result == null) {
+			result = new ObjectIntHashMap<>(Math.max(this.shortRoutes.size(), 1), ObjectIntHashMap.DEFAULT_LOAD_FACTOR, -1, new MurmurHashFunction<>());
+			for(Entry<String, Station> route : this.shortRoutes.entries())
+				result.put(route.getKey(), route.getValue().getDistance());
+			result.makeReadOnly();
+			this.distanceTable = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the shortest distance from the origin to a station.
+	 * <p>
+	 * @param stationName which represents the station the route ends at
+	 * @return the shortest distance or Integer.MAX_VALUE if the station cannot be reached
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	public int getDistance(String stationName) {
+		int distance = getDistanceTable().get(stationName);
+		if(distance == -1)
+			throw new IllegalArgumentException("Unknown station: " + stationName);
+		return distance;
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from the given origin. The
+	 * origin of the snapshot is answered from getTravelTimes().
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is
+	 * the time it takes to reach that station from the origin.
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public Map<String, Double> getTravelTimes(String origin) {
+		if(origin.equals(this.origin))
+			return getTravelTimes();
+		return boxed(getTravelTimeTable(origin));
+	}
+
+	/**
+	 * Method that lists every station with the time it takes to reach it from the origin, from
+	 * the closest to the farthest. Stations with the same time are in alphabetical order.
+	 * <p>
+	 * The list is built on every call with `ArrayList.sort`, so the caller may change it.
+	 * <p>
+	 * @return a list of pairs of station name and travel time, sorted by travel time
+	 */
+	public List<Entry<String, Double>> sortedTravelTimes() {
+		return sortedByTime(getTravelTimeTable());
+	}
+
+	/**
+	 * Method that lists every station with the time it takes to reach it from the given origin,
+	 * from the closest to the farthest.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a list of pairs of station name and travel time, sorted by travel time
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public List<Entry<String, Double>> sortedTravelTimes(String origin) {
+		return sortedByTime(getTravelTimeTable(origin));
+	}
+
+	/**
+	 * Method that gives the path from the origin to the station given, in the form
+	 * origin->stationA->.....stationZ->stationName.
+	 * <p>
+	 * @param stationName which represents the station whose route we want to trace
+	 * @return the path taken to reach stationName
+	 */
+	public String traceRoute(String stationName) {
+		return traceRoute(this.shortRoutes, this.origin, stationName);
+	}
+
+	/**
+	 * Method that gives the path from the given origin to the station given. The origin of the
+	 * snapshot is traced on the default routes, like traceRoute(stationName).
+	 * <p>
+	 * @param origin which represents the station the route starts from
+	 * @param stationName which represents the station whose route we want to trace
+	 * @return the path taken to reach stationName
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public String traceRoute(String origin, String stationName) {
+		if(origin.equals(this.origin))
+			return traceRoute(stationName);
+		if(this.allPairs != null)
+			return this.allPairs.traceRoute(origin, stationName);
+		return traceRoute(getShortestRoutes(origin), origin, stationName);
+	}
+
+	/**
+	 * Method that finds the shortest route between two stations with the router of this
+	 * snapshot, a bidirectional search unless another router was prepared.
+	 * <p>
+	 * A router reuses its search arrays, so each call runs on a router forked for it and never
+	 * waits for other queries. Forking allocates the search arrays of the whole network, so
+	 * TrainStationManager.route() is the one to use for repeated queries: it keeps the router of
+	 * each thread for as long as the snapshot is current.
+	 * <p>
+	 * @param from which represents the station the route starts from
+	 * @param to which represents the station the route ends at
+	 * @return the route with its distance, travel time and stations
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	public Route route(String from, String to) {
+		return forkRouter().route(from, to);
+	}
+
+	/**
+	 * Method that gives a router of its own for the calling thread, forked from the router of
+	 * this snapshot.
+	 * <p>
+	 * @return a router on the network of this snapshot that only the caller uses
+	 */
+	Router forkRouter() {
+		return prototype().fork();
+	}
+
+	/**
+	 * Gives the router the forked ones come from. Two threads asking at once may both create a
+	 * bidirectional one, either of them works.
+	 */
+	private Router prototype() {
+		Router result = this.router;
+		if(result == null) {
+			result = new BidirectionalRouter(getGraph());
+			this.router = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that gives the routes between every pair of stations, if they were precomputed.
+	 * <p>
+	 * @return the matrices of every pair of stations, or null
+	 */
+	public AllPairsTravelTimes getAllPairs() {
+		return this.allPairs;
+	}
+
+	/**
+	 * Method that gets how many route queries on this network were answered from the cache
+	 * of route trees.
+	 * <p>
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return this.routeTrees.getHits();
+	}
+
+	/**
+	 * Method that gets how many route queries on this network had to run a search.
+	 * <p>
+	 * @return the number of cache misses
+	 */
+	public long getCacheMisses() {
+		return this.routeTrees.getMisses();
+	}
+
+	/** Method: Calculates the shortest route from the given origin to every other station following
+	 * the logic given in the “Shortcuts to Victory” section. It returns
+	 * a new shortest route map.
+	 * <p>
+	 * The search itself is StationGraph.findShortestDistance(), which runs on the integer ids
+	 * of the graph: `dist` holds the best distance found so far for each station and `pred`
+	 * holds the id of the station it is reached from. The connections of a station are read
+	 * straight from the graph's arrays and the stations still to visit are kept in an
+	 * `IndexedMinHeap`, so the whole search is O((V + E) log V) instead of re-sorting a stack
+	 * on every insertion.
+	 * <p>
+	 * Once the search is done the arrays are copied into the returned map, where each
+	 * station keeps the name of the station it is reached from and its shortest distance.
+	 * Stations that cannot be reached keep the origin with a distance of Integer.MAX_VALUE.
+	 * <p>
+	 * @param originName which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is a station with the
+	 * name of the previous station in the route and the shortest distance from the origin
+	 */
+	private Map<String, Station> findShortestDistance(String originName) {
+		StationGraph graph = getGraph();
+		int n = graph.size();
+
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		graph.findShortestDistance(graph.idOf(originName), dist, pred, null, new IndexedMinHeap(n));
+
+		/* Copies the result into the routes map */
+		Map<String, Station> routes = MapType.configured().create(Math.max(n, 1), new MurmurHashFunction<>());
+		for(int i = 0; i < n; i++) {
+			routes.put(graph.nameOf(i), new Station(graph.nameOf(pred[i]), dist[i]));
+		}
+		return new ReadOnlyMap<>(routes);
+	}
+
+	/**
+	 * Method that gives a read-only view of a routes map, or the map itself if it already is one.
+	 * <p>
+	 * @param routes which represents the shortest routes from the origin
+	 * @return the routes, read-only
+	 */
+	private static Map<String, Station> readOnly(Map<String, Station> routes) {
+		return routes instanceof ReadOnlyMap || routes instanceof OverlayMap ? routes : new ReadOnlyMap<>(routes);
+	}
+
+	/**
+	 * Method that gives a routes map as an overlay that changed routes can be added to, sharing
+	 * the map instead of copying it.
+	 * <p>
+	 * @param routes which represents the shortest routes from the origin, never written to
+	 * @return the routes as an overlay
+	 */
+	@SuppressWarnings("unchecked")
+	private static OverlayMap<String, Station> overlay(Map<String, Station> routes) {
+		if(routes instanceof OverlayMap)
+			return (OverlayMap<String, Station>) routes;
+		return new OverlayMap<>(routes, new MurmurHashFunction<>());
+	}
+
+	/**
+	 * Method that calculates the travel times of a shortest route tree.
+	 * <p>
+	 * @param routes which represents the shortest routes from the origin
+	 * @param origin which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is
+	 * the time it takes to reach that station.
+	 */
+	private static ObjectDoubleHashMap<String> computeTravelTimes(Map<String, Station> routes, String origin) {
+		// 2.5 minutes per kilometer (use the shortest distance for this)
+		// 15 min per station (between the origin and the destination)
+
+		ObjectDoubleHashMap<String> travelTimes = new ObjectDoubleHashMap<>(Math.max(routes.size(), 1), new MurmurHashFunction<>());
+		/* Stations between each station and the origin, so each route is walked only once */
+		ObjectIntHashMap<String> hops = new ObjectIntHashMap<>(Math.max(routes.size(), 1), ObjectIntHashMap.DEFAULT_LOAD_FACTOR, -1, new MurmurHashFunction<>());
+		hops.put(origin, 0);
+		Stack<String> unresolved = new ArrayDeque<String>();
+
+		for(Entry<String, Station> route : routes.entries()) {
+			Station s = route.getValue();
+
+			/* Walks back until a station whose hops are known, then fills in the ones walked over */
+			String shortRouteCity = s.getCityName();
+			int known;
+			while((known = hops.get(shortRouteCity)) == -1) {
+				unresolved.push(shortRouteCity);
+				shortRouteCity = routes.get(shortRouteCity).getCityName();
+			}
+			int stationsBetween = known;
+			while(!unresolved.isEmpty())
+				hops.put(unresolved.pop(), ++stationsBetween);
+
+			travelTimes.put(route.getKey(), s.getDistance() * 2.5 + 15 * stationsBetween);
+		}
+
+		return travelTimes;
+	}
+
+	/**
+	 * Method that copies a table of travel times into a list sorted by travel time.
+	 * <p>
+	 * @param table which represents the travel times of a route tree
+	 * @return the stations and their times, from the closest to the farthest
+	 */
+	private static List<Entry<String, Double>> sortedByTime(ObjectDoubleHashMap<String> table) {
+		List<Entry<String, Double>> result = new ArrayList<>(table.size());
+		table.forEach((station, time) -> result.add(new TravelTime(station, time)));
+		result.sort(BY_TRAVEL_TIME);
+		return result;
+	}
+
+	/**
+	 * One station of sortedTravelTimes() with the time it takes to reach it.
+	 */
+	private static final class TravelTime implements Entry<String, Double> {
+		private final String station;
+		private final Double time;
+
+		TravelTime(String station, double time) {
+			this.station = station;
+			this.time = time;
+		}
+
+		public String getKey() {return station;}
+		public Double getValue() {return time;}
+
+		public String toString() {
+			return station + "=" + time;
+		}
+	}
+
+	/**
+	 * Method that copies a table of travel times into a map, for the callers that want a Map.
+	 * <p>
+	 * @param table which represents the travel times of a route tree
+	 * @return a map with the same stations and times
+	 */
+	private static Map<String, Double> boxed(ObjectDoubleHashMap<String> table) {
+		Map<String, Double> travelTimes = MapType.configured().create(Math.max(table.size(), 1), new MurmurHashFunction<>());
+		table.forEach((station, time) -> travelTimes.put(station, time));
+		return travelTimes;
+	}
+
+	/**
+	 * Builds the path to the station given by walking back through a shortest route tree.
+	 * <p>
+	 * @param routes - shortest routes from the origin
+	 * @param origin - Name of the station the routes start from
+	 * @param stationName - Name of the station whose route we want to trace
+	 * @return (String) String representation of the path taken to reach stationName.
+	 */
+	private static String traceRoute(Map<String, Station> routes, String origin, String stationName) {
+	    String stationInstance = stationName;
+	    String route = "";
+
+	    Stack<String> trace = new ArrayDeque<String>();
+
+	    if(!stationInstance.equals(origin)) {
+	        trace.push(stationInstance);
+	    } else {
+	        return origin;
+	    }
+
+	    while (!stationInstance.equals(origin)) {
+	        Station stationValue = routes.get(stationInstance);
+	        stationInstance = stationValue.getCityName();
+	        trace.push(stationInstance);
+	    }
+
+	    // Initialize a boolean flag to check if the first station has been processed
+	    boolean firstStationProcessed = false;
+
+	    while (!trace.isEmpty()) {
+	        String nextStation = trace.pop();
+	        // Check if the next station is the first station in the route
+	        if (!firstStationProcessed) {
+	            // Update the route without adding "->" before the first station
+	            route += nextStation;
+	            firstStationProcessed = true;
+	        } else {
+	            // Update the route by adding "->" before stations except the first one
+	            route += "->" + nextStation;
+	        }
+	    }
+
+	    return route;
+	}
+
+}
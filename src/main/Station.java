@@ -77,6 +77,15 @@ public class Station {
 		return this.getCityName().equals(other.getCityName()) && this.getDistance() == other.getDistance();
 	}
 	
+	/**
+	 * Hash code that agrees with equals(), so stations can be kept in hash based sets
+	 * without being turned into Strings.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * this.getCityName().hashCode() + this.getDistance();
+	}
+	
 	/**
 	 * Method that converts the obj of Station into a string in the format of (city_name, distance).
 	 * <p>
@@ -0,0 +1,301 @@
+package main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import data_structures.ArrayList;
+import interfaces.List;
+
+/**
+ * Class that reads a station file (a header line followed by "src_city,dest_city,distance"
+ * lines) straight into a `ConnectionBuffer`.
+ * <p>
+ * The file is read in blocks into one reusable byte buffer and every line is scanned in
+ * place: the commas are found by position, the distance is parsed digit by digit and the two
+ * names are looked up in a symbol table keyed by their bytes. A name only becomes a String
+ * the first time it is seen, so after the first few lines a line costs no allocation at all
+ * and reading a large file is limited by the disk instead of the garbage collector.
+ * <p>
+ * A line that does not have three fields or whose distance is not a non-negative integer is
+ * skipped and recorded with its line number, so a bad line does not stop the rest of the file
+ * from loading. Fields after the third one are ignored and blank lines are skipped.
+ */
+public class StationFileParser {
+
+	private static final int BLOCK_SIZE = 1 << 16;
+	private static final int INITIAL_SYMBOLS = 1024;
+
+	private ConnectionBuffer buffer;
+	private byte[] block = new byte[BLOCK_SIZE];
+	private boolean header;
+	private int lineNumber;
+	private int lineOffset;
+	private long bytesRead;
+	// Skipped lines: their numbers (without lineOffset) and the reason
+	private int[] errorLines = new int[16];
+	private List<String> errorReasons = new ArrayList<>();
+
+	// Symbol table: open addressing over the bytes of every name seen so far
+	private int[] slots;
+	private int symbolCount;
+	private int[] symbolHash;
+	private int[] symbolStart;
+	private int[] symbolLength;
+	private int[] symbolId;
+	private byte[] pool = new byte[BLOCK_SIZE];
+	private int poolSize;
+
+	/**
+	 * Constructor that creates a parser that adds the connections to the given buffer.
+	 * <p>
+	 * @param buffer which represents where the stations and connections are collected
+	 */
+	public StationFileParser(ConnectionBuffer buffer) {
+		this(buffer, true);
+	}
+
+	/**
+	 * Constructor used for the chunks of a file after the first one, which have no header.
+	 * <p>
+	 * @param buffer which represents where the stations and connections are collected
+	 * @param header which represents if the first line is a header that must be skipped
+	 */
+	StationFileParser(ConnectionBuffer buffer, boolean header) {
+		this.buffer = buffer;
+		this.header = header;
+		this.slots = new int[INITIAL_SYMBOLS * 2];
+		this.symbolHash = new int[INITIAL_SYMBOLS];
+		this.symbolStart = new int[INITIAL_SYMBOLS];
+		this.symbolLength = new int[INITIAL_SYMBOLS];
+		this.symbolId = new int[INITIAL_SYMBOLS];
+	}
+
+	/**
+	 * Method that reads every line of a station file, skipping the header line, and adds each
+	 * connection in both directions to the buffer.
+	 * <p>
+	 * @param in which represents the contents of the file, it is not closed
+	 * @throws IOException if the stream cannot be read
+	 */
+	public void parse(InputStream in) throws IOException {
+		int length = 0; // bytes of the block that still have to be scanned
+		int read;
+		while((read = in.read(block, length, block.length - length)) != -1)
+			length = scan(length, read);
+		finish(length);
+	}
+
+	/**
+	 * Method that reads every line in the remaining bytes of a buffer, such as a memory
+	 * mapped part of a file, the same way parse(InputStream) does.
+	 * <p>
+	 * @param bytes which represents the contents to read, it is left with nothing remaining
+	 */
+	public void parse(ByteBuffer bytes) {
+		int length = 0;
+		while(bytes.hasRemaining()) {
+			int read = Math.min(bytes.remaining(), block.length - length);
+			bytes.get(block, length, read);
+			length = scan(length, read);
+		}
+		finish(length);
+	}
+
+	/**
+	 * Scans the lines completed by the last read bytes, moves the unfinished line to the front
+	 * of the block, growing it if a line fills it, and returns how many bytes are left in it.
+	 */
+	private int scan(int length, int read) {
+		bytesRead += read;
+		int start = 0;
+		for(int i = length; i < length + read; i++) {
+			if(block[i] == '\n') {
+				line(start, i);
+				start = i + 1;
+			}
+		}
+		length += read - start;
+		System.arraycopy(block, start, block, 0, length);
+		if(length == block.length)
+			block = Arrays.copyOf(block, block.length * 2);
+		return length;
+	}
+
+	/* The last line may not end with a line break */
+	private void finish(int length) {
+		if(length > 0)
+			line(0, length);
+	}
+
+	/**
+	 * Method that gives the lines that were skipped, as "line N: reason" messages.
+	 * <p>
+	 * @return the list of errors, empty if every line was read
+	 */
+	public List<String> getErrors() {
+		List<String> result = new ArrayList<>(Math.max(errorReasons.size(), 1));
+		for(int i = 0; i < errorReasons.size(); i++)
+			result.add("line " + (errorLines[i] + lineOffset) + ": " + errorReasons.get(i));
+		return result;
+	}
+
+	/**
+	 * Method that gives the amount of lines read, counting the header.
+	 * <p>
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return this.lineNumber;
+	}
+
+	/**
+	 * Sets how many lines of the file come before the part this parser read, so the line
+	 * numbers of the errors count from the start of the file.
+	 */
+	void setLineOffset(int lineOffset) {
+		this.lineOffset = lineOffset;
+	}
+
+	/**
+	 * Method that gives the amount of bytes read.
+	 * <p>
+	 * @return the number of bytes
+	 */
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	/**
+	 * Handles the line in block[start, end).
+	 */
+	private void line(int start, int end) {
+		lineNumber++;
+		if(end > start && block[end - 1] == '\r')
+			end--;
+		if(header) {
+			header = false;
+			return;
+		}
+		if(end == start)
+			return;
+
+		int firstComma = indexOf(',', start, end);
+		int secondComma = firstComma == -1 ? -1 : indexOf(',', firstComma + 1, end);
+		if(secondComma == -1) {
+			error("expected src_city,dest_city,distance");
+			return;
+		}
+		int fieldEnd = indexOf(',', secondComma + 1, end);
+		int distance = parseDistance(secondComma + 1, fieldEnd == -1 ? end : fieldEnd);
+		if(distance < 0) {
+			error("distance is not a non-negative integer");
+			return;
+		}
+
+		int source = symbol(start, firstComma);
+		int target = symbol(firstComma + 1, secondComma);
+		buffer.add(source, target, distance);
+		buffer.add(target, source, distance);
+	}
+
+	private void error(String reason) {
+		if(errorReasons.size() == errorLines.length)
+			errorLines = Arrays.copyOf(errorLines, errorLines.length * 2);
+		errorLines[errorReasons.size()] = lineNumber;
+		errorReasons.add(reason);
+	}
+
+	private int indexOf(char c, int start, int end) {
+		for(int i = start; i < end; i++)
+			if(block[i] == c)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Parses the digits in block[start, end), returns -1 if there are none, there is any other
+	 * character or the value does not fit in an int.
+	 */
+	private int parseDistance(int start, int end) {
+		if(start == end)
+			return -1;
+		int value = 0;
+		for(int i = start; i < end; i++) {
+			int digit = block[i] - '0';
+			if(digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10)
+				return -1;
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Gives the buffer id of the name in block[start, end), interning it the first time.
+	 */
+	private int symbol(int start, int end) {
+		// FNV-1a over the bytes of the name
+		int hash = 0x811c9dc5;
+		for(int i = start; i < end; i++)
+			hash = (hash ^ (block[i] & 0xff)) * 0x01000193;
+
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while(slots[slot] != 0) {
+			int s = slots[slot] - 1;
+			if(symbolHash[s] == hash && sameBytes(s, start, end))
+				return symbolId[s];
+			slot = (slot + 1) & mask;
+		}
+
+		/* First time the name is seen */
+		int length = end - start;
+		if(symbolCount == symbolHash.length) {
+			int capacity = symbolCount * 2;
+			symbolHash = Arrays.copyOf(symbolHash, capacity);
+			symbolStart = Arrays.copyOf(symbolStart, capacity);
+			symbolLength = Arrays.copyOf(symbolLength, capacity);
+			symbolId = Arrays.copyOf(symbolId, capacity);
+		}
+		if(poolSize + length > pool.length)
+			pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+		System.arraycopy(block, start, pool, poolSize, length);
+		int s = symbolCount++;
+		symbolHash[s] = hash;
+		symbolStart[s] = poolSize;
+		symbolLength[s] = length;
+		symbolId[s] = buffer.intern(new String(block, start, length, StandardCharsets.UTF_8));
+		poolSize += length;
+		slots[slot] = s + 1;
+		if(symbolCount * 2 > slots.length)
+			rehash();
+		return symbolId[s];
+	}
+
+	private boolean sameBytes(int s, int start, int end) {
+		if(symbolLength[s] != end - start)
+			return false;
+		int offset = symbolStart[s];
+		for(int i = start; i < end; i++)
+			if(pool[offset++] != block[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Doubles the slots so they stay at most half full.
+	 */
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for(int s = 0; s < symbolCount; s++) {
+			int slot = symbolHash[s] & mask;
+			while(slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = s + 1;
+		}
+	}
+
+}
@@ -74,26 +74,33 @@ public class StationGUI extends JFrame {
         JTextArea stationInfoArea = new JTextArea();
         stationInfoArea.setEditable(false);
         stationInfoArea.append("Station Departure Arrival\n");
-        interfaces.Map<String, Double> travelTimes = manager.getTravelTimes();
-        for (String station : travelTimes.getKeys()) {
+        // The table and the list of stations read the same version of the routes
+        RoutingSnapshot snapshot = manager.getSnapshot();
+        snapshot.getTravelTimeTable().forEach((station, travelTime) -> {
             if (!station.equals("Westside")) { // Exclude "Westside"
                 String departureTime = getDepartureTime(station);
-                String arrivalTime = getArrivalTime(station, travelTimes.get(station));
+                String arrivalTime = getArrivalTime(station, travelTime);
                 stationInfoArea.append(station + " " + departureTime + " " + arrivalTime + "\n");
             }
-        }
+        });
 
         JScrollPane scrollPane = new JScrollPane(stationInfoArea);
         mainPanel.add(scrollPane, BorderLayout.CENTER);
 
         // Display route for selected station
         JComboBox<String> stationComboBox = new JComboBox<>();
-        for (String station : manager.getShortestRoutes().getKeys()) {
+        for (String station : snapshot.getShortestRoutes().keys()) {
                 stationComboBox.addItem(station);
         }
         stationComboBox.addActionListener(e -> {
             String selectedStation = (String) stationComboBox.getSelectedItem();
-            String route = manager.traceRoute(selectedStation);
+            // The routes may have changed since the window was built, trace on the current ones
+            RoutingSnapshot current = manager.getSnapshot();
+            if (!current.getShortestRoutes().containsKey(selectedStation)) {
+                JOptionPane.showMessageDialog(this, selectedStation + " is no longer a station");
+                return;
+            }
+            String route = current.traceRoute(selectedStation);
             JOptionPane.showMessageDialog(this, "Route: " + route);
         });
 
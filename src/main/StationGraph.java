@@ -0,0 +1,456 @@
+package main;
+
+import java.util.Arrays;
+
+import data_structures.ArrayList;
+import data_structures.LongHashSet;
+import data_structures.MapType;
+import data_structures.MurmurHashFunction;
+import interfaces.Entry;
+import interfaces.IndexedPriorityQueue;
+import interfaces.List;
+import interfaces.Map;
+
+/**
+ * Class that stores how the stations are interconnected in compressed sparse row (CSR) form.
+ * <p>
+ * Every station name is interned to a dense integer id between 0 and size() - 1. The
+ * connections that leave station u are stored one after the other in two parallel arrays,
+ * `targets` (id of the station at the other end) and `weights` (distance of the connection),
+ * between the positions offsets[u] and offsets[u + 1]. A connection therefore costs two ints
+ * instead of a `Station` object and its `String`, and walking the neighbors of a station is a
+ * plain array scan with no hashing and no allocation.
+ * <p>
+ * The graph is immutable once it is built. A network that changed a few connections can be
+ * described as the graph before the change plus a `Patch` with the new connections of the
+ * stations that changed, and packed from both when it is needed.
+ */
+public class StationGraph {
+
+	/**
+	 * The connections a station has after a change, linked to the ones of earlier changes.
+	 * <p>
+	 * A patch never changes, so a new change only adds a patch in front and every older chain
+	 * stays valid. When a station appears more than once, the patch closest to the front wins.
+	 */
+	static final class Patch {
+		final int station;
+		final String name;
+		final int[] targets;
+		final int[] weights;
+		/* Amount of stations of the network after this change, new stations get the next ids */
+		final int stationCount;
+		final Patch next;
+		/* Amount of patches in the chain, this one included */
+		final int depth;
+
+		Patch(int station, String name, int[] targets, int[] weights, int stationCount, Patch next) {
+			this.station = station;
+			this.name = name;
+			this.targets = targets;
+			this.weights = weights;
+			this.stationCount = stationCount;
+			this.next = next;
+			this.depth = next == null ? 1 : next.depth + 1;
+		}
+	}
+
+	/* Stations with more connections than this find the repeated ones with a hash set */
+	static final int SCANNED_CONNECTIONS = 8;
+
+	private final String[] names;
+	private final Map<String, Integer> ids;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+	/*
+	 * Same graph with every connection turned around, built the first time it is asked for.
+	 * Two threads asking at once may both build it, either of them is kept.
+	 */
+	private volatile StationGraph reverse;
+
+	/**
+	 * Constructor that packs the connections collected in a buffer into CSR form.
+	 * <p>
+	 * The connections of every station keep the order in which they were added. A connection
+	 * that repeats an earlier one with the same source, target and distance is ignored, which
+	 * is the same rule the `stations` map uses when it is loaded from a file.
+	 * <p>
+	 * @param buffer which represents the stations and connections to pack
+	 */
+	public StationGraph(ConnectionBuffer buffer) {
+		int stationCount = buffer.stationCount();
+		int connectionCount = buffer.size();
+		int[] from = buffer.from();
+		int[] to = buffer.to();
+		int[] distance = buffer.distance();
+
+		this.names = Arrays.copyOf(buffer.names(), stationCount);
+		this.ids = MapType.configured().create(Math.max(stationCount, 1), new MurmurHashFunction<>());
+		for(int i = 0; i < stationCount; i++)
+			this.ids.put(this.names[i], i);
+
+		/* Counts the connections of each station and turns the counts into offsets */
+		this.offsets = new int[stationCount + 1];
+		for(int e = 0; e < connectionCount; e++)
+			this.offsets[from[e] + 1]++;
+		for(int u = 0; u < stationCount; u++)
+			this.offsets[u + 1] += this.offsets[u];
+
+		/* Places each connection in the range of its source, in the order they were added */
+		int[] fill = Arrays.copyOf(this.offsets, stationCount);
+		int[] packedTargets = new int[connectionCount];
+		int[] packedWeights = new int[connectionCount];
+		for(int e = 0; e < connectionCount; e++) {
+			int position = fill[from[e]]++;
+			packedTargets[position] = to[e];
+			packedWeights[position] = distance[e];
+		}
+
+		/*
+		 * Skips the repeated connections of each station and closes the gaps they leave. A few
+		 * connections are compared with each other, a station with more of them checks its
+		 * (target, distance) pairs in a hash set so a hub of the network stays O(degree).
+		 */
+		int next = 0;
+		int end = 0;
+		for(int u = 0; u < stationCount; u++) {
+			int start = end;
+			end = this.offsets[u + 1];
+			this.offsets[u] = next;
+			LongHashSet seen = end - start > SCANNED_CONNECTIONS ? new LongHashSet(end - start) : null;
+			for(int e = start; e < end; e++) {
+				boolean repeated;
+				if(seen != null) {
+					repeated = !seen.add(pair(packedTargets[e], packedWeights[e]));
+				}
+				else {
+					repeated = false;
+					for(int i = this.offsets[u]; i < next && !repeated; i++)
+						repeated = packedTargets[i] == packedTargets[e] && packedWeights[i] == packedWeights[e];
+				}
+				if(!repeated) {
+					packedTargets[next] = packedTargets[e];
+					packedWeights[next] = packedWeights[e];
+					next++;
+				}
+			}
+		}
+		this.targets = next < connectionCount ? Arrays.copyOf(packedTargets, next) : packedTargets;
+		this.weights = next < connectionCount ? Arrays.copyOf(packedWeights, next) : packedWeights;
+		this.offsets[stationCount] = next;
+	}
+
+	/**
+	 * Constructor that packs a map of stations, where each key holds the list of stations it
+	 * is connected to, into CSR form.
+	 * <p>
+	 * @param stations which represents the map of connections to pack
+	 */
+	public StationGraph(Map<String, List<Station>> stations) {
+		this(toBuffer(stations));
+	}
+
+	/**
+	 * Constructor that packs a graph with the connections of the stations in a chain of
+	 * patches replaced, in O(V + E) like packing a buffer but without collecting every
+	 * connection again. Stations the patches add are appended after the ones of the graph.
+	 * <p>
+	 * @param base which represents the network before the changes
+	 * @param patch which represents the newest change, linked to the older ones
+	 */
+	StationGraph(StationGraph base, Patch patch) {
+		int stationCount = patch.stationCount;
+		/* Newest patch of every station */
+		Patch[] latest = new Patch[stationCount];
+		for(Patch p = patch; p != null; p = p.next) {
+			if(latest[p.station] == null)
+				latest[p.station] = p;
+		}
+
+		if(stationCount == base.size()) {
+			this.names = base.names;
+			this.ids = base.ids;
+		}
+		else {
+			this.names = Arrays.copyOf(base.names, stationCount);
+			for(int u = base.size(); u < stationCount; u++)
+				this.names[u] = latest[u].name;
+			this.ids = MapType.configured().create(stationCount, new MurmurHashFunction<>());
+			for(int u = 0; u < stationCount; u++)
+				this.ids.put(this.names[u], u);
+		}
+
+		this.offsets = new int[stationCount + 1];
+		for(int u = 0; u < stationCount; u++) {
+			int count = latest[u] != null ? latest[u].targets.length : base.offsets[u + 1] - base.offsets[u];
+			this.offsets[u + 1] = this.offsets[u] + count;
+		}
+		this.targets = new int[this.offsets[stationCount]];
+		this.weights = new int[this.offsets[stationCount]];
+		for(int u = 0; u < stationCount; u++) {
+			int start = this.offsets[u];
+			if(latest[u] != null) {
+				System.arraycopy(latest[u].targets, 0, this.targets, start, latest[u].targets.length);
+				System.arraycopy(latest[u].weights, 0, this.weights, start, latest[u].weights.length);
+			}
+			else {
+				System.arraycopy(base.targets, base.offsets[u], this.targets, start, base.offsets[u + 1] - base.offsets[u]);
+				System.arraycopy(base.weights, base.offsets[u], this.weights, start, base.offsets[u + 1] - base.offsets[u]);
+			}
+		}
+	}
+
+	/**
+	 * Constructor used by reverse(), it shares the names and ids of the original graph.
+	 */
+	private StationGraph(String[] names, Map<String, Integer> ids, int[] offsets, int[] targets, int[] weights) {
+		this.names = names;
+		this.ids = ids;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * Method that gives the amount of stations in the graph.
+	 * <p>
+	 * @return the number of stations
+	 */
+	public int size() {
+		return this.names.length;
+	}
+
+	/**
+	 * Method that gives the amount of directed connections in the graph.
+	 * <p>
+	 * @return the number of connections
+	 */
+	public int connectionCount() {
+		return this.targets.length;
+	}
+
+	/**
+	 * Method that gives the id of a station.
+	 * <p>
+	 * @param name of the station
+	 * @return the id of the station or -1 if there is no station with that name
+	 */
+	public int idOf(String name) {
+		if(name == null)
+			return -1;
+		Integer id = this.ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Method that gives the name of a station.
+	 * <p>
+	 * @param id of the station
+	 * @return the name of the station
+	 */
+	public String nameOf(int id) {
+		return this.names[id];
+	}
+
+	/**
+	 * Method that gives the position of the first connection of a station.
+	 * <p>
+	 * @param id of the station
+	 * @return position of its first connection in the targets and weights arrays
+	 */
+	public int firstConnection(int id) {
+		return this.offsets[id];
+	}
+
+	/**
+	 * Method that gives the position right after the last connection of a station.
+	 * <p>
+	 * @param id of the station
+	 * @return position after its last connection in the targets and weights arrays
+	 */
+	public int endConnection(int id) {
+		return this.offsets[id + 1];
+	}
+
+	/**
+	 * Method that gives the station at the other end of a connection.
+	 * <p>
+	 * @param connection position of the connection
+	 * @return id of the target station
+	 */
+	public int target(int connection) {
+		return this.targets[connection];
+	}
+
+	/**
+	 * Method that gives the distance of a connection.
+	 * <p>
+	 * @param connection position of the connection
+	 * @return distance of the connection
+	 */
+	public int weight(int connection) {
+		return this.weights[connection];
+	}
+
+	/**
+	 * Method that gives a checksum of the names and connections of the graph. Two graphs with
+	 * the same stations, ids and connections have the same checksum, so it can be used to check
+	 * that data saved for one graph, such as landmark tables, belongs to the graph being loaded.
+	 * <p>
+	 * @return the checksum of the graph
+	 */
+	public long checksum() {
+		long result = 1125899906842597L;
+		for(String name : this.names)
+			result = 31 * result + name.hashCode();
+		for(int offset : this.offsets)
+			result = 31 * result + offset;
+		for(int i = 0; i < this.targets.length; i++)
+			result = 31 * (31 * result + this.targets[i]) + this.weights[i];
+		return result;
+	}
+
+	/**
+	 * Packs the station at the other end of a connection and its distance into one value, for
+	 * the hash sets that find repeated connections.
+	 */
+	static long pair(int target, int weight) {
+		return ((long) target << 32) | (weight & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Method that gives the graph with every connection turned around, so a search on it
+	 * walks routes backwards from their destination. Networks loaded from a station file are
+	 * symmetric, but a map given to the constructor does not have to be.
+	 * <p>
+	 * The reverse graph is built with a counting pass over the arrays the first time it is
+	 * asked for and reused afterwards.
+	 * <p>
+	 * @return the reverse graph, which shares the station ids of this one
+	 */
+	public StationGraph reverse() {
+		StationGraph result = this.reverse;
+		if(result == null) {
+			int n = size();
+			int[] reverseOffsets = new int[n + 1];
+			for(int e = 0; e < this.targets.length; e++)
+				reverseOffsets[this.targets[e] + 1]++;
+			for(int u = 0; u < n; u++)
+				reverseOffsets[u + 1] += reverseOffsets[u];
+			int[] fill = Arrays.copyOf(reverseOffsets, n);
+			int[] reverseTargets = new int[this.targets.length];
+			int[] reverseWeights = new int[this.targets.length];
+			for(int u = 0; u < n; u++) {
+				for(int e = this.offsets[u]; e < this.offsets[u + 1]; e++) {
+					int position = fill[this.targets[e]]++;
+					reverseTargets[position] = u;
+					reverseWeights[position] = this.weights[e];
+				}
+			}
+			result = new StationGraph(this.names, this.ids, reverseOffsets, reverseTargets, reverseWeights);
+			result.reverse = this;
+			this.reverse = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Method that runs Dijkstra's algorithm from the given station over the arrays of the graph.
+	 * <p>
+	 * The stations still to visit are kept in an indexed min priority queue, so the closest
+	 * one is removed in O(log V) and a shorter route to a station that is already waiting only
+	 * lowers its key in place. Because distances are never negative, a station that left the
+	 * queue can never be improved again, so no separate visited set is needed. The whole search
+	 * is O((V + E) log V) and does not allocate: the caller owns every array and the queue, so
+	 * they can be reused from one search to the next.
+	 * <p>
+	 * Stations that cannot be reached keep a distance of Integer.MAX_VALUE and the origin as
+	 * their previous station.
+	 * <p>
+	 * @param origin which represents the id of the station the routes start from
+	 * @param dist which receives the shortest distance to every station
+	 * @param pred which receives the id of the previous station in the route to every station
+	 * @param hops which receives how many connections the route to every station uses, it may be null
+	 * @param toVisit which represents an empty queue that can hold every id of the graph
+	 * @return how many stations were settled (removed from the queue)
+	 */
+	public int findShortestDistance(int origin, int[] dist, int[] pred, int[] hops, IndexedPriorityQueue toVisit) {
+		int n = size();
+		for(int i = 0; i < n; i++) {
+			dist[i] = Integer.MAX_VALUE;
+			pred[i] = origin;
+		}
+		if(hops != null)
+			hops[origin] = 0;
+
+		int settled = 0;
+		dist[origin] = 0;
+		toVisit.insert(origin, 0);
+		while(!toVisit.isEmpty()) {
+			int current = toVisit.extractMin(); // Closest station that hasn't been visited
+			settled++;
+			int end = this.offsets[current + 1];
+			for(int e = this.offsets[current]; e < end; e++) {
+				int neighbor = this.targets[e];
+				/* Variable: stores the distance to the neighbor when going through the current station */
+				int addition = dist[current] + this.weights[e];
+				if(addition < dist[neighbor]) {
+					dist[neighbor] = addition;
+					pred[neighbor] = current;
+					if(hops != null)
+						hops[neighbor] = hops[current] + 1;
+					if(toVisit.contains(neighbor)) {
+						toVisit.decreaseKey(neighbor, addition);
+					} else {
+						toVisit.insert(neighbor, addition);
+					}
+				}
+			}
+		}
+		return settled;
+	}
+
+	/**
+	 * Method that builds the map representation of the graph, where each station name holds
+	 * the list of stations it is connected to, in the same order as the graph.
+	 * <p>
+	 * @return a new map of the connections of every station
+	 */
+	public Map<String, List<Station>> toStationMap() {
+		Map<String, List<Station>> result = MapType.configured().create(Math.max(size(), 1), new MurmurHashFunction<>());
+		for(int u = 0; u < size(); u++) {
+			int start = this.offsets[u], end = this.offsets[u + 1];
+			List<Station> neighbors = new ArrayList<>(Math.max(end - start, 1));
+			for(int e = start; e < end; e++)
+				neighbors.add(new Station(this.names[this.targets[e]], this.weights[e]));
+			result.put(this.names[u], neighbors);
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the connections of a map of stations into a buffer. Every key is interned
+	 * first so the ids follow the order of the keys.
+	 */
+	private static ConnectionBuffer toBuffer(Map<String, List<Station>> stations) {
+		int total = 0;
+		for(List<Station> neighbors : stations.values())
+			total += neighbors.size();
+		ConnectionBuffer buffer = new ConnectionBuffer(stations.size(), total);
+		for(String name : stations.keys())
+			buffer.intern(name);
+		for(Entry<String, List<Station>> entry : stations.entries()) {
+			int source = buffer.intern(entry.getKey());
+			for(Station s : entry.getValue()) {
+				/* Every key was interned above, so a larger id is a station that is not a key */
+				int target = buffer.intern(s.getCityName());
+				if(target >= stations.size())
+					throw new IllegalArgumentException("Unknown station: " + s.getCityName());
+				buffer.add(source, target, s.getDistance());
+			}
+		}
+		return buffer;
+	}
+
+}
@@ -1,23 +1,20 @@
 package main;
 
+import interfaces.Entry;
 import interfaces.List;
 import interfaces.Map;
+import interfaces.Set;
 import interfaces.Stack;
 
 /* My imports below */
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
 
-import data_structures.HashTableSC;
-import data_structures.SimpleHashFunction;
-import data_structures.SinglyLinkedList;
+import data_structures.ArrayDeque;
 import data_structures.ArrayList;
-import data_structures.DoublyLinkedList;
-import main.Station;
-import data_structures.LinkedStack;
-import data_structures.HashSet;
-import data_structures.ListQueue;
+import data_structures.ObjectDoubleHashMap;
 
 /**
  * Class that manipulates two maps, one (shortRoutes) that handles the shortest 
@@ -26,176 +23,129 @@ import data_structures.ListQueue;
  * it takes to get to these stations from Westside. Other than that, it has a method
  * that helps with the sorting of a stack.
  * <p>
- * The combination of HashTableSC and ArrayList data structures 
- * ensures efficient storage, retrieval, and manipulation of station 
+ * Routes and travel times can also be asked for from any other origin. Those shortest
+ * route trees are computed on demand from the same `StationGraph` and kept in a
+ * bounded `RouteTreeCache`, so repeated queries from popular origins skip the search entirely.
+ * <p>
+ * The connections are kept in a `StationGraph` (compressed sparse row arrays indexed by
+ * integer station ids) and the shortest route information in HashTableSC maps, 
+ * which ensures efficient storage, retrieval, and manipulation of station 
  * data and shortest route information, making the algorithm well-suited 
- * for handling large datasets and frequent queries.
+ * for handling large datasets and frequent queries. Setting the system property
+ * "data_structures.map" to "robin_hood" builds them as open addressing
+ * `RobinHoodHashMap`s instead (see `MapType`).
+ * <p>
+ * All of that state lives in an immutable `RoutingSnapshot` behind one volatile reference,
+ * so one manager can answer queries from many threads. Methods that change the network or
+ * the routes build a new snapshot off to the side while readers keep using the current one,
+ * and then swap it in with a single write; those methods run one at a time. A reader that
+ * needs several answers from the same version of the network can take getSnapshot() once.
  */
 public class TrainStationManager {
 	
-	private Map<String, List<Station>> stations = new HashTableSC<>(1, new SimpleHashFunction<>());
-	private String[] parts;
-	private String src_city;
-	private String stationString;
-	private String dest_city;
-	private int distance;
-	private Map<String, Station> shortRoutes = new HashTableSC<>(1, new SimpleHashFunction<>());
-	
-	/** Constructor: Reads the file given by station_file and populates the stations map 
-	 * <p>
-	 * Efficiently populates the `stations` map using 
-	 * two ArrayLists for storing the stations connected to each city. ArrayLists are efficient 
-	 * for this task because they provide constant-time access to elements by index, which is 
-	 * essential for quickly accessing and updating the list of connected stations for each city. 
-	 * Additionally, ArrayLists dynamically resize to accommodate any number of stations, 
-	 * ensuring efficient memory utilization without the need for manual resizing. 
-	 * By using ArrayLists, the algorithm ensures fast access to station data and dynamic
-	 *  scalability to handle varying numbers of stations, making it well-suited for 
-	 *  processing large datasets of train station information.
+	private static final String DEFAULT_ORIGIN = "Westside";
+	
+	/* Network, routes and everything derived from them, replaced as a whole on every change */
+	private volatile RoutingSnapshot snapshot;
+	/* Route tree of the default origin, kept up to date by the changes of connections */
+	private DynamicRouteTree dynamicRoutes;
+	/* Router of each thread and the snapshot it was forked from, forked again when it is replaced */
+	private final ThreadLocal<ThreadRouter> routers = new ThreadLocal<>();
+	/* File the stations were read from, landmark tables are saved next to it */
+	private String stationFile;
+	
+	/** Constructor: Reads the file given by station_file and builds the graph of stations 
+	 * <p>
+	 * The file is read by a `StationFileParser`, which scans each line in place and adds it
+	 * to a `ConnectionBuffer` that interns both station names to integer ids and appends the
+	 * connection in both directions to flat int arrays. Lines that cannot be read are
+	 * reported with their line number on the error stream and skipped. Once
+	 * the file is read the buffer is packed into a `StationGraph` in compressed sparse row
+	 * form, so each connection costs two ints instead of a `Station` object. A connection
+	 * that repeats an earlier one with the same distance is only kept once, like before.
+	 * The `stations` map is no longer filled while reading; getStations() builds it from
+	 * the graph when it is first needed.
 	 * <p>
 	 * @param station_file which represents the file from where the information of stations
 	 * will be retrieved from.
 	 */
 	public TrainStationManager(String station_file) {
 		
-		try (BufferedReader reader = new BufferedReader(new FileReader("inputFiles/" + station_file))) {
-            String line;
-            int lineNum = 1;
-            while ((line = reader.readLine()) != null) {
-                if(lineNum != 1) { // Condition: if it is the first line, it skips it
-                	
-                	parts = line.split(",", 2);
-                	src_city = parts[0];
-                	stationString = parts[1];
-                	dest_city = stationString.split(",")[0];
-                	distance = Integer.parseInt(stationString.split(",")[1]);
-                	
-                	Station destStation = new Station(dest_city, distance); // Variable that stores the station obj of the dest_city
-                	Station srcStation = new Station(src_city, distance); // Variable that stores the station obj of the src_city
-                	List<Station> srcValue = new ArrayList<Station>(); // Variable that stores the value of the src_city key
-                	List<Station> destValue = new ArrayList<Station>(); // Variable that stores the value of the dest_city key
-                	
-                	if(stations.containsKey(src_city) && !((stations.get(src_city)).contains(destStation))) {
-                	/* Condition: checks if the map contains the key & if the value doesn't contain the destStation */
-                		srcValue = stations.get(src_city);
-                		srcValue.add(destStation);
-                		stations.put(src_city, srcValue);
-                	} if(stations.containsKey(dest_city) && !((stations.get(dest_city)).contains(srcStation))) { 
-                	/* Condition: checks if the dest_city is a key in the map as well & if the value doesn't contain the srcStation */
-                		destValue = stations.get(dest_city);
-                		destValue.add(srcStation);
-                		stations.put(dest_city, destValue);
-                	} if(!stations.containsKey(src_city)) {
-                		srcValue.add(destStation);
-                		stations.put(src_city, srcValue);
-                	} if(!stations.containsKey(dest_city)) {
-                		destValue.add(srcStation);
-                		stations.put(dest_city, destValue);
-                	}
-                }
-                lineNum++;
-            }
-            reader.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-		
-		/* Calls findShortestDistance() for "Westside" so that the shortest
-		routes will be in reference to Westside. */
-		findShortestDistance();
-	}
-	
-	/** Method: Calculates the shortest route from “Westside” to every other station following 
-	 * the logic given in the “Shortcuts to Victory” section. It populates
-	 * the shortest route map. 
-	 * <p>
-	 * The algorithm uses three main data structures: a map (`shortRoutes`), a stack (`toVisit`), 
-	 * and a set (`visited`). The `shortRoutes` map is efficiently initialized by 
-	 * iterating through the keys of the `stations` map and setting the value for 
-	 * each key to a new `Station` object with a maximum integer distance, which 
-	 * ensures that the shortest route can be updated later. The `toVisit` stack 
-	 * is implemented as a linked stack (`LinkedStack`), which efficiently supports 
-	 * push and pop operations, making it suitable for maintaining the order of stations 
-	 * to visit. The `visited` set, implemented as a hash set (`HashSet`), efficiently 
-	 * checks for membership of visited stations, ensuring that stations are not 
-	 * revisited unnecessarily. 
-	 * <p>
-	 * These data structures are efficient for this algorithm because they provide fast
-	 *  insertion, retrieval, and membership checking operations, which are essential 
-	 *  for finding the shortest distance from "Westside" to every other station. 
-	 *  Additionally, the linked stack and hash set implementations offer O(1) time 
-	 *  complexity for most operations, ensuring optimal performance.
-	 */
-	private void findShortestDistance() {
-
-		/* Initializes the shortRoutes map according to the instructions */
-		List<String> stationsKeys = this.stations.getKeys();
-		for(String str : stationsKeys) {
-			this.shortRoutes.put(str, new Station("Westside", Integer.MAX_VALUE));
+		this.stationFile = station_file;
+		ConnectionBuffer buffer = new ConnectionBuffer();
+		StationFileParser parser = new StationFileParser(buffer);
+		try (InputStream in = new FileInputStream("inputFiles/" + station_file)) {
+			parser.parse(in);
+		} catch (IOException e) {
+			System.err.println("Could not read inputFiles/" + station_file + ": " + e.getMessage());
 		}
+		load(buffer, parser.getErrors());
+	}
+	
+	/** Constructor: Reads the file given by station_file in parallel and builds the same
+	 * graph of stations as the constructor that reads it sequentially.
+	 * <p>
+	 * The file is split in chunks that are memory mapped and parsed on the given pool by a
+	 * `ParallelStationLoader`, each into its own buffer, and the buffers are merged in file
+	 * order. This is meant for station files of millions of lines; small files are read as
+	 * a single chunk.
+	 * <p>
+	 * @param station_file which represents the file from where the information of stations
+	 * will be retrieved from.
+	 * @param pool which represents the pool the chunks of the file are parsed on
+	 */
+	public TrainStationManager(String station_file, ForkJoinPool pool) {
 		
-		Stack<Station> toVisit = new LinkedStack<Station>();
-		HashSet<Station> visited = new HashSet<Station>();
-		
-		/* Initiates "Westside" into the map and toVisit, then 'visited' */
-		this.shortRoutes.put("Westside", new Station("Westside", 0));
-		sortStack(new Station("Westside", 0), toVisit);
-		
-//		List<Station> valuesWestside = this.stations.get("Westside"); // Stores stations connected to the starting point (Westside)
-//		
-//		for(Station s : valuesWestside) {
-//			if(!visited.isMember(s)) { // If the station isn't in the 'visited' set...
-//				sortStack(s, toVisit); // ... it adds each station connected to Westside into the toVisit stack
-//				
-//				/* Initializes the values of the stations connected to the starting point */
-//				this.shortRoutes.put(s.getCityName(), new Station("Westside", s.getDistance()));
-//			}
-//		}
-		
-		while(!toVisit.isEmpty()) {
-			Station currentStation = toVisit.pop(); // Next station to visit
-			
-			List<Station> neighbors = this.stations.get(currentStation.getCityName()); // Stores that stations' connections
-			
-			for(Station s : neighbors) { /* Iterates through each 
-			* station that is connected to the station that is being visited */
-				
-				if(s == null) { // Edge case
-					break;
-				}
-				
-				if(!visited.isEmpty() && visited.isMember(currentStation)) {
-					break;
-				}
-				
-				/* Variable: stores the sum of the distance of variable 's' with the shortest distance 
-				 * of currentStation that is already in the shortRoutes */
-				int addition = s.getDistance() + this.shortRoutes.get(currentStation.getCityName()).getDistance();
-				
-				if(addition < this.shortRoutes.get(s.getCityName()).getDistance()) {
-					/* Replaces the shortest distance of 's' in shortRoutes 
-					 * with a station of city_name being 'currentStation' */
-					this.shortRoutes.put(s.getCityName(), new Station(currentStation.getCityName(), addition)); 
-				}
-				
-				/* If the station isn't connected to the starting point and it hasn't been visited, it
-				is added to the toVisit stack */
-				if(!visited.isMember(s)) {
-					sortStack(s, toVisit);
-				}
-			}
-			
-			visited.add(currentStation);
-
+		this.stationFile = station_file;
+		ConnectionBuffer buffer = new ConnectionBuffer();
+		List<String> errors = new ArrayList<>();
+		try {
+			ParallelStationLoader loader = new ParallelStationLoader("inputFiles/" + station_file, pool);
+			buffer = loader.getBuffer();
+			errors = loader.getErrors();
+		} catch (IOException e) {
+			System.err.println("Could not read inputFiles/" + station_file + ": " + e.getMessage());
+		}
+		load(buffer, errors);
+	}
+	
+	/**
+	 * Reports the lines that were skipped, packs the buffer into the graph and computes the
+	 * routes from Westside.
+	 */
+	private void load(ConnectionBuffer buffer, List<String> errors) {
+		/* Malformed lines were skipped, the rest of the file is still loaded */
+		for(String error : errors) {
+			System.err.println(this.stationFile + ", " + error);
 		}
+		
+		/* Computes the shortest routes for "Westside" so that the 
+		default shortest routes will be in reference to Westside. */
+		this.snapshot = new RoutingSnapshot(new StationGraph(buffer), DEFAULT_ORIGIN);
+	}
+	
+	/**
+	 * Method that gives the current routing state: the network, the shortest routes from
+	 * Westside and everything derived from them.
+	 * <p>
+	 * The snapshot never changes, so several queries made on it always agree with each
+	 * other even if the network is changed or reloaded meanwhile.
+	 * <p>
+	 * @return the current snapshot
+	 */
+	public RoutingSnapshot getSnapshot() {
+		return this.snapshot;
 	}
 
 	/** Method: Receives a Stack that needs to remain sorted and the station we want to add.
 	 * <p>
 	 * It is sorted from shortest to longest.
 	 * <p>
+	 * This is no longer used by the shortest route searches, which keep their stations in an
+	 * `IndexedMinHeap`, but it remains available for callers that need a sorted stack.
+	 * <p>
 	 * It efficiently uses a temporary stack 
-	 * implemented using a linked list. This approach allows for constant-time 
+	 * implemented using a circular array (`ArrayDeque`). This approach allows for constant-time 
 	 * insertion and deletion operations, ensuring the efficient sorting of 
 	 * the stack. By iterating through the original stack once and transferring 
 	 * elements back in the correct order after adding the new station,
@@ -209,7 +159,7 @@ public class TrainStationManager {
 	public void sortStack(Station station, Stack<Station> stackToSort) {
 		// Created algorithm to keep the stack sorted (Reference: "How do we keep the stack sorted?" section)
 	
-	    Stack<Station> tempStack = new LinkedStack<Station>();
+	    Stack<Station> tempStack = new ArrayDeque<Station>();
 	    
         // Pop elements from the original stack and push them onto the temporary stack
         // until the original stack is empty or the top element is greater than the station to be added.
@@ -237,52 +187,208 @@ public class TrainStationManager {
 	 * combining these data structures, the algorithm achieves both efficiency 
 	 * and accuracy in calculating travel times.
 	 * <p>
+	 * The times are computed once per snapshot and shared by every caller, so the returned
+	 * map is read-only.
+	 * <p>
 	 * @return a map where the key is the station name, and the value is 
 	 * the time it takes to reach that station. 
 	 */
 	public Map<String, Double> getTravelTimes() {
-		// 2.5 minutes per kilometer (use the shortest distance for this)
-		// 15 min per station (between Westside and the destination)
-		
-		Map<String, Double> travelTimes = new HashTableSC<>(1, new SimpleHashFunction<>());
-		
-		List<Station> shortRoutesVals = shortRoutes.getValues();
-		List<String> shortRoutesKeys = shortRoutes.getKeys();
-		
-		Double mult = 1.0; // Initialization of variable that'll store the multiplication
-		for(int i = 0; i < shortRoutesVals.size(); i++) {
-			Station s = shortRoutesVals.get(i);
-			mult = s.getDistance() * 2.5;
-			
-			String shortRouteCity = s.getCityName();
-			while(!shortRouteCity.equals("Westside")) {
-				mult += 15;
-				shortRouteCity = shortRoutes.get(shortRouteCity).getCityName();
-			}
-			travelTimes.put(shortRoutesKeys.get(i), mult);
-		}
-		
-		return travelTimes;
+		return this.snapshot.getTravelTimes();
+	}
+	
+	/** A method that shows the amount of time that it takes to get to each station in the
+	 * 'stations' map when departing from the given origin.
+	 * <p>
+	 * The shortest routes for the origin are taken from the cache of route trees, so only
+	 * the first query for an origin runs a search.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is 
+	 * the time it takes to reach that station from the origin. 
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public Map<String, Double> getTravelTimes(String origin) {
+		return this.snapshot.getTravelTimes(origin);
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from Westside, in a table
+	 * that keeps the times unboxed. Shared by every caller and read-only like getTravelTimes().
+	 * <p>
+	 * @return a table where the key is the station name, and the value is
+	 * the time it takes to reach that station.
+	 */
+	public ObjectDoubleHashMap<String> getTravelTimeTable() {
+		return this.snapshot.getTravelTimeTable();
+	}
+
+	/**
+	 * Method that gives the time it takes to get to each station from the given origin, in a
+	 * table that keeps the times unboxed.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a table where the key is the station name, and the value is
+	 * the time it takes to reach that station from the origin.
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public ObjectDoubleHashMap<String> getTravelTimeTable(String origin) {
+		return this.snapshot.getTravelTimeTable(origin);
+	}
+
+	/**
+	 * Method that lists every station with the time it takes to reach it from Westside, from
+	 * the closest to the farthest, for reports that list stations by travel time. Stations with
+	 * the same time are in alphabetical order.
+	 * <p>
+	 * Unlike `sortStack`, which inserts one station at a time in O(n) each, the list is filled
+	 * once and sorted with the merge sort of `ArrayList`, in O(n log n). The list is new on
+	 * every call, so it may be changed.
+	 * <p>
+	 * @return a list of pairs of station name and travel time, sorted by travel time
+	 */
+	public List<Entry<String, Double>> sortedTravelTimes() {
+		return this.snapshot.sortedTravelTimes();
+	}
+
+	/**
+	 * Method that lists every station with the time it takes to reach it from the given
+	 * origin, from the closest to the farthest.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a list of pairs of station name and travel time, sorted by travel time
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public List<Entry<String, Double>> sortedTravelTimes(String origin) {
+		return this.snapshot.sortedTravelTimes(origin);
+	}
+
+	/**
+	 * Method that gives the time it takes to get to a station from Westside.
+	 * <p>
+	 * @param stationName which represents the station the route ends at
+	 * @return the travel time in minutes
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	public double getTravelTime(String stationName) {
+		return this.snapshot.getTravelTime(stationName);
+	}
+
+	/**
+	 * Method that gives the shortest distance from Westside to a station.
+	 * <p>
+	 * @param stationName which represents the station the route ends at
+	 * @return the shortest distance or Integer.MAX_VALUE if the station cannot be reached
+	 * @throws IllegalArgumentException if the station does not exist
+	 */
+	public int getDistance(String stationName) {
+		return this.snapshot.getDistance(stationName);
 	}
 	
 	/**
 	 * Method that gets the map that represents the connection between each station.
 	 * <p>
+	 * The map is a read-only view of the `StationGraph`, built the first time it is asked for
+	 * and reused afterwards. Use setStations() to replace the connections.
+	 * <p>
 	 * @return the global map of 'stations'
 	 */
 	public Map<String, List<Station>> getStations() {
-		return this.stations;
+		return this.snapshot.getStations();
+	}
+	
+	/**
+	 * Method that gets the graph of stations that every search runs on.
+	 * <p>
+	 * @return the global 'graph'
+	 */
+	public StationGraph getGraph() {
+		return this.snapshot.getGraph();
 	}
 	
 
 	/**
 	 * Method that sets the map that represents the connection between each station.
 	 * <p>
+	 * The new network is packed before it is published, readers keep the old one until then.
+	 * Later changes to the given map are not seen.
+	 * <p>
 	 * @param cities which represents the map that will replace the current
 	 * 'stations' map.
 	 */
-	public void setStations(Map<String, List<Station>> cities) {
-		this.stations = cities;
+	public synchronized void setStations(Map<String, List<Station>> cities) {
+		/* Routes computed for the old map are no longer valid */
+		this.snapshot = this.snapshot.withStations(cities);
+		this.dynamicRoutes = null;
+	}
+	
+	/**
+	 * Method that adds a two-way connection between two stations, adding the stations that
+	 * do not exist yet.
+	 * <p>
+	 * The shortest routes from Westside are repaired by a `DynamicRouteTree` instead of
+	 * searching the whole network again: only the stations that get closer through the new
+	 * connection are visited. The repaired routes and the changed network are published
+	 * together as a new snapshot that shares everything else with the current one. Route
+	 * trees of other origins, precomputed routes and prepared routers are dropped since they
+	 * no longer match the network.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @param distance which represents the distance of the connection
+	 * @return the names of the stations whose route or travel time from Westside changed
+	 * @throws IllegalArgumentException if the distance is negative
+	 */
+	public synchronized Set<String> addConnection(String src_city, String dest_city, int distance) {
+		return applyChanges(dynamicRoutes().addConnection(src_city, dest_city, distance), src_city, dest_city);
+	}
+	
+	/**
+	 * Method that removes the connection between two stations in both directions.
+	 * <p>
+	 * Only the stations whose shortest route from Westside used the connection are searched
+	 * again, the rest of the routes are kept as they are.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @return the names of the stations whose route or travel time from Westside changed
+	 * @throws IllegalArgumentException if either station does not exist or they are not connected
+	 */
+	public synchronized Set<String> removeConnection(String src_city, String dest_city) {
+		return applyChanges(dynamicRoutes().removeConnection(src_city, dest_city), src_city, dest_city);
+	}
+	
+	/**
+	 * Method that changes the distance of the connection between two stations in both
+	 * directions, repairing the shortest routes from Westside like addConnection() or
+	 * removeConnection() would.
+	 * <p>
+	 * @param src_city which represents the name of one end of the connection
+	 * @param dest_city which represents the name of the other end of the connection
+	 * @param distance which represents the new distance of the connection
+	 * @return the names of the stations whose route or travel time from Westside changed
+	 * @throws IllegalArgumentException if either station does not exist, they are not connected
+	 * or the distance is negative
+	 */
+	public synchronized Set<String> updateDistance(String src_city, String dest_city, int distance) {
+		return applyChanges(dynamicRoutes().updateDistance(src_city, dest_city, distance), src_city, dest_city);
+	}
+	
+	private DynamicRouteTree dynamicRoutes() {
+		if(this.dynamicRoutes == null) {
+			this.dynamicRoutes = new DynamicRouteTree(getGraph(), DEFAULT_ORIGIN);
+		}
+		return this.dynamicRoutes;
+	}
+	
+	/**
+	 * Publishes the changed network with the repaired routes. The new snapshot only holds the
+	 * routes that changed and the new connections of the two stations on top of the current
+	 * one, whose maps are never written to since readers may still be using them.
+	 */
+	private Set<String> applyChanges(Set<String> changed, String src_city, String dest_city) {
+		this.snapshot = this.snapshot.withChanges(this.dynamicRoutes, changed, src_city, dest_city);
+		return changed;
 	}
 	
 	
@@ -290,10 +396,158 @@ public class TrainStationManager {
 	 * Method that gets the map that represents the 
 	 * shortest route from Westside to the other stations.
 	 * <p>
+	 * The map is shared by every reader of the snapshot, so it is read-only.
+	 * <p>
 	 * @return the global map of 'shortRoutes'
 	 */
 	public Map<String, Station> getShortestRoutes() {
-		return this.shortRoutes;
+		return this.snapshot.getShortestRoutes();
+	}
+	
+	/**
+	 * Method that gets the map that represents the 
+	 * shortest route from the given origin to the other stations.
+	 * <p>
+	 * The tree is computed the first time the origin is asked for and kept in a 
+	 * bounded LRU cache, so later calls for the same origin skip the search until 
+	 * it is evicted by less recently used origins. The cached map is read-only.
+	 * <p>
+	 * @param origin which represents the station the routes start from
+	 * @return a map where the key is the station name, and the value is a station with the
+	 * name of the previous station in the route and the shortest distance from the origin
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public Map<String, Station> getShortestRoutes(String origin) {
+		return this.snapshot.getShortestRoutes(origin);
+	}
+	
+	/**
+	 * Method that finds the shortest route between two stations without building the whole
+	 * shortest route tree of the origin.
+	 * <p>
+	 * It runs a bidirectional search that grows from both stations at once and stops as soon
+	 * as the two frontiers meet on the shortest route, so nearby stations are answered after
+	 * settling only a few stations. The returned route reports how many stations were settled,
+	 * which can be compared to the size of the full tree.
+	 * <p>
+	 * After prepareLandmarks() the query runs an A* search guided by the landmark tables
+	 * instead, which settles even fewer stations, and after prepareContractionHierarchy() it
+	 * runs an upward search on the hierarchy. Whichever was prepared last is used. Every
+	 * thread searches on a router of its own, so queries never wait for each other. A thread
+	 * keeps one router, forked from the current snapshot and forked again the first time it
+	 * routes after the snapshot was replaced, so routers of old networks are not kept around.
+	 * <p>
+	 * @param from which represents the station the route starts from
+	 * @param to which represents the station the route ends at
+	 * @return the route with its distance, travel time and stations
+	 * @throws IllegalArgumentException if either station does not exist
+	 */
+	public Route route(String from, String to) {
+		RoutingSnapshot current = this.snapshot;
+		ThreadRouter forked = this.routers.get();
+		if(forked == null || forked.snapshot != current) {
+			forked = new ThreadRouter(current, current.forkRouter());
+			this.routers.set(forked);
+		}
+		return forked.router.route(from, to);
+	}
+	
+	/**
+	 * A router forked for one thread with the snapshot it searches on.
+	 */
+	private static final class ThreadRouter {
+		private final RoutingSnapshot snapshot;
+		private final Router router;
+
+		ThreadRouter(RoutingSnapshot snapshot, Router router) {
+			this.snapshot = snapshot;
+			this.router = router;
+		}
+	}
+	
+	/**
+	 * Method that prepares the landmark tables used by route() for goal-directed A* searches.
+	 * <p>
+	 * The tables are saved next to the station file (with the extension ".landmarks") and
+	 * loaded from there on the next start, as long as they were computed for the same network
+	 * and the same amount of landmarks. Otherwise they are computed and saved again.
+	 * <p>
+	 * @param count which represents how many landmark stations to pick
+	 * @return the landmark tables
+	 */
+	public synchronized Landmarks prepareLandmarks(int count) {
+		RoutingSnapshot current = this.snapshot;
+		String path = "inputFiles/" + this.stationFile + ".landmarks";
+		Landmarks tables = null;
+		if(this.stationFile != null) {
+			try {
+				tables = Landmarks.load(path, current.getGraph());
+			} catch (IOException e) {
+				// Not saved yet, they are computed below
+			}
+		}
+		if(tables == null || tables.size() != count) {
+			tables = new Landmarks(current.getGraph(), count);
+			if(this.stationFile != null) {
+				try {
+					tables.save(path);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		this.snapshot = current.withRouter(new LandmarkRouter(current.getGraph(), tables));
+		return tables;
+	}
+	
+	/**
+	 * Method that contracts the network into a hierarchy used by route() from now on.
+	 * <p>
+	 * Preprocessing adds shortcut connections so that every query only has to search
+	 * upward in the hierarchy from both stations. It takes longer than landmarks to prepare
+	 * but queries settle only a few hundred stations on large networks.
+	 * <p>
+	 * @return the contraction hierarchy
+	 */
+	public synchronized ContractionHierarchy prepareContractionHierarchy() {
+		RoutingSnapshot current = this.snapshot;
+		ContractionHierarchy hierarchy = new ContractionHierarchy(current.getGraph());
+		this.snapshot = current.withRouter(hierarchy);
+		return hierarchy;
+	}
+	
+	/**
+	 * Method that computes the distance, travel time and route between every pair of
+	 * stations in parallel on the common ForkJoinPool. Once it is done, traceRoute() with
+	 * an origin reads the precomputed routes instead of running a search.
+	 * <p>
+	 * @return the matrices of every pair of stations
+	 */
+	public synchronized AllPairsTravelTimes precomputeAllPairs() {
+		RoutingSnapshot current = this.snapshot;
+		AllPairsTravelTimes allPairs = new AllPairsTravelTimes(current.getGraph());
+		this.snapshot = current.withAllPairs(allPairs);
+		return allPairs;
+	}
+	
+	/**
+	 * Method that gets how many route queries were answered from the cache of route trees
+	 * since the network last changed.
+	 * <p>
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return this.snapshot.getCacheHits();
+	}
+	
+	/**
+	 * Method that gets how many route queries had to run a search since the network last
+	 * changed.
+	 * <p>
+	 * @return the number of cache misses
+	 */
+	public long getCacheMisses() {
+		return this.snapshot.getCacheMisses();
 	}
 	
 
@@ -301,11 +555,17 @@ public class TrainStationManager {
 	 * Method that sets the map that represents the 
 	 * shortest route from Westside to the other stations.
 	 * <p>
+	 * The routes are copied, so later changes to the given map are not seen. Later changes of
+	 * connections repair the routes of a new search from Westside, since the given ones may
+	 * not be a shortest route tree of the network.
+	 * <p>
 	 * @param shortestRoutes which represents the map that will replace the current
 	 * 'shortRoutes' map.
 	 */
-	public void setShortestRoutes(Map<String, Station> shortestRoutes) {
-		this.shortRoutes = shortestRoutes;
+	public synchronized void setShortestRoutes(Map<String, Station> shortestRoutes) {
+		this.snapshot = this.snapshot.withShortestRoutes(shortestRoutes);
+		/* The tree being repaired no longer matches the routes */
+		this.dynamicRoutes = null;
 	}
 	
 	/**
@@ -315,7 +575,7 @@ public class TrainStationManager {
 	 * Each station is connected by an arrow and the trace ends at the station given.
 	 * <p>
 	 * The algorithm efficiently traces the route from a given station to "Westside"
-	 * using a `LinkedStack` data structure. This choice is effective because a stack 
+	 * using an `ArrayDeque` as a stack. This choice is effective because a stack 
 	 * follows the Last-In-First-Out (LIFO) principle, which aligns well with the
 	 * backward tracing requirement. Each station encountered during the route 
 	 * tracing process is pushed onto the stack, ensuring easy reconstruction 
@@ -328,40 +588,20 @@ public class TrainStationManager {
 	 * @return (String) String representation of the path taken to reach stationName.
 	 */
 	public String traceRoute(String stationName) {
-	    String stationInstance = stationName;
-	    String route = "";
-
-	    Stack<String> trace = new LinkedStack<String>();
-
-	    if(!stationInstance.equals("Westside")) {
-	        trace.push(stationInstance);
-	    } else {
-	        return "Westside";
-	    }
-
-	    while (!stationInstance.equals("Westside")) {
-	        Station stationValue = shortRoutes.get(stationInstance);
-	        stationInstance = stationValue.getCityName();
-	        trace.push(stationInstance);
-	    }
-
-	    // Initialize a boolean flag to check if the first station has been processed
-	    boolean firstStationProcessed = false;
-
-	    while (!trace.isEmpty()) {
-	        String nextStation = trace.pop();
-	        // Check if the next station is the first station in the route
-	        if (!firstStationProcessed) {
-	            // Update the route without adding "->" before the first station
-	            route += nextStation;
-	            firstStationProcessed = true;
-	        } else {
-	            // Update the route by adding "->" before stations except the first one
-	            route += "->" + nextStation;
-	        }
-	    }
-
-	    return route;
+	    return this.snapshot.traceRoute(stationName);
+	}
+	
+	/**
+	 * Returns the path from the given origin to the station given. 
+	 * The format is as follows: origin->stationA->.....stationZ->stationName
+	 * <p>
+	 * @param origin - Name of the station the route starts from
+	 * @param stationName - Name of the station whose route we want to trace
+	 * @return (String) String representation of the path taken to reach stationName.
+	 * @throws IllegalArgumentException if the origin is not a station
+	 */
+	public String traceRoute(String origin, String stationName) {
+	    return this.snapshot.traceRoute(origin, stationName);
 	}
 
 	/* CODE BELOW IS SOLELY FOR DEBUGGING PURPOSES! */
@@ -0,0 +1,886 @@
+package testers;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import data_structures.ArrayDeque;
+import data_structures.ArrayList;
+import data_structures.ArrayListStack;
+import data_structures.BitSet;
+import data_structures.CircularArrayQueue;
+import data_structures.ConcurrentHashTableSC;
+import data_structures.DoublyLinkedList;
+import data_structures.HashSet;
+import data_structures.HashTableSC;
+import data_structures.LinkedListStack;
+import data_structures.LinkedStack;
+import data_structures.ListQueue;
+import data_structures.MapType;
+import data_structures.MurmurHashFunction;
+import data_structures.ObjectDoubleHashMap;
+import data_structures.ObjectIntHashMap;
+import data_structures.RobinHoodHashMap;
+import data_structures.SimpleHashFunction;
+import data_structures.SinglyLinkedList;
+import interfaces.HashFunction;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.Queue;
+import interfaces.Set;
+import interfaces.Stack;
+import main.Station;
+
+/**
+ * Benchmarks for the data structures. Run it as a regular Java application; every section
+ * fills the structures with synthetic keys, times the operations and prints the results.
+ * <p>
+ * The largest sizes need a big heap, run it with -Xmx4g to include 10^7 keys.
+ */
+public class DataStructuresBenchmark {
+
+	private static final long SEED = 42;
+	private static final HashFunction<Integer> INTEGER_HASH = key -> key.hashCode();
+
+	public static void main(String[] args) {
+		hashTableBenchmark(10000000);
+		mapTypeBenchmark(1000000);
+		hashCountBenchmark(1000000, 10000);
+		concurrentStressTest(64, 200000);
+		concurrentThroughputBenchmark(64, 4000000);
+		primitiveMapBenchmark(1000000);
+		anagramBucketBenchmark(100000);
+		setBenchmark(1000000);
+		linkedListBenchmark(100000);
+		arrayListBenchmark(1000000);
+		dequeBenchmark(10000000);
+		streamBenchmark(1000000);
+		sortBenchmark(1000000);
+	}
+
+	/**
+	 * Fills a HashTableSC that starts with one bucket, rehashing all at once and incrementally,
+	 * and reports the average put and get time, the slowest put that made the table grow and
+	 * the final capacity. The average get time staying flat from 10^3 keys up shows lookups
+	 * stay O(1); the slowest growing put shows the pause a rehash adds to a single put.
+	 * @param maxKeys - largest amount of keys, the sizes go from 10^3 up to it by powers of ten
+	 */
+	private static void hashTableBenchmark(int maxKeys) {
+		System.out.println("HashTableSC growing from 1 bucket, load factor " + HashTableSC.DEFAULT_LOAD_FACTOR);
+		System.out.println("        keys  rehash       put ns/op   get ns/op   slowest growing put ms   capacity");
+		for(int keys = 1000; keys <= maxKeys; keys *= 10) {
+			if(!fits(keys)) {
+				System.out.printf("%12d  skipped, not enough heap (run with -Xmx4g)%n", keys);
+				continue;
+			}
+			Integer[] data = randomKeys(keys);
+			for(boolean incremental : new boolean[] {false, true}) {
+				/* Warm up on a smaller table so the JIT compiles the operations before timing */
+				fill(new HashTableSC<>(1, HashTableSC.DEFAULT_LOAD_FACTOR, incremental, INTEGER_HASH), randomKeys(100000));
+
+				HashTableSC<Integer, Integer> table = new HashTableSC<>(1, HashTableSC.DEFAULT_LOAD_FACTOR, incremental, INTEGER_HASH);
+				long start = System.nanoTime();
+				long slowest = fill(table, data);
+				double putTime = (System.nanoTime() - start) / (double) keys;
+
+				start = System.nanoTime();
+				long found = 0;
+				for(Integer key : data)
+					found += table.get(key);
+				double getTime = (System.nanoTime() - start) / (double) keys;
+				if(found == 0)
+					System.out.println("unexpected empty table");
+
+				System.out.printf("%12d  %-12s %10.1f  %10.1f  %23.3f  %9d%n", keys, incremental ? "incremental" : "all at once",
+						putTime, getTime, slowest / 1e6, table.capacity());
+			}
+		}
+	}
+
+	/**
+	 * Compares every MapType with the same keys: average put, hit and miss time and the heap
+	 * used by the filled map.
+	 * @param maxKeys - largest amount of keys, the sizes go from 10^3 up to it by powers of ten
+	 */
+	private static void mapTypeBenchmark(int maxKeys) {
+		System.out.println("Map implementations");
+		System.out.println("        keys  type                put ns/op   hit ns/op  miss ns/op   heap MB");
+		for(int keys = 1000; keys <= maxKeys; keys *= 10) {
+			Integer[] data = randomKeys(keys);
+			Integer[] missing = new Integer[keys];
+			for(int i = 0; i < keys; i++)
+				missing[i] = -data[i];
+			for(MapType type : MapType.values())
+				measureMap(type, data, missing);
+		}
+	}
+
+	private static void measureMap(MapType type, Integer[] data, Integer[] missing) {
+		int keys = data.length;
+		warmUp(type);
+		long heap = usedHeap();
+		Map<Integer, Integer> map = type.create(1, INTEGER_HASH);
+		long start = System.nanoTime();
+		for(Integer key : data)
+			map.put(key, key);
+		double putTime = (System.nanoTime() - start) / (double) keys;
+		double megabytes = (usedHeap() - heap) / (1024.0 * 1024.0);
+
+		start = System.nanoTime();
+		long found = 0;
+		for(Integer key : data)
+			found += map.get(key);
+		double hitTime = (System.nanoTime() - start) / (double) keys;
+		start = System.nanoTime();
+		for(Integer key : missing)
+			if(map.get(key) != null)
+				found++;
+		double missTime = (System.nanoTime() - start) / (double) keys;
+		if(found == 0)
+			System.out.println("unexpected empty map");
+
+		/* Below 10^5 keys the map is smaller than what a collection leaves behind at random */
+		String heapUsed = keys >= 100000 ? String.format("%8.1f", megabytes) : "       -";
+		System.out.printf("%12d  %-18s %10.1f  %10.1f  %10.1f  %s%n", keys, type, putTime, hitTime, missTime, heapUsed);
+	}
+
+	/**
+	 * Loads the same connections into an adjacency map and a name to id map twice: once with the
+	 * containsKey, get and put sequences the loader used to run for every line and once with
+	 * computeIfAbsent. Counts how many times the hash function is called per line, including the
+	 * rehashes when the maps grow, and times both.
+	 * @param lines - amount of connections
+	 * @param stations - amount of distinct station names
+	 */
+	private static void hashCountBenchmark(int lines, int stations) {
+		System.out.println("Hash function calls per line, " + lines + " lines over " + stations + " stations");
+		System.out.println("  type                operations           adjacency calls   ids calls   ns/line");
+		Random random = new Random(SEED);
+		String[] names = new String[stations];
+		for(int i = 0; i < stations; i++)
+			names[i] = "Station" + i;
+		String[] sources = new String[lines], targets = new String[lines];
+		for(int i = 0; i < lines; i++) {
+			sources[i] = names[random.nextInt(stations)];
+			targets[i] = names[random.nextInt(stations)];
+		}
+		for(MapType type : MapType.values()) {
+			for(boolean singleLookup : new boolean[] {false, true}) {
+				/* Warm up so the JIT compiles both sequences before timing */
+				loadConnections(type, singleLookup, sources, targets, new CountingHashFunction(), new CountingHashFunction());
+
+				CountingHashFunction adjacencyHash = new CountingHashFunction(), idsHash = new CountingHashFunction();
+				long start = System.nanoTime();
+				loadConnections(type, singleLookup, sources, targets, adjacencyHash, idsHash);
+				double time = (System.nanoTime() - start) / (double) lines;
+				System.out.printf("  %-18s  %-20s %15.2f  %10.2f  %8.1f%n", type, singleLookup ? "computeIfAbsent" : "containsKey/get/put",
+						adjacencyHash.calls / (double) lines, idsHash.calls / (double) lines, time);
+			}
+		}
+	}
+
+	private static void loadConnections(MapType type, boolean singleLookup, String[] sources, String[] targets,
+			HashFunction<String> adjacencyHash, HashFunction<String> idsHash) {
+		Map<String, List<Station>> adjacency = type.create(1, adjacencyHash);
+		Map<String, Integer> ids = type.create(1, idsHash);
+		for(int i = 0; i < sources.length; i++) {
+			String src = sources[i], dest = targets[i];
+			if(singleLookup) {
+				adjacency.computeIfAbsent(src, key -> new ArrayList<>()).add(new Station(dest, i));
+				adjacency.computeIfAbsent(dest, key -> new ArrayList<>()).add(new Station(src, i));
+				ids.computeIfAbsent(src, key -> ids.size());
+				ids.computeIfAbsent(dest, key -> ids.size());
+			}
+			else {
+				/* The sequence of the original station file loader */
+				List<Station> srcValue = new ArrayList<>(), destValue = new ArrayList<>();
+				if(adjacency.containsKey(src)) {
+					srcValue = adjacency.get(src);
+					srcValue.add(new Station(dest, i));
+					adjacency.put(src, srcValue);
+				} if(adjacency.containsKey(dest)) {
+					destValue = adjacency.get(dest);
+					destValue.add(new Station(src, i));
+					adjacency.put(dest, destValue);
+				} if(!adjacency.containsKey(src)) {
+					srcValue.add(new Station(dest, i));
+					adjacency.put(src, srcValue);
+				} if(!adjacency.containsKey(dest)) {
+					destValue.add(new Station(src, i));
+					adjacency.put(dest, destValue);
+				}
+				for(String name : new String[] {src, dest}) {
+					if(ids.get(name) == null)
+						ids.put(name, ids.size());
+				}
+			}
+		}
+	}
+
+	/**
+	 * MurmurHashFunction that counts how many times it is called.
+	 */
+	private static class CountingHashFunction extends MurmurHashFunction<String> {
+		private long calls;
+
+		@Override
+		public int hashCode(String key) {
+			calls++;
+			return super.hashCode(key);
+		}
+	}
+
+	/**
+	 * Hammers a ConcurrentHashTableSC that starts with one bucket per segment from 1 up to
+	 * maxThreads threads, so the segments keep growing while the threads write, and checks the
+	 * result. Every thread adds 1 to random shared counters with merge, and puts, reads back and
+	 * removes half of its own keys. No increment or key may be lost.
+	 * @param maxThreads - largest amount of threads, the runs double the threads from 1
+	 * @param operations - operations per thread
+	 */
+	private static void concurrentStressTest(int maxThreads, int operations) {
+		System.out.println("ConcurrentHashTableSC stress test, " + operations + " operations per thread");
+		System.out.println("  threads  counters  own keys  result");
+		int counters = 1000;
+		for(int threads = 1; threads <= maxThreads; threads *= 2) {
+			ConcurrentHashTableSC<Integer, Integer> map = new ConcurrentHashTableSC<>(1, ConcurrentHashTableSC.DEFAULT_LOAD_FACTOR,
+					maxThreads, INTEGER_HASH);
+			int perThread = operations / 2;
+			runThreads(threads, thread -> {
+				Random random = new Random(SEED + thread);
+				int base = (thread + 1) * counters * 1000;
+				for(int i = 0; i < perThread; i++) {
+					map.merge(random.nextInt(counters), 1, Integer::sum);
+					Integer key = base + i;
+					map.put(key, i);
+					if(!key.equals(base + map.get(key)))
+						throw new IllegalStateException("Lost the value of " + key);
+					if(i % 2 == 1 && map.remove(base + i - 1) == null)
+						throw new IllegalStateException("Lost the key " + (base + i - 1));
+				}
+			});
+
+			long total = 0;
+			for(int i = 0; i < counters; i++)
+				total += map.getOrDefault(i, 0);
+			int ownKeys = map.size() - counters;
+			boolean passed = total == (long) threads * perThread && ownKeys == threads * (perThread / 2)
+					&& map.getKeys().size() == map.size();
+			System.out.printf("  %7d  %8s  %8d  %s%n", threads, total == (long) threads * perThread ? "exact" : "LOST " + total,
+					ownKeys, passed ? "passed" : "FAILED");
+		}
+	}
+
+	/**
+	 * Reads and writes a map shared by 1 up to maxThreads threads, 90% get and 10% put over 10^5
+	 * keys, and reports the operations per microsecond of ConcurrentHashTableSC and of a
+	 * HashTableSC behind one lock. The speedup is bounded by the amount of cores of the machine.
+	 * @param maxThreads - largest amount of threads, the runs double the threads from 1
+	 * @param operations - operations of every run, split between the threads
+	 */
+	private static void concurrentThroughputBenchmark(int maxThreads, int operations) {
+		System.out.println("Shared map throughput, 90% get / 10% put, " + Runtime.getRuntime().availableProcessors() + " cores");
+		System.out.println("  threads  ConcurrentHashTableSC ops/us  HashTableSC + one lock ops/us");
+		int keys = 100000;
+		for(int threads = 1; threads <= maxThreads; threads *= 2) {
+			double[] throughput = new double[2];
+			for(int type = 0; type < 2; type++) {
+				Map<Integer, Integer> map = type == 0
+						? new ConcurrentHashTableSC<>(keys, ConcurrentHashTableSC.DEFAULT_LOAD_FACTOR, maxThreads, INTEGER_HASH)
+						: new HashTableSC<>(keys, INTEGER_HASH);
+				for(int i = 0; i < keys; i++)
+					map.put(i, i);
+				boolean locked = type == 1;
+				int perThread = operations / threads;
+				IntConsumer body = thread -> {
+					Random random = new Random(SEED + thread);
+					long found = 0;
+					for(int i = 0; i < perThread; i++) {
+						Integer key = random.nextInt(keys);
+						boolean write = random.nextInt(10) == 0;
+						if(locked) {
+							synchronized(map) {
+								if(write) map.put(key, i);
+								else found += map.get(key);
+							}
+						}
+						else if(write) map.put(key, i);
+						else found += map.get(key);
+					}
+					if(found < 0)
+						System.out.println("unexpected sum");
+				};
+				/* Warm up so the JIT compiles the loop before timing */
+				runThreads(1, body);
+				long time = runThreads(threads, body);
+				throughput[type] = perThread * (double) threads / (time / 1000.0);
+			}
+			System.out.printf("  %7d  %28.1f  %29.1f%n", threads, throughput[0], throughput[1]);
+		}
+	}
+
+	/**
+	 * Starts the threads at the same time and waits for all of them.
+	 * @param threads - amount of threads
+	 * @param body - work of every thread, given the number of the thread
+	 * @return the time from the start until the last thread finished, in nanoseconds
+	 */
+	private static long runThreads(int threads, IntConsumer body) {
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread[] workers = new Thread[threads];
+		for(int t = 0; t < threads; t++) {
+			int thread = t;
+			workers[t] = new Thread(() -> {
+				try {
+					start.await();
+					body.accept(thread);
+				} catch(Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			workers[t].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for(Thread worker : workers) {
+			try {
+				worker.join();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the threads", e);
+			}
+		}
+		long time = System.nanoTime() - begin;
+		if(failure.get() != null)
+			throw new IllegalStateException("A thread failed", failure.get());
+		return time;
+	}
+
+	/**
+	 * Computes the travel times of a random route tree the way RoutingSnapshot does (hops of
+	 * every station from the hops of its parent, then distance * 2.5 + 15 * hops) and reads them
+	 * all back, once with a Map<String, Integer> and a Map<String, Double> and once with an
+	 * ObjectIntHashMap and an ObjectDoubleHashMap. Reports the time and the bytes the thread
+	 * allocated per station, the primitive maps only allocate their arrays.
+	 * @param stations - amount of stations of the tree
+	 */
+	private static void primitiveMapBenchmark(int stations) {
+		System.out.println("Travel times of " + stations + " stations");
+		System.out.println("  maps                             compute ms   read ms   bytes/station");
+		Random random = new Random(SEED);
+		String[] names = new String[stations];
+		int[] parents = new int[stations], distances = new int[stations];
+		for(int i = 0; i < stations; i++) {
+			names[i] = "Station" + i;
+			/* Parents come first, so the hops of a parent are known before its children */
+			parents[i] = i == 0 ? 0 : random.nextInt(i);
+			distances[i] = i == 0 ? 0 : distances[parents[i]] + 1 + random.nextInt(100);
+		}
+		for(int round = 0; round < 2; round++) {
+			/* The first round only warms up the JIT */
+			for(boolean primitive : new boolean[] {false, true}) {
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				double sum = 0;
+				long computed;
+				if(primitive) {
+					ObjectIntHashMap<String> hops = new ObjectIntHashMap<>(stations, new MurmurHashFunction<>());
+					ObjectDoubleHashMap<String> times = new ObjectDoubleHashMap<>(stations, new MurmurHashFunction<>());
+					for(int i = 0; i < stations; i++) {
+						int stationsBetween = i == 0 ? 0 : hops.get(names[parents[i]]) + 1;
+						hops.put(names[i], stationsBetween);
+						times.put(names[i], distances[i] * 2.5 + 15 * stationsBetween);
+					}
+					computed = System.nanoTime();
+					for(int i = 0; i < stations; i++)
+						sum += times.get(names[i]);
+				}
+				else {
+					Map<String, Integer> hops = MapType.ROBIN_HOOD.create(stations, new MurmurHashFunction<>());
+					Map<String, Double> times = MapType.ROBIN_HOOD.create(stations, new MurmurHashFunction<>());
+					for(int i = 0; i < stations; i++) {
+						int stationsBetween = i == 0 ? 0 : hops.get(names[parents[i]]) + 1;
+						hops.put(names[i], stationsBetween);
+						times.put(names[i], distances[i] * 2.5 + 15 * stationsBetween);
+					}
+					computed = System.nanoTime();
+					for(int i = 0; i < stations; i++)
+						sum += times.get(names[i]);
+				}
+				long end = System.nanoTime();
+				bytes = allocatedBytes() - bytes;
+				if(round == 1)
+					System.out.printf("  %-30s %12.1f %9.1f %15s  (%.0f)%n", primitive ? "ObjectInt/ObjectDoubleHashMap" : "Map<String, Integer/Double>",
+							(computed - start) / 1e6, (end - computed) / 1e6, bytes < 0 ? "n/a" : String.format("%.1f", bytes / (double) stations), sum);
+			}
+		}
+	}
+
+	/**
+	 * Adversarial input for SimpleHashFunction: station names that are all anagrams of each other
+	 * (permutations of "abcdefghij"), so they all have the same hash and land in one bucket.
+	 * Reports the average put and get time of a HashTableSC with SimpleHashFunction, whose bucket
+	 * becomes a tree, next to the same keys hashed with MurmurHashFunction and a RobinHoodHashMap
+	 * with SimpleHashFunction, which has to probe linearly. The tree keeps the adversarial case
+	 * growing with log n; the RobinHoodHashMap is skipped above 10^4 keys, where it takes minutes.
+	 * @param maxKeys - largest amount of keys, starting from 10^2 and growing by 10
+	 */
+	private static void anagramBucketBenchmark(int maxKeys) {
+		System.out.println("Anagram station names, all with the same SimpleHashFunction hash (ns per operation)");
+		System.out.println("        keys   HashTableSC simple put/get   HashTableSC murmur put/get   RobinHood simple put/get");
+		String[] all = anagrams(maxKeys);
+		for(int keys = 100; keys <= maxKeys; keys *= 10) {
+			String[] names = Arrays.copyOf(all, keys);
+			/* Warm up so the JIT compiles the tree code before timing */
+			timeAnagrams(new HashTableSC<>(1, new SimpleHashFunction<>()), names);
+			String simple = timeAnagrams(new HashTableSC<>(1, new SimpleHashFunction<>()), names);
+			String murmur = timeAnagrams(new HashTableSC<>(1, new MurmurHashFunction<>()), names);
+			String probing = keys <= 10000 ? timeAnagrams(new RobinHoodHashMap<>(1, new SimpleHashFunction<>()), names) : "skipped";
+			System.out.printf("%12d   %26s   %26s   %24s%n", keys, simple, murmur, probing);
+		}
+	}
+
+	/* Puts every name, then gets every name, and gives the average time of both */
+	private static String timeAnagrams(Map<String, Integer> map, String[] names) {
+		long start = System.nanoTime();
+		for(int i = 0; i < names.length; i++)
+			map.put(names[i], i);
+		long put = System.nanoTime() - start;
+		start = System.nanoTime();
+		long sum = 0;
+		for(String name : names)
+			sum += map.get(name);
+		long get = System.nanoTime() - start;
+		if(sum != names.length * (names.length - 1L) / 2)
+			throw new IllegalStateException("Wrong values");
+		return String.format("%.1f / %.1f", put / (double) names.length, get / (double) names.length);
+	}
+
+	/* The first 'count' permutations of "abcdefghij", in a shuffled order */
+	private static String[] anagrams(int count) {
+		char[] letters = "abcdefghij".toCharArray();
+		String[] names = new String[count];
+		for(int i = 0; i < count; i++) {
+			/* The digits of i in the factorial number system pick the letters */
+			StringBuilder name = new StringBuilder();
+			StringBuilder left = new StringBuilder(new String(letters));
+			int rest = i;
+			for(int base = letters.length; base > 0; base--) {
+				name.append(left.charAt(rest % base));
+				left.deleteCharAt(rest % base);
+				rest /= base;
+			}
+			names[i] = name.toString();
+		}
+		Random random = new Random(SEED);
+		for(int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			String swap = names[i];
+			names[i] = names[j];
+			names[j] = swap;
+		}
+		return names;
+	}
+
+	/**
+	 * Adds the ids 0..ids-1 in a random order and then checks random ids (half of them present)
+	 * with a HashTableSC holding a dummy value per id (how HashSet used to store its elements),
+	 * the key-only HashSet and a BitSet. Reports ns per add and per membership check and the
+	 * heap the set takes.
+	 * @param ids - amount of dense ids
+	 */
+	private static void setBenchmark(int ids) {
+		System.out.println("Sets of " + ids + " dense ids");
+		System.out.println("  set                               add ns   isMember ns     heap MB");
+		Integer[] order = new Integer[ids];
+		for(int i = 0; i < ids; i++)
+			order[i] = i;
+		Random random = new Random(SEED);
+		for(int i = ids - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Integer swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		Integer[] queries = new Integer[ids];
+		for(int i = 0; i < ids; i++)
+			queries[i] = random.nextInt(ids * 2);
+		for(int round = 0; round < 2; round++) {
+			/* The first round only warms up the JIT */
+			for(int kind = 0; kind < 3; kind++) {
+				long heap = usedHeap();
+				Map<Integer, Object> table = null;
+				Set<Integer> set = null;
+				long start = System.nanoTime();
+				if(kind == 0) {
+					table = new HashTableSC<>(16, new MurmurHashFunction<>());
+					for(Integer id : order) table.put(id, new Object());
+				}
+				else {
+					set = kind == 1 ? new HashSet<>(16) : new BitSet(16);
+					for(Integer id : order) set.add(id);
+				}
+				long added = System.nanoTime();
+				int found = 0;
+				for(Integer id : queries) {
+					if(kind == 0 ? table.containsKey(id) : set.isMember(id)) found++;
+				}
+				long end = System.nanoTime();
+				heap = usedHeap() - heap;
+				if(round == 1)
+					System.out.printf("  %-32s %7.1f %13.1f %11.1f   (%d found)%n",
+							kind == 0 ? "HashTableSC with dummy values" : kind == 1 ? "HashSet" : "BitSet",
+							(added - start) / (double) ids, (end - added) / (double) ids, heap / 1e6, found);
+				if(table != null && table.size() != ids || set != null && set.size() != ids)
+					throw new IllegalStateException("Wrong size");
+			}
+		}
+	}
+
+	/**
+	 * Appends n elements to a SinglyLinkedList and a DoublyLinkedList and then reads them back
+	 * with get(i), first with i going up and then with i going down, for n from 10^3 up to
+	 * maxElements. Reports ns per operation; with the tail pointer and the cursor the averages
+	 * stay flat as n grows. Going down is only timed on the DoublyLinkedList, a SinglyLinkedList
+	 * cannot walk backwards so every get(i) there starts again from head.
+	 * @param maxElements - largest amount of elements, the sizes go from 10^3 up to it by powers of ten
+	 */
+	private static void linkedListBenchmark(int maxElements) {
+		System.out.println("Linked lists, appends and sequential get(i)");
+		System.out.println("  list                  elements   add ns/op   get up ns/op   get down ns/op");
+		for(int round = 0; round < 2; round++) {
+			/* The first round only warms up the JIT */
+			for(int elements = 1000; elements <= (round == 0 ? 10000 : maxElements); elements *= 10) {
+				for(int kind = 0; kind < 2; kind++) {
+					List<Integer> list = kind == 0 ? new SinglyLinkedList<>() : new DoublyLinkedList<>();
+					long start = System.nanoTime();
+					for(int i = 0; i < elements; i++)
+						list.add(i);
+					long added = System.nanoTime();
+					long sum = 0;
+					for(int i = 0; i < elements; i++)
+						sum += list.get(i);
+					long up = System.nanoTime();
+					if(kind == 1) {
+						for(int i = elements - 1; i >= 0; i--)
+							sum -= list.get(i);
+					}
+					long down = System.nanoTime();
+					if(kind == 1 && sum != 0 || list.size() != elements)
+						throw new IllegalStateException("Wrong elements");
+					if(round == 1)
+						System.out.printf("  %-20s %10d %11.1f %14.1f %16s%n",
+								kind == 0 ? "SinglyLinkedList" : "DoublyLinkedList", elements,
+								(added - start) / (double) elements, (up - added) / (double) elements,
+								kind == 0 ? "-" : String.format("%.1f", (down - up) / (double) elements));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds ArrayLists of n elements in different ways: adding one element at a time from the
+	 * default capacity, adding one at a time after ensureCapacity(n), addAll from an array and
+	 * from another ArrayList, and the array constructor, with java.util.ArrayList adding one at a
+	 * time as a reference. Then inserts and removes at position 0 of a list of n / 10 elements,
+	 * which shifts the whole list each time. Reports millions of elements per second, the
+	 * average of 5 runs after 2 warm up runs.
+	 * @param elements - amount of elements in the lists built
+	 */
+	private static void arrayListBenchmark(int elements) {
+		System.out.println("ArrayList building " + elements + " elements");
+		System.out.println("  how                                    M elements/s");
+		Integer[] data = randomKeys(elements);
+		ArrayList<Integer> source = new ArrayList<>(data);
+		String[] names = {"add, default capacity", "add after ensureCapacity", "addAll(E[])", "addAll(List)",
+				"ArrayList(E[])", "java.util.ArrayList add"};
+		for(int kind = 0; kind < names.length; kind++) {
+			long total = 0;
+			for(int run = 0; run < 7; run++) {
+				long start = System.nanoTime();
+				int size;
+				if(kind == 5) {
+					java.util.ArrayList<Integer> list = new java.util.ArrayList<>();
+					for(Integer key : data)
+						list.add(key);
+					size = list.size();
+				}
+				else {
+					ArrayList<Integer> list = kind == 4 ? new ArrayList<>(data) : new ArrayList<>();
+					if(kind == 0)
+						for(Integer key : data)
+							list.add(key);
+					else if(kind == 1) {
+						list.ensureCapacity(elements);
+						for(Integer key : data)
+							list.add(key);
+					}
+					else if(kind == 2)
+						list.addAll(data);
+					else if(kind == 3)
+						list.addAll(source);
+					size = list.size();
+				}
+				long time = System.nanoTime() - start;
+				if(size != elements)
+					throw new IllegalStateException("Wrong size");
+				if(run >= 2)
+					total += time;
+			}
+			System.out.printf("  %-38s %12.1f%n", names[kind], elements * 5 / (total / 1e3));
+		}
+
+		int shifted = elements / 10;
+		ArrayList<Integer> list = new ArrayList<>(shifted);
+		for(int run = 0; run < 2; run++) {
+			long start = System.nanoTime();
+			for(int i = 0; i < shifted; i++)
+				list.add(0, data[i]);
+			long added = System.nanoTime();
+			while(!list.isEmpty())
+				list.remove(0);
+			long removed = System.nanoTime();
+			if(run == 1)
+				System.out.printf("  add(0, e) / remove(0), %d elements   %8.3f / %.3f%n", shifted,
+						shifted / ((added - start) / 1e3), shifted / ((removed - added) / 1e3));
+		}
+	}
+
+	/**
+	 * Runs operations on the ArrayDeque and on the linked and array Stack and Queue
+	 * implementations, in two patterns: filling with n / 2 elements and emptying again, and
+	 * keeping 1000 elements while adding and removing one at a time, like a traversal does.
+	 * Reports ns per operation and bytes allocated per operation, which is 0 for the array
+	 * based ones once they stop growing.
+	 * @param operations - amount of adds and removes in each pattern
+	 */
+	private static void dequeBenchmark(int operations) {
+		System.out.println("Stacks and queues, " + operations + " operations");
+		System.out.println("  structure                 fill/empty ns/op   B/op   steady ns/op   B/op");
+		Integer[] data = randomKeys(1 << 16);
+		String[] names = {"ArrayDeque as Stack", "LinkedStack", "LinkedListStack", "ArrayListStack",
+				"ArrayDeque as Queue", "ListQueue", "CircularArrayQueue"};
+		for(int round = 0; round < 2; round++) {
+			/* The first round only warms up the JIT */
+			for(int kind = 0; kind < names.length; kind++) {
+				double[] results = new double[4];
+				for(int pattern = 0; pattern < 2; pattern++) {
+					Stack<Integer> stack = kind == 0 ? new ArrayDeque<>() : kind == 1 ? new LinkedStack<>()
+							: kind == 2 ? new LinkedListStack<>() : kind == 3 ? new ArrayListStack<>() : null;
+					Queue<Integer> queue = kind == 4 ? new ArrayDeque<>() : kind == 5 ? new ListQueue<>()
+							: kind == 6 ? new CircularArrayQueue<>() : null;
+					int steady = pattern == 0 ? 0 : 1000;
+					for(int i = 0; i < steady; i++) {
+						if(stack != null) stack.push(data[i]);
+						else queue.enqueue(data[i]);
+					}
+					long bytes = allocatedBytes();
+					long start = System.nanoTime();
+					long sum = 0;
+					int half = operations / 2;
+					if(pattern == 0) {
+						for(int i = 0; i < half; i++) {
+							if(stack != null) stack.push(data[i & 0xFFFF]);
+							else queue.enqueue(data[i & 0xFFFF]);
+						}
+						for(int i = 0; i < half; i++)
+							sum += stack != null ? stack.pop() : queue.dequeue();
+					}
+					else {
+						for(int i = 0; i < half; i++) {
+							if(stack != null) {
+								stack.push(data[i & 0xFFFF]);
+								sum += stack.pop();
+							}
+							else {
+								queue.enqueue(data[i & 0xFFFF]);
+								sum += queue.dequeue();
+							}
+						}
+					}
+					results[pattern * 2] = (System.nanoTime() - start) / (double) (half * 2);
+					results[pattern * 2 + 1] = (allocatedBytes() - bytes) / (double) (half * 2);
+					if(sum == 0 || (stack != null ? stack.size() : queue.size()) != steady)
+						throw new IllegalStateException("Wrong elements");
+				}
+				if(round == 1)
+					System.out.printf("  %-25s %18.1f %6.1f %14.1f %6.1f%n", names[kind],
+							results[0], results[1], results[2], results[3]);
+			}
+		}
+	}
+
+	/**
+	 * Sums a CPU heavy function of every element of a list, and of every value of a map, with a
+	 * for-each loop, a sequential stream and a parallel stream. Reports ms per pass, the average
+	 * of 5 passes after 2 warm up passes. The parallel stream can only be faster with more than
+	 * one core, the amount available is printed first.
+	 * @param elements - amount of elements in every list and map
+	 */
+	private static void streamBenchmark(int elements) {
+		System.out.println("Streams over " + elements + " elements, " + Runtime.getRuntime().availableProcessors() + " cores");
+		System.out.println("  source                         for-each ms   stream ms   parallel ms");
+		Integer[] data = randomKeys(elements);
+		ArrayList<Integer> arrayList = new ArrayList<>(data);
+		DoublyLinkedList<Integer> linkedList = new DoublyLinkedList<>();
+		Map<Integer, Integer> table = new HashTableSC<>(16, new MurmurHashFunction<>());
+		for(Integer key : data) {
+			linkedList.add(key);
+			table.put(key, key);
+		}
+		String[] names = {"ArrayList", "DoublyLinkedList", "HashTableSC values()"};
+		for(int kind = 0; kind < names.length; kind++) {
+			Iterable<Integer> source = kind == 0 ? arrayList : kind == 1 ? linkedList : table.values();
+			double[] times = new double[3];
+			long check = 0;
+			for(int way = 0; way < 3; way++) {
+				long total = 0;
+				for(int run = 0; run < 7; run++) {
+					long start = System.nanoTime();
+					long sum = 0;
+					if(way == 0) {
+						for(Integer value : source)
+							sum += work(value);
+					}
+					else {
+						boolean parallel = way == 2;
+						java.util.stream.Stream<Integer> stream = kind == 0 ? (parallel ? arrayList.parallelStream() : arrayList.stream())
+								: kind == 1 ? (parallel ? linkedList.parallelStream() : linkedList.stream())
+								: (parallel ? table.values().parallelStream() : table.values().stream());
+						sum = stream.mapToLong(DataStructuresBenchmark::work).sum();
+					}
+					if(run >= 2)
+						total += System.nanoTime() - start;
+					if(way == 0 && run == 0)
+						check = sum;
+					else if(sum != check)
+						throw new IllegalStateException("Different sums");
+				}
+				times[way] = total / 5e6;
+			}
+			System.out.printf("  %-30s %11.1f %11.1f %13.1f%n", names[kind], times[0], times[1], times[2]);
+		}
+	}
+
+	/* Some arithmetic per element so the streams have work to split */
+	private static long work(int value) {
+		long x = value;
+		for(int i = 0; i < 32; i++)
+			x = x * 6364136223846793005L + 1442695040888963407L;
+		return x >>> 40;
+	}
+
+	/**
+	 * Sorts n Integers in random order and n Integers that are sorted except for 1% of them
+	 * moved to random positions, with the sort() of each List and by copying into java.util
+	 * (java.util.ArrayList and java.util.LinkedList, whose sorts copy into an array and use
+	 * TimSort). Reports ms per sort including the copy, the average of 3 sorts after 2 warm up sorts.
+	 * @param elements - amount of elements to sort
+	 */
+	private static void sortBenchmark(int elements) {
+		System.out.println("Sorting " + elements + " Integers, ms");
+		System.out.println("  list                                    random   nearly sorted");
+		Random random = new Random(SEED);
+		Integer[] shuffled = randomKeys(elements);
+		Integer[] nearly = new Integer[elements];
+		for(int i = 0; i < elements; i++)
+			nearly[i] = i;
+		for(int i = 0; i < elements / 100; i++)
+			nearly[random.nextInt(elements)] = random.nextInt(elements);
+		String[] names = {"ArrayList.sort", "copy to java.util.ArrayList, sort", "SinglyLinkedList.sort",
+				"DoublyLinkedList.sort", "copy to java.util.LinkedList, sort"};
+		java.util.Comparator<Integer> order = java.util.Comparator.naturalOrder();
+		for(int kind = 0; kind < names.length; kind++) {
+			double[] times = new double[2];
+			for(int input = 0; input < 2; input++) {
+				Integer[] data = input == 0 ? shuffled : nearly;
+				long total = 0;
+				for(int run = 0; run < 5; run++) {
+					List<Integer> list = kind == 0 ? new ArrayList<>(data) : kind == 2 ? new SinglyLinkedList<>()
+							: kind == 3 ? new DoublyLinkedList<>() : null;
+					if(kind == 2 || kind == 3)
+						for(Integer value : data)
+							list.add(value);
+					long start = System.nanoTime();
+					Integer first;
+					if(list != null) {
+						list.sort(order);
+						first = list.first();
+					}
+					else {
+						java.util.List<Integer> copy = kind == 1 ? new java.util.ArrayList<>(elements) : new java.util.LinkedList<>();
+						for(Integer value : data)
+							copy.add(value);
+						copy.sort(order);
+						first = copy.get(0);
+					}
+					if(run >= 2)
+						total += System.nanoTime() - start;
+					if(first == null)
+						throw new IllegalStateException("Empty list");
+				}
+				times[input] = total / 3e6;
+			}
+			System.out.printf("  %-38s %8.1f %15.1f%n", names[kind], times[0], times[1]);
+		}
+	}
+
+	/* Bytes allocated by the current thread so far, -1 if the JVM does not count them */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+		return -1;
+	}
+
+	/* Fills a throwaway map so the JIT compiles its operations before anything is timed */
+	private static void warmUp(MapType type) {
+		Map<Integer, Integer> map = type.create(1, INTEGER_HASH);
+		for(Integer key : randomKeys(100000)) {
+			map.put(key, key);
+			map.get(-key);
+		}
+	}
+
+	/* Heap in use after asking for a collection, precise enough to compare sizes in MB */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Puts every key with itself as the value.
+	 * @return the time of the slowest put that doubled the buckets, in nanoseconds
+	 */
+	private static long fill(HashTableSC<Integer, Integer> table, Integer[] keys) {
+		long slowest = 0;
+		for(Integer key : keys) {
+			int capacity = table.capacity();
+			long start = System.nanoTime();
+			table.put(key, key);
+			long time = System.nanoTime() - start;
+			if(table.capacity() != capacity)
+				slowest = Math.max(slowest, time);
+		}
+		return slowest;
+	}
+
+	private static Integer[] randomKeys(int count) {
+		Random random = new Random(SEED);
+		Integer[] keys = new Integer[count];
+		for(int i = 0; i < count; i++)
+			keys[i] = random.nextInt(Integer.MAX_VALUE - 1) + 1;
+		return keys;
+	}
+
+	/* About 150 bytes per key covers the entries, the buckets and both tables of a rehash */
+	private static boolean fits(int keys) {
+		return keys * 150L < Runtime.getRuntime().maxMemory();
+	}
+
+}
@@ -0,0 +1,299 @@
+package testers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import data_structures.ArrayList;
+import data_structures.HashTableSC;
+import data_structures.MurmurHashFunction;
+import interfaces.Entry;
+import interfaces.List;
+import interfaces.Map;
+import interfaces.Set;
+import main.RoutingSnapshot;
+import main.Station;
+import main.TrainStationManager;
+
+/**
+ * Tests for the changes of connections of TrainStationManager (addConnection, removeConnection
+ * and updateDistance), which repair the routes from Westside instead of searching again.
+ * <p>
+ * Every test applies random changes and, after each one, checks the manager against a model of
+ * the network kept by the test and a full Dijkstra search on that model:
+ * <ul>
+ * <li>the stations and connections are the ones of the model</li>
+ * <li>every distance is the one of the full search, and every station is reached from a station
+ * whose distance plus the connection between them gives its own (routes with the same distance
+ * may pick either station)</li>
+ * <li>every travel time follows the routes</li>
+ * <li>the returned set has every station whose distance, previous station or travel time
+ * changed</li>
+ * </ul>
+ */
+public class DynamicRouteTester {
+
+	private static final String ORIGIN = "Westside";
+	private static final long SEED = 42;
+
+	@DisplayName("Testing changes of connections on the station file")
+	@Nested
+	public class TestingStationFile {
+		@Test
+		@DisplayName("Testing random changes of the stations of the file")
+		public void randomChangesTester() {
+			TrainStationManager tsm = new TrainStationManager("stations.csv");
+			applyRandomChanges(tsm, new Random(SEED), 500, 0.1);
+		}
+
+		@Test
+		@DisplayName("Testing changes that make stations unreachable and reachable again")
+		public void disconnectTester() {
+			TrainStationManager tsm = new TrainStationManager("stations.csv");
+			Model model = new Model(tsm.getStations());
+			for(String other : model.neighbors(ORIGIN))
+				check(tsm, model, () -> tsm.removeConnection(ORIGIN, other), () -> model.remove(ORIGIN, other));
+			for(Entry<String, Station> route : tsm.getShortestRoutes().entries()) {
+				if(!route.getKey().equals(ORIGIN))
+					assertEquals(Integer.MAX_VALUE, route.getValue().getDistance(), route.getKey() + " should be unreachable.");
+			}
+			check(tsm, model, () -> tsm.addConnection(ORIGIN, "Dubay", 100), () -> model.add(ORIGIN, "Dubay", 100));
+		}
+
+		@Test
+		@DisplayName("Testing that a failed change publishes nothing")
+		public void failedChangeTester() {
+			TrainStationManager tsm = new TrainStationManager("stations.csv");
+			RoutingSnapshot before = tsm.getSnapshot();
+			boolean thrown = false;
+			try {
+				tsm.removeConnection(ORIGIN, "Takyo");
+			} catch(IllegalArgumentException e) {
+				thrown = true;
+			}
+			assertTrue(thrown, "Failed to reject removing a connection that does not exist.");
+			assertTrue(before == tsm.getSnapshot(), "Failed to keep the snapshot after a rejected change.");
+		}
+	}
+
+	@DisplayName("Testing changes of connections on random networks")
+	@Nested
+	public class TestingRandomNetworks {
+		@Test
+		@DisplayName("Testing random changes on small networks with many equal distances")
+		public void smallNetworksTester() {
+			Random random = new Random(SEED);
+			for(int network = 0; network < 40; network++)
+				applyRandomChanges(randomManager(random, 5 + random.nextInt(10), 3), random, 100, 0.05);
+		}
+
+		@Test
+		@DisplayName("Testing random changes on larger networks")
+		public void largerNetworksTester() {
+			Random random = new Random(SEED + 1);
+			for(int network = 0; network < 5; network++)
+				applyRandomChanges(randomManager(random, 60 + random.nextInt(60), 50), random, 300, 0.02);
+		}
+	}
+
+	/**
+	 * Applies random changes to the manager, checking the manager after each one.
+	 * @param tsm - manager to change
+	 * @param random - source of the changes
+	 * @param changes - amount of changes
+	 * @param newStations - probability that an added connection leads to a new station
+	 */
+	private static void applyRandomChanges(TrainStationManager tsm, Random random, int changes, double newStations) {
+		Model model = new Model(tsm.getStations());
+		for(int i = 0; i < changes; i++) {
+			java.util.List<String> names = new java.util.ArrayList<>(model.connections.keySet());
+			String src = names.get(random.nextInt(names.size()));
+			int kind = random.nextInt(3);
+			java.util.List<String> neighbors = new java.util.ArrayList<>(model.neighbors(src));
+			if(kind == 0 || neighbors.isEmpty()) {
+				String dest = random.nextDouble() < newStations ? "New" + i : names.get(random.nextInt(names.size()));
+				int distance = random.nextInt(60);
+				check(tsm, model, () -> tsm.addConnection(src, dest, distance), () -> model.add(src, dest, distance));
+			}
+			else {
+				String dest = neighbors.get(random.nextInt(neighbors.size()));
+				if(kind == 1) {
+					check(tsm, model, () -> tsm.removeConnection(src, dest), () -> model.remove(src, dest));
+				}
+				else {
+					int distance = random.nextInt(60);
+					check(tsm, model, () -> tsm.updateDistance(src, dest, distance), () -> model.update(src, dest, distance));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes one change on the manager and on the model and checks the manager against the model.
+	 * @param tsm - manager to change
+	 * @param model - model of the network before the change
+	 * @param change - change made on the manager, returns the stations it reports
+	 * @param modelChange - same change made on the model
+	 */
+	private static void check(TrainStationManager tsm, Model model, Change change, Runnable modelChange) {
+		RoutingSnapshot before = tsm.getSnapshot();
+		Map<String, Station> oldRoutes = before.getShortestRoutes();
+		Map<String, Double> oldTimes = before.getTravelTimes();
+		Set<String> changed = change.apply();
+		modelChange.run();
+
+		/* Stations and connections */
+		Map<String, List<Station>> stations = tsm.getStations();
+		assertEquals(model.connections.size(), stations.size(), "Failed to keep the amount of stations.");
+		for(String name : model.connections.keySet()) {
+			TreeSet<String> expected = new TreeSet<>(), actual = new TreeSet<>();
+			for(java.util.Map.Entry<String, TreeSet<Integer>> other : model.connections.get(name).entrySet())
+				for(int distance : other.getValue())
+					expected.add(other.getKey() + ":" + distance);
+			for(Station other : stations.get(name))
+				actual.add(other.getCityName() + ":" + other.getDistance());
+			assertEquals(expected, actual, "Failed to keep the connections of " + name + ".");
+		}
+
+		/* Routes against a full search */
+		java.util.Map<String, Integer> expected = model.shortestDistances();
+		Map<String, Station> routes = tsm.getShortestRoutes();
+		Map<String, Double> times = tsm.getTravelTimes();
+		assertEquals(expected.size(), routes.size(), "Failed to keep a route for every station.");
+		for(String name : expected.keySet()) {
+			Station route = routes.get(name);
+			int distance = expected.get(name);
+			assertEquals(distance, route.getDistance(), "Failed to repair the distance of " + name + ".");
+			if(distance != Integer.MAX_VALUE && !name.equals(ORIGIN)) {
+				String previous = route.getCityName();
+				TreeSet<Integer> connection = model.connections.get(previous).get(name);
+				assertTrue(connection != null && expected.get(previous) + connection.first() == distance,
+						"Failed to reach " + name + " from a station on a shortest route.");
+			}
+			assertEquals(travelTime(routes, name), times.get(name), "Failed to follow the routes in the travel time of " + name + ".");
+
+			/* Stations whose route or travel time changed are reported */
+			Station oldRoute = oldRoutes.get(name);
+			boolean routeChanged = oldRoute == null || oldRoute.getDistance() != route.getDistance()
+					|| !oldRoute.getCityName().equals(route.getCityName()) || !times.get(name).equals(oldTimes.get(name));
+			if(routeChanged)
+				assertTrue(changed.isMember(name), "Failed to report that the route of " + name + " changed.");
+		}
+	}
+
+	/**
+	 * Travel time of a station computed from the routes: 2.5 minutes per kilometer and 15 minutes
+	 * per station between it and the origin.
+	 */
+	private static double travelTime(Map<String, Station> routes, String name) {
+		int stationsBetween = 0;
+		for(String station = name; !station.equals(ORIGIN); station = routes.get(station).getCityName())
+			stationsBetween++;
+		return routes.get(name).getDistance() * 2.5 + 15 * Math.max(stationsBetween - 1, 0);
+	}
+
+	/**
+	 * Builds a manager on a random connected network that includes Westside.
+	 * @param random - source of the network
+	 * @param stationCount - amount of stations besides Westside
+	 * @param maxDistance - connections have distances from 1 to maxDistance
+	 */
+	private static TrainStationManager randomManager(Random random, int stationCount, int maxDistance) {
+		Map<String, List<Station>> stations = new HashTableSC<>(stationCount + 1, new MurmurHashFunction<>());
+		stations.put(ORIGIN, new ArrayList<>());
+		for(int i = 0; i < stationCount; i++)
+			stations.put("S" + i, new ArrayList<>());
+		for(int i = 0; i < stationCount; i++) {
+			/* A connection to an earlier station keeps the network connected, then a few more */
+			String name = "S" + i;
+			String earlier = i == 0 ? ORIGIN : (random.nextInt(4) == 0 ? ORIGIN : "S" + random.nextInt(i));
+			connect(stations, name, earlier, 1 + random.nextInt(maxDistance));
+			for(int extra = random.nextInt(3); extra > 0; extra--)
+				connect(stations, name, "S" + random.nextInt(stationCount), 1 + random.nextInt(maxDistance));
+		}
+		TrainStationManager tsm = new TrainStationManager("stations.csv");
+		tsm.setStations(stations);
+		/* setStations keeps the old routes from Westside, these are the ones on the new network */
+		tsm.setShortestRoutes(tsm.getShortestRoutes(ORIGIN));
+		return tsm;
+	}
+
+	private static void connect(Map<String, List<Station>> stations, String a, String b, int distance) {
+		stations.get(a).add(new Station(b, distance));
+		stations.get(b).add(new Station(a, distance));
+	}
+
+	/**
+	 * A change made on the manager, which returns the stations it reports.
+	 */
+	private interface Change {
+		Set<String> apply();
+	}
+
+	/**
+	 * Network kept by the test: for every station, the distances of its connections to each
+	 * other station. Connections go both ways, and the same distance twice is kept once, like in
+	 * the manager.
+	 */
+	private static class Model {
+		private final TreeMap<String, TreeMap<String, TreeSet<Integer>>> connections = new TreeMap<>();
+
+		Model(Map<String, List<Station>> stations) {
+			for(Entry<String, List<Station>> station : stations.entries()) {
+				TreeMap<String, TreeSet<Integer>> others = connections.computeIfAbsent(station.getKey(), key -> new TreeMap<>());
+				for(Station other : station.getValue())
+					others.computeIfAbsent(other.getCityName(), key -> new TreeSet<>()).add(other.getDistance());
+			}
+		}
+
+		java.util.Set<String> neighbors(String name) {
+			return new TreeSet<>(connections.get(name).keySet());
+		}
+
+		void add(String a, String b, int distance) {
+			connections.computeIfAbsent(a, key -> new TreeMap<>()).computeIfAbsent(b, key -> new TreeSet<>()).add(distance);
+			connections.computeIfAbsent(b, key -> new TreeMap<>()).computeIfAbsent(a, key -> new TreeSet<>()).add(distance);
+		}
+
+		void remove(String a, String b) {
+			connections.get(a).remove(b);
+			connections.get(b).remove(a);
+		}
+
+		void update(String a, String b, int distance) {
+			remove(a, b);
+			add(a, b, distance);
+		}
+
+		/* Full Dijkstra search from Westside, Integer.MAX_VALUE for the stations it cannot reach */
+		java.util.Map<String, Integer> shortestDistances() {
+			java.util.Map<String, Integer> dist = new java.util.HashMap<>();
+			for(String name : connections.keySet())
+				dist.put(name, Integer.MAX_VALUE);
+			dist.put(ORIGIN, 0);
+			java.util.PriorityQueue<java.util.Map.Entry<String, Integer>> toVisit = new java.util.PriorityQueue<>(java.util.Map.Entry.comparingByValue());
+			toVisit.add(new java.util.AbstractMap.SimpleEntry<>(ORIGIN, 0));
+			while(!toVisit.isEmpty()) {
+				java.util.Map.Entry<String, Integer> next = toVisit.poll();
+				if(next.getValue() > dist.get(next.getKey()))
+					continue;
+				for(java.util.Map.Entry<String, TreeSet<Integer>> other : connections.get(next.getKey()).entrySet()) {
+					int distance = next.getValue() + other.getValue().first();
+					if(distance < dist.get(other.getKey())) {
+						dist.put(other.getKey(), distance);
+						toVisit.add(new java.util.AbstractMap.SimpleEntry<>(other.getKey(), distance));
+					}
+				}
+			}
+			return dist;
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package testers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import data_structures.FNV1aHashFunction;
+import data_structures.MurmurHashFunction;
+import data_structures.ObjectHashFunction;
+import data_structures.PolynomialHashFunction;
+import data_structures.SimpleHashFunction;
+import interfaces.HashFunction;
+import main.ConnectionBuffer;
+import main.StationFileParser;
+import main.StationGraph;
+
+/**
+ * Reports how evenly every HashFunction spreads station names over the buckets of a
+ * HashTableSC. Run it as a regular Java application with the station files to read as
+ * arguments (inputFiles/stations.csv by default).
+ * <p>
+ * Three sets of keys are tried: the real station names, anagrams of those names (the same
+ * letters in a different order) and numbered names like "Station123", which only differ in a
+ * few characters. Each set is hashed into tables of three sizes around the amount of keys,
+ * picking buckets the same way HashTableSC does, and for every function it prints:
+ * <ul>
+ * <li>used: percentage of buckets with at least one key, next to what a uniform hash would give</li>
+ * <li>longest: keys in the fullest bucket, the cost of the worst lookup</li>
+ * <li>chi2/df: chi-square statistic of the bucket counts over its degrees of freedom, close to 1
+ * for a uniform hash and much larger when keys pile up in a few buckets</li>
+ * </ul>
+ */
+public class HashDistributionHarness {
+
+	private static final long SEED = 42;
+	private static final int ANAGRAMS_PER_NAME = 200;
+	private static final int NUMBERED_NAMES = 100000;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static final HashFunction<String>[] FUNCTIONS = new HashFunction[] {
+		new SimpleHashFunction<String>(),
+		new PolynomialHashFunction<String>(),
+		new FNV1aHashFunction<String>(),
+		new MurmurHashFunction<String>(),
+		new ObjectHashFunction<String>()
+	};
+
+	public static void main(String[] args) throws IOException {
+		String[] files = args.length > 0 ? args : new String[] {"inputFiles/stations.csv"};
+		String[] names = stationNames(files);
+
+		report("station names", names);
+		report("anagrams of station names", anagrams(names));
+		String[] numbered = new String[NUMBERED_NAMES];
+		for(int i = 0; i < numbered.length; i++)
+			numbered[i] = "Station" + i;
+		report("numbered names", numbered);
+	}
+
+	/**
+	 * Reads the distinct station names of the given files.
+	 * @param files - station files
+	 * @return the names in order of first appearance
+	 */
+	public static String[] stationNames(String[] files) throws IOException {
+		ConnectionBuffer buffer = new ConnectionBuffer();
+		for(String file : files) {
+			try (InputStream in = new FileInputStream(file)) {
+				new StationFileParser(buffer).parse(in);
+			}
+		}
+		StationGraph graph = new StationGraph(buffer);
+		String[] names = new String[graph.size()];
+		for(int i = 0; i < names.length; i++)
+			names[i] = graph.nameOf(i);
+		return names;
+	}
+
+	/**
+	 * Builds up to ANAGRAMS_PER_NAME distinct shuffles of the letters of every name.
+	 */
+	private static String[] anagrams(String[] names) {
+		Random random = new Random(SEED);
+		java.util.Set<String> result = new java.util.LinkedHashSet<>();
+		for(String name : names) {
+			char[] letters = name.toCharArray();
+			int added = 0;
+			/* Short names have fewer distinct shuffles, so give up after a few repeated tries */
+			for(int tries = 0; added < ANAGRAMS_PER_NAME && tries < ANAGRAMS_PER_NAME * 4; tries++) {
+				for(int j = letters.length - 1; j > 0; j--) {
+					int k = random.nextInt(j + 1);
+					char swap = letters[j];
+					letters[j] = letters[k];
+					letters[k] = swap;
+				}
+				if(result.add(new String(letters)))
+					added++;
+			}
+		}
+		return result.toArray(new String[0]);
+	}
+
+	/**
+	 * Prints the distribution of every function at half, equal and double the amount of keys
+	 * in buckets (rounded to powers of two).
+	 * @param title - name of the set of keys
+	 * @param keys - keys to hash
+	 */
+	private static void report(String title, String[] keys) {
+		int n = keys.length;
+		System.out.println(title + ", " + n + " keys");
+		System.out.println("  buckets  function                    used (uniform)   longest     chi2/df");
+		int size = Integer.highestOneBit(Math.max(n, 2) - 1) << 1;
+		for(int buckets : new int[] {Math.max(size / 2, 1), size, size * 2}) {
+			double expectedUsed = 1 - Math.pow(1 - 1.0 / buckets, n);
+			for(HashFunction<String> function : FUNCTIONS) {
+				int[] counts = new int[buckets];
+				for(String key : keys) {
+					int h = function.hashCode(key);
+					counts[(h ^ (h >>> 16)) & (buckets - 1)]++;
+				}
+				int used = 0, longest = 0;
+				double expected = n / (double) buckets, chiSquare = 0;
+				for(int count : counts) {
+					if(count > 0)
+						used++;
+					longest = Math.max(longest, count);
+					chiSquare += (count - expected) * (count - expected) / expected;
+				}
+				System.out.printf("  %7d  %-26s %6.1f%% (%5.1f%%)  %7d  %10.2f%n", buckets, function.getClass().getSimpleName(),
+						100.0 * used / buckets, 100 * expectedUsed, longest, chiSquare / Math.max(buckets - 1, 1));
+			}
+		}
+	}
+
+}
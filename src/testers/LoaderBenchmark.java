@@ -0,0 +1,156 @@
+package testers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import main.ConnectionBuffer;
+import main.ParallelStationLoader;
+import main.StationFileParser;
+import main.StationGraph;
+
+/**
+ * Benchmarks for loading station files. Run it as a regular Java application, optionally
+ * with the amount of lines of the synthetic file as the first argument.
+ * <p>
+ * The synthetic file is written to the temporary directory with random connections between
+ * a fixed pool of stations, and every loader reads the same file and builds the same graph.
+ */
+public class LoaderBenchmark {
+
+	private static final long SEED = 42;
+	private static final int STATIONS = 10000;
+	private static final int DEFAULT_LINES = 2000000;
+
+	public static void main(String[] args) throws IOException {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+		File file = writeStationFile(lines);
+		try {
+			parserBenchmark(file, lines);
+			parallelBenchmark(file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Writes a station file with the given amount of connection lines plus the header.
+	 * @param lines - amount of connections
+	 * @return the temporary file
+	 */
+	public static File writeStationFile(int lines) throws IOException {
+		File file = File.createTempFile("stations", ".csv");
+		Random random = new Random(SEED);
+		try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+			out.write("src_city,dest_city,distance\n");
+			for(int i = 0; i < lines; i++) {
+				out.write("Station" + random.nextInt(STATIONS) + ",Station" + random.nextInt(STATIONS) + "," + (1 + random.nextInt(500)));
+				out.write('\n');
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Compares the line.split() loader the constructor used to have with the streaming
+	 * StationFileParser, reporting time, throughput and garbage collections.
+	 * @param file - station file to read
+	 * @param lines - amount of connections in the file
+	 */
+	private static void parserBenchmark(File file, int lines) throws IOException {
+		double megabytes = file.length() / (1024.0 * 1024.0);
+		System.out.printf("Loading %d lines (%.1f MB)%n", lines, megabytes);
+
+		/* Warm up both loaders so the JIT compiles them before anything is timed */
+		splitLoad(file);
+		streamingLoad(file);
+
+		long collections = collections();
+		long start = System.nanoTime();
+		ConnectionBuffer split = splitLoad(file);
+		double splitTime = (System.nanoTime() - start) / 1e9;
+		long splitCollections = collections() - collections;
+
+		collections = collections();
+		start = System.nanoTime();
+		ConnectionBuffer streaming = streamingLoad(file);
+		double streamingTime = (System.nanoTime() - start) / 1e9;
+		long streamingCollections = collections() - collections;
+
+		boolean same = new StationGraph(split).checksum() == new StationGraph(streaming).checksum();
+		System.out.printf("  split():          %8.2f s, %8.1f MB/s, %5d GCs%n", splitTime, megabytes / splitTime, splitCollections);
+		System.out.printf("  StationFileParser:%8.2f s, %8.1f MB/s, %5d GCs (%.2fx faster)%n", streamingTime, megabytes / streamingTime, streamingCollections, splitTime / streamingTime);
+		System.out.println("  same graph: " + same);
+	}
+
+	/**
+	 * Compares the sequential StationFileParser with the memory mapped ParallelStationLoader
+	 * at 1, 2, 4, ... threads up to the number of cores.
+	 * @param file - station file to read
+	 */
+	private static void parallelBenchmark(File file) throws IOException {
+		double megabytes = file.length() / (1024.0 * 1024.0);
+		System.out.println("Parallel loading");
+
+		streamingLoad(file);
+		long start = System.nanoTime();
+		ConnectionBuffer buffer = streamingLoad(file);
+		double sequential = (System.nanoTime() - start) / 1e9;
+		long expected = new StationGraph(buffer).checksum();
+		System.out.printf("  StationFileParser:     %8.2f s, %8.1f MB/s%n", sequential, megabytes / sequential);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		for(int threads = 1; threads <= cores; threads *= 2) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			new ParallelStationLoader(file.getPath(), pool);
+			start = System.nanoTime();
+			ParallelStationLoader loader = new ParallelStationLoader(file.getPath(), pool);
+			double parallel = (System.nanoTime() - start) / 1e9;
+			pool.shutdown();
+			long checksum = new StationGraph(loader.getBuffer()).checksum();
+			System.out.printf("  mapped, %2d threads:    %8.2f s, %8.1f MB/s (%.2fx), same graph: %b%n", threads, parallel, megabytes / parallel, sequential / parallel, checksum == expected);
+		}
+	}
+
+	private static ConnectionBuffer splitLoad(File file) throws IOException {
+		ConnectionBuffer buffer = new ConnectionBuffer();
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String line = reader.readLine(); // header
+			while((line = reader.readLine()) != null) {
+				String[] parts = line.split(",", 2);
+				String src_city = parts[0];
+				String stationString = parts[1];
+				String dest_city = stationString.split(",")[0];
+				int distance = Integer.parseInt(stationString.split(",")[1]);
+				buffer.addConnection(src_city, dest_city, distance);
+			}
+		}
+		return buffer;
+	}
+
+	private static ConnectionBuffer streamingLoad(File file) throws IOException {
+		ConnectionBuffer buffer = new ConnectionBuffer();
+		StationFileParser parser = new StationFileParser(buffer);
+		try (InputStream in = new FileInputStream(file)) {
+			parser.parse(in);
+		}
+		return buffer;
+	}
+
+	private static long collections() {
+		long total = 0;
+		for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			total += Math.max(bean.getCollectionCount(), 0);
+		return total;
+	}
+
+}
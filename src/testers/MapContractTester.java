@@ -0,0 +1,208 @@
+package testers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import data_structures.MapType;
+import data_structures.MurmurHashFunction;
+import interfaces.Entry;
+import interfaces.HashFunction;
+import interfaces.Map;
+
+/**
+ * Tests of the Map contract on every MapType, so the maps the station tables can be built with
+ * all behave the same whichever one is configured.
+ * <p>
+ * The random tests apply the same operations to a map of each type and to a java.util.HashMap,
+ * and check after every operation that both return the same value and have the same size. Keys
+ * are hashed with a function that makes many of them collide as well as with MurmurHashFunction.
+ */
+public class MapContractTester {
+
+	private static final long SEED = 42;
+	private static final int KEYS = 500;
+	private static final int OPERATIONS = 50000;
+
+	@DisplayName("Testing random operations against java.util.HashMap")
+	@Nested
+	public class TestingRandomOperations {
+		@Test
+		@DisplayName("Testing random operations with keys that collide")
+		public void collidingKeysTester() {
+			for(MapType type : MapType.values())
+				applyRandomOperations(type, k -> k % 7);
+		}
+
+		@Test
+		@DisplayName("Testing random operations with MurmurHashFunction")
+		public void murmurKeysTester() {
+			for(MapType type : MapType.values())
+				applyRandomOperations(type, new MurmurHashFunction<>());
+		}
+	}
+
+	@DisplayName("Testing the contents of the maps")
+	@Nested
+	public class TestingContents {
+		@Test
+		@DisplayName("Testing that keys, values and entries agree with the map")
+		public void viewsTester() {
+			for(MapType type : MapType.values()) {
+				Map<Integer, Integer> map = type.create(1, k -> k % 7);
+				HashMap<Integer, Integer> expected = new HashMap<>();
+				for(int k = 0; k < 100; k++) {
+					map.put(k, k * 10);
+					expected.put(k, k * 10);
+				}
+				for(int k = 0; k < 100; k += 3) {
+					map.remove(k);
+					expected.remove(k);
+				}
+				checkContents(type, map, expected);
+			}
+		}
+
+		@Test
+		@DisplayName("Testing clear and isEmpty")
+		public void clearTester() {
+			for(MapType type : MapType.values()) {
+				Map<Integer, Integer> map = type.create(4, new MurmurHashFunction<>());
+				assertTrue(map.isEmpty(), type + " should start empty.");
+				for(int k = 0; k < 50; k++) map.put(k, k);
+				assertTrue(!map.isEmpty(), type + " should not be empty after put.");
+				map.clear();
+				assertTrue(map.isEmpty(), type + " should be empty after clear.");
+				assertEquals(0, map.size(), type + " should have size 0 after clear.");
+				assertEquals(null, map.get(3), type + " should not find a key after clear.");
+				assertTrue(!map.keys().iterator().hasNext(), type + " should have no keys after clear.");
+				map.put(3, 30);
+				assertEquals(Integer.valueOf(30), map.get(3), type + " should accept keys again after clear.");
+				assertEquals(1, map.size(), type + " should have size 1 after one put.");
+			}
+		}
+
+		@Test
+		@DisplayName("Testing growth from a capacity of one")
+		public void growthTester() {
+			for(MapType type : MapType.values()) {
+				Map<Integer, Integer> map = type.create(1, new MurmurHashFunction<>());
+				HashMap<Integer, Integer> expected = new HashMap<>();
+				for(int k = 0; k < 10000; k++) {
+					map.put(k, -k);
+					expected.put(k, -k);
+				}
+				checkContents(type, map, expected);
+			}
+		}
+	}
+
+	private static void applyRandomOperations(MapType type, HashFunction<Integer> hashFunction) {
+		Map<Integer, Integer> map = type.create(1, hashFunction);
+		HashMap<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random(SEED);
+		for(int i = 0; i < OPERATIONS; i++) {
+			int k = random.nextInt(KEYS);
+			int v = random.nextInt(10);
+			Integer result;
+			Integer expectedResult;
+			String operation;
+			switch(random.nextInt(9)) {
+			case 0:
+				operation = "put";
+				result = map.put(k, v);
+				expectedResult = expected.put(k, v);
+				break;
+			case 1:
+				operation = "remove";
+				result = map.remove(k);
+				expectedResult = expected.remove(k);
+				break;
+			case 2:
+				operation = "putIfAbsent";
+				result = map.putIfAbsent(k, v);
+				expectedResult = expected.putIfAbsent(k, v);
+				break;
+			case 3:
+				// A null result adds nothing
+				operation = "computeIfAbsent";
+				result = map.computeIfAbsent(k, key -> v == 0 ? null : v);
+				expectedResult = expected.computeIfAbsent(k, key -> v == 0 ? null : v);
+				break;
+			case 4:
+				// A null result removes the key
+				operation = "compute";
+				result = map.compute(k, (key, old) -> v == 0 ? null : (old == null ? v : old + v));
+				expectedResult = expected.compute(k, (key, old) -> v == 0 ? null : (old == null ? v : old + v));
+				break;
+			case 5:
+				operation = "merge";
+				result = map.merge(k, v + 1, (old, given) -> (old + given) % 5 == 0 ? null : old + given);
+				expectedResult = expected.merge(k, v + 1, (old, given) -> (old + given) % 5 == 0 ? null : old + given);
+				break;
+			case 6:
+				operation = "getOrDefault";
+				result = map.getOrDefault(k, -1);
+				expectedResult = expected.getOrDefault(k, -1);
+				break;
+			case 7:
+				operation = "containsKey";
+				result = map.containsKey(k) ? 1 : 0;
+				expectedResult = expected.containsKey(k) ? 1 : 0;
+				break;
+			default:
+				operation = "get";
+				result = map.get(k);
+				expectedResult = expected.get(k);
+			}
+			String step = type + " " + operation + "(" + k + ") at operation " + i;
+			assertEquals(expectedResult, result, step + " returned the wrong value.");
+			assertEquals(expected.size(), map.size(), step + " left the wrong size.");
+		}
+		checkContents(type, map, expected);
+	}
+
+	/*Checks every way of reading the map against the expected contents*/
+	private static void checkContents(MapType type, Map<Integer, Integer> map, HashMap<Integer, Integer> expected) {
+		assertEquals(expected.size(), map.size(), type + " has the wrong size.");
+		assertEquals(expected.isEmpty(), map.isEmpty(), type + " isEmpty does not match its size.");
+		for(java.util.Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+			assertTrue(map.containsKey(entry.getKey()), type + " is missing key " + entry.getKey() + ".");
+			assertEquals(entry.getValue(), map.get(entry.getKey()), type + " has the wrong value for " + entry.getKey() + ".");
+		}
+
+		HashMap<Integer, Integer> seen = new HashMap<>();
+		for(Integer key : map.getKeys())
+			assertTrue(seen.put(key, map.get(key)) == null, type + " getKeys has " + key + " twice.");
+		assertEquals(expected, seen, type + " getKeys does not match the map.");
+		assertEquals(expected.size(), map.getValues().size(), type + " getValues has the wrong size.");
+
+		seen.clear();
+		for(Integer key : map.keys())
+			assertTrue(seen.put(key, map.get(key)) == null, type + " keys has " + key + " twice.");
+		assertEquals(expected, seen, type + " keys does not match the map.");
+
+		seen.clear();
+		for(Entry<Integer, Integer> entry : map.entries())
+			assertTrue(seen.put(entry.getKey(), entry.getValue()) == null, type + " entries has " + entry.getKey() + " twice.");
+		assertEquals(expected, seen, type + " entries does not match the map.");
+
+		long valueSum = 0;
+		long expectedSum = 0;
+		int values = 0;
+		for(Integer value : map.values()) {
+			valueSum += value;
+			values++;
+		}
+		for(Integer value : expected.values()) expectedSum += value;
+		assertEquals(expected.size(), values, type + " values has the wrong amount of values.");
+		assertTrue(valueSum == expectedSum, type + " values do not match the map.");
+	}
+
+}
@@ -0,0 +1,340 @@
+package testers;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import data_structures.IndexedMinHeap;
+import interfaces.Entry;
+import interfaces.List;
+import interfaces.Map;
+import main.AllPairsTravelTimes;
+import main.BidirectionalRouter;
+import main.ConnectionBuffer;
+import main.ContractionHierarchy;
+import main.DynamicRouteTree;
+import main.LandmarkRouter;
+import main.Landmarks;
+import main.Route;
+import main.Station;
+import main.StationGraph;
+import main.TrainStationManager;
+
+/**
+ * Benchmarks for the routing code. Run it as a regular Java application; every section
+ * builds a synthetic network, times the operation and prints the results.
+ * <p>
+ * The synthetic networks are grids of stations named "S<row>_<column>" where every station
+ * is connected to its right and bottom neighbors with a random distance, which gives a
+ * connected network with about two connections per station, similar to a rail network.
+ */
+public class RoutingBenchmark {
+
+	private static final long SEED = 42;
+
+	public static void main(String[] args) {
+		allPairsBenchmark(40);
+		pointToPointBenchmark(200, 300);
+		contractionHierarchyBenchmark(100, 1000);
+		dynamicUpdateBenchmark(200, 1000);
+		sortedTravelTimesBenchmark(500);
+	}
+
+	/**
+	 * Builds a side x side grid network.
+	 * @param side - amount of stations per row and per column
+	 * @return the network packed into a StationGraph
+	 */
+	public static StationGraph gridNetwork(int side) {
+		Random random = new Random(SEED);
+		ConnectionBuffer buffer = new ConnectionBuffer(side * side, 4 * side * side);
+		for(int r = 0; r < side; r++) {
+			for(int c = 0; c < side; c++) {
+				String name = "S" + r + "_" + c;
+				buffer.intern(name);
+				if(c + 1 < side)
+					buffer.addConnection(name, "S" + r + "_" + (c + 1), 1 + random.nextInt(100));
+				if(r + 1 < side)
+					buffer.addConnection(name, "S" + (r + 1) + "_" + c, 1 + random.nextInt(100));
+			}
+		}
+		return new StationGraph(buffer);
+	}
+
+	/**
+	 * Compares a sequential loop of single-source searches with the parallel all-pairs
+	 * precomputation at 1, 2, 4, ... threads up to the number of cores.
+	 * @param side - size of the grid network
+	 */
+	private static void allPairsBenchmark(int side) {
+		StationGraph graph = gridNetwork(side);
+		int n = graph.size();
+		System.out.println("All-pairs travel times, " + n + " stations, " + graph.connectionCount() + " connections");
+
+		/* Warm up so the JIT compiles the search before anything is timed */
+		new AllPairsTravelTimes(graph);
+
+		long start = System.nanoTime();
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		int[] hops = new int[n];
+		IndexedMinHeap toVisit = new IndexedMinHeap(n);
+		for(int origin = 0; origin < n; origin++)
+			graph.findShortestDistance(origin, dist, pred, hops, toVisit);
+		double sequential = (System.nanoTime() - start) / 1e6;
+		System.out.printf("  sequential findShortestDistance loop: %10.1f ms%n", sequential);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		for(int threads = 1; threads <= cores; threads *= 2) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			start = System.nanoTime();
+			new AllPairsTravelTimes(graph, pool);
+			double parallel = (System.nanoTime() - start) / 1e6;
+			pool.shutdown();
+			System.out.printf("  ForkJoinPool, %2d threads:            %10.1f ms (%.2fx)%n", threads, parallel, sequential / parallel);
+		}
+	}
+
+	/**
+	 * Compares the bidirectional point to point search with building the full shortest route
+	 * tree of the origin, for random pairs of stations.
+	 * @param side - size of the grid network
+	 * @param queries - amount of random pairs
+	 */
+	private static void pointToPointBenchmark(int side, int queries) {
+		StationGraph graph = gridNetwork(side);
+		int n = graph.size();
+		System.out.println("Point to point routes, " + n + " stations, " + queries + " random queries");
+
+		Random random = new Random(SEED);
+		String[] origins = new String[queries];
+		String[] destinations = new String[queries];
+		for(int i = 0; i < queries; i++) {
+			origins[i] = graph.nameOf(random.nextInt(n));
+			destinations[i] = graph.nameOf(random.nextInt(n));
+		}
+
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		IndexedMinHeap toVisit = new IndexedMinHeap(n);
+		long treeSettled = 0;
+		long start = System.nanoTime();
+		for(int i = 0; i < queries; i++)
+			treeSettled += graph.findShortestDistance(graph.idOf(origins[i]), dist, pred, null, toVisit);
+		double treeTime = (System.nanoTime() - start) / 1e6;
+
+		BidirectionalRouter router = new BidirectionalRouter(graph);
+		long routeSettled = 0;
+		start = System.nanoTime();
+		for(int i = 0; i < queries; i++) {
+			Route route = router.route(origins[i], destinations[i]);
+			routeSettled += route.getSettled();
+		}
+		double routeTime = (System.nanoTime() - start) / 1e6;
+
+		start = System.nanoTime();
+		Landmarks landmarks = new Landmarks(graph, 16);
+		double preprocessing = (System.nanoTime() - start) / 1e6;
+		LandmarkRouter landmarkRouter = new LandmarkRouter(graph, landmarks);
+		long landmarkSettled = 0;
+		start = System.nanoTime();
+		for(int i = 0; i < queries; i++) {
+			Route route = landmarkRouter.route(origins[i], destinations[i]);
+			landmarkSettled += route.getSettled();
+		}
+		double landmarkTime = (System.nanoTime() - start) / 1e6;
+
+		System.out.printf("  full tree:     %10.1f ms, %10d settled per query%n", treeTime, treeSettled / queries);
+		System.out.printf("  bidirectional: %10.1f ms, %10d settled per query (%.2fx faster)%n", routeTime, routeSettled / queries, treeTime / routeTime);
+		System.out.printf("  ALT, 16 landmarks (%.1f ms preprocessing):%n", preprocessing);
+		System.out.printf("                 %10.1f ms, %10d settled per query (%.2fx faster)%n", landmarkTime, landmarkSettled / queries, treeTime / landmarkTime);
+	}
+
+	/**
+	 * Measures the preprocessing of a contraction hierarchy and compares its queries with
+	 * building the full shortest route tree of the origin (findShortestDistance).
+	 * @param side - size of the grid network
+	 * @param queries - amount of random pairs
+	 */
+	private static void contractionHierarchyBenchmark(int side, int queries) {
+		StationGraph graph = gridNetwork(side);
+		int n = graph.size();
+		System.out.println("Contraction hierarchy, " + n + " stations, " + queries + " random queries");
+
+		Random random = new Random(SEED);
+		String[] origins = new String[queries];
+		String[] destinations = new String[queries];
+		for(int i = 0; i < queries; i++) {
+			origins[i] = graph.nameOf(random.nextInt(n));
+			destinations[i] = graph.nameOf(random.nextInt(n));
+		}
+
+		long start = System.nanoTime();
+		ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+		double preprocessing = (System.nanoTime() - start) / 1e6;
+		System.out.printf("  preprocessing: %10.1f ms, %d shortcuts for %d connections%n", preprocessing, hierarchy.getShortcutCount(), graph.connectionCount());
+
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		IndexedMinHeap toVisit = new IndexedMinHeap(n);
+		long treeSettled = 0;
+		start = System.nanoTime();
+		for(int i = 0; i < queries; i++)
+			treeSettled += graph.findShortestDistance(graph.idOf(origins[i]), dist, pred, null, toVisit);
+		double treeTime = (System.nanoTime() - start) / 1e6;
+
+		long hierarchySettled = 0;
+		start = System.nanoTime();
+		for(int i = 0; i < queries; i++) {
+			Route route = hierarchy.route(origins[i], destinations[i]);
+			hierarchySettled += route.getSettled();
+		}
+		double hierarchyTime = (System.nanoTime() - start) / 1e6;
+
+		System.out.printf("  full tree:     %10.1f ms, %10d settled per query%n", treeTime, treeSettled / queries);
+		System.out.printf("  hierarchy:     %10.1f ms, %10d settled per query (%.2fx faster)%n", hierarchyTime, hierarchySettled / queries, treeTime / hierarchyTime);
+	}
+
+	/**
+	 * Compares changing connections through TrainStationManager, which repairs the routes
+	 * from Westside and publishes them with the changed network as a new snapshot, with
+	 * repairing a DynamicRouteTree alone and with computing the whole tree again. Westside is
+	 * connected to the corner of the grid. Every round changes the distance of a random
+	 * connection, then removes another one and adds it back with a new distance, so the three
+	 * kinds of change are timed with the same connections on both sides. The whole tree is
+	 * computed once per round.
+	 * @param side - size of the grid network
+	 * @param updates - amount of rounds of random changes
+	 */
+	private static void dynamicUpdateBenchmark(int side, int updates) {
+		TrainStationManager manager = gridManager(side);
+		StationGraph graph = manager.getGraph();
+		int n = graph.size();
+		System.out.println("Changes of connections, " + n + " stations, " + updates + " rounds of random changes");
+
+		double[] managerTimes = new double[3];
+		long changed = 0;
+		Random random = new Random(SEED);
+		for(int i = 0; i < updates; i++) {
+			String[] connection = randomConnection(random, side);
+			long start = System.nanoTime();
+			changed += manager.updateDistance(connection[0], connection[1], 1 + random.nextInt(100)).size();
+			managerTimes[0] += System.nanoTime() - start;
+
+			connection = randomConnection(random, side);
+			start = System.nanoTime();
+			changed += manager.removeConnection(connection[0], connection[1]).size();
+			managerTimes[1] += System.nanoTime() - start;
+			start = System.nanoTime();
+			changed += manager.addConnection(connection[0], connection[1], 1 + random.nextInt(100)).size();
+			managerTimes[2] += System.nanoTime() - start;
+		}
+		/* A reader after the changes packs the graph they left */
+		long start = System.nanoTime();
+		int packed = manager.getGraph().size();
+		double packTime = (System.nanoTime() - start) / 1e6;
+
+		DynamicRouteTree tree = new DynamicRouteTree(graph, "Westside");
+		random = new Random(SEED);
+		start = System.nanoTime();
+		for(int i = 0; i < updates; i++) {
+			String[] connection = randomConnection(random, side);
+			tree.updateDistance(connection[0], connection[1], 1 + random.nextInt(100));
+			connection = randomConnection(random, side);
+			tree.removeConnection(connection[0], connection[1]);
+			tree.addConnection(connection[0], connection[1], 1 + random.nextInt(100));
+		}
+		double repairTime = (System.nanoTime() - start) / 1e6;
+
+		int[] dist = new int[n];
+		int[] pred = new int[n];
+		IndexedMinHeap toVisit = new IndexedMinHeap(n);
+		start = System.nanoTime();
+		for(int i = 0; i < updates; i++)
+			graph.findShortestDistance(graph.idOf("Westside"), dist, pred, null, toVisit);
+		double fullTime = (System.nanoTime() - start) / 1e6 / updates;
+
+		repairTime /= 3 * updates;
+		double managerTime = (managerTimes[0] + managerTimes[1] + managerTimes[2]) / 1e6 / (3 * updates);
+		System.out.printf("  full tree:     %8.3f ms per change, %8d stations per change%n", fullTime, n);
+		System.out.printf("  repair only:   %8.3f ms per change (%.2fx faster)%n", repairTime, fullTime / repairTime);
+		System.out.printf("  manager:       %8.3f ms per change, %8d changed per change (%.2fx faster)%n", managerTime, changed / (3 * updates), fullTime / managerTime);
+		System.out.printf("    updateDistance:   %8.3f ms per change%n", managerTimes[0] / 1e6 / updates);
+		System.out.printf("    removeConnection: %8.3f ms per change%n", managerTimes[1] / 1e6 / updates);
+		System.out.printf("    addConnection:    %8.3f ms per change%n", managerTimes[2] / 1e6 / updates);
+		System.out.printf("  first getGraph() after the changes: %.1f ms to pack %d stations%n", packTime, packed);
+	}
+
+	/**
+	 * Picks a random connection between two neighbors of the same row of a grid network.
+	 * @param random - source of the row and column
+	 * @param side - size of the grid network
+	 * @return the names of both ends of the connection
+	 */
+	private static String[] randomConnection(Random random, int side) {
+		int r = random.nextInt(side), c = random.nextInt(side - 1);
+		return new String[] {"S" + r + "_" + c, "S" + r + "_" + (c + 1)};
+	}
+
+	/**
+	 * Builds a manager on a side x side grid network with Westside connected to its corner.
+	 * @param side - size of the grid network
+	 * @return the manager with the routes from Westside on the grid
+	 */
+	private static TrainStationManager gridManager(int side) {
+		Map<String, List<Station>> stations = gridNetwork(side).toStationMap();
+		stations.get("S0_0").add(new Station("Westside", 1));
+		List<Station> westside = new data_structures.ArrayList<>();
+		westside.add(new Station("S0_0", 1));
+		stations.put("Westside", westside);
+		TrainStationManager manager = new TrainStationManager("stations.csv");
+		manager.setStations(stations);
+		/* setStations keeps the old routes from Westside, these are the ones on the grid */
+		manager.setShortestRoutes(manager.getShortestRoutes("Westside"));
+		return manager;
+	}
+
+	/**
+	 * Lists the stations of a side x side grid by travel time from Westside (connected to the
+	 * corner of the grid) with sortedTravelTimes(), and by copying the travel times into a
+	 * java.util.ArrayList of java.util.Map entries and sorting it with the same order. The table
+	 * of travel times is computed before timing, so only the copy and the sort are measured.
+	 * Reports ms per listing, the average of 5 after 2 warm up listings.
+	 * @param side - size of the grid network
+	 */
+	private static void sortedTravelTimesBenchmark(int side) {
+		TrainStationManager manager = gridManager(side);
+		data_structures.ObjectDoubleHashMap<String> table = manager.getTravelTimeTable();
+		System.out.println("Stations by travel time, " + table.size() + " stations, ms");
+
+		java.util.Comparator<java.util.Map.Entry<String, Double>> order = (a, b) -> {
+			int c = Double.compare(a.getValue(), b.getValue());
+			return c != 0 ? c : a.getKey().compareTo(b.getKey());
+		};
+		double[] times = new double[2];
+		for(int way = 0; way < 2; way++) {
+			long total = 0;
+			for(int run = 0; run < 7; run++) {
+				long start = System.nanoTime();
+				String closest;
+				if(way == 0) {
+					List<Entry<String, Double>> sorted = manager.sortedTravelTimes();
+					closest = sorted.first().getKey();
+				}
+				else {
+					java.util.List<java.util.Map.Entry<String, Double>> sorted = new java.util.ArrayList<>(table.size());
+					table.forEach((station, time) -> sorted.add(new java.util.AbstractMap.SimpleImmutableEntry<>(station, time)));
+					sorted.sort(order);
+					closest = sorted.get(0).getKey();
+				}
+				if(run >= 2)
+					total += System.nanoTime() - start;
+				if(!closest.equals("Westside"))
+					throw new IllegalStateException("Westside should be first");
+			}
+			times[way] = total / 5e6;
+		}
+		System.out.printf("  sortedTravelTimes()                     %8.1f%n", times[0]);
+		System.out.printf("  copy to java.util.ArrayList, sort       %8.1f%n", times[1]);
+	}
+
+}